@@ -0,0 +1,20 @@
+package com.universidad.vitaltech.config;
+
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+import org.springframework.stereotype.Component;
+
+import com.universidad.vitaltech.model.Usuario;
+
+/**
+ * Recalcula las claves de búsqueda de un usuario antes de cada save, sin
+ * importar si se guarda desde un servicio, el DataLoader o el repositorio
+ */
+@Component
+public class ClavesBusquedaCallback implements BeforeConvertCallback<Usuario> {
+
+    @Override
+    public Usuario onBeforeConvert(Usuario usuario, String collection) {
+        usuario.actualizarClavesBusqueda();
+        return usuario;
+    }
+}
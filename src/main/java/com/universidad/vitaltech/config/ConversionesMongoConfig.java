@@ -0,0 +1,57 @@
+package com.universidad.vitaltech.config;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.convert.WritingConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+/**
+ * Conversiones de tipos para MongoDB.
+ * Por defecto LocalTime se guarda como una fecha completa del dia en que se
+ * escribe, asi que la misma hora guardada en dos dias distintos no es igual ni
+ * se ordena por hora del dia. Las horas se guardan como texto "HH:mm", que se
+ * compara y se ordena igual que la hora.
+ */
+@Configuration
+public class ConversionesMongoConfig {
+
+    public static final DateTimeFormatter FORMATO_HORA = DateTimeFormatter.ofPattern("HH:mm");
+
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return conversiones();
+    }
+
+    /**
+     * Las mismas conversiones para las pruebas que arman su propio MappingMongoConverter
+     */
+    public static MongoCustomConversions conversiones() {
+        return new MongoCustomConversions(List.of(HoraATexto.INSTANCE, TextoAHora.INSTANCE));
+    }
+
+    @WritingConverter
+    enum HoraATexto implements Converter<LocalTime, String> {
+        INSTANCE;
+
+        @Override
+        public String convert(LocalTime hora) {
+            return hora.format(FORMATO_HORA);
+        }
+    }
+
+    @ReadingConverter
+    enum TextoAHora implements Converter<String, LocalTime> {
+        INSTANCE;
+
+        @Override
+        public LocalTime convert(String texto) {
+            return LocalTime.parse(texto, FORMATO_HORA);
+        }
+    }
+}
@@ -14,8 +14,10 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
+import java.util.Set;
 
 /**
  * Carga datos de prueba masivos en la base de datos al iniciar la aplicación
@@ -340,7 +342,9 @@ public class DataLoader implements CommandLineRunner {
             citas.add(citaRepository.save(cita));
         }
 
-        // CITAS PRÓXIMAS (200)
+        // CITAS PRÓXIMAS (hasta 200)
+        // Se omiten las que repiten doctor, fecha y hora (indice unico de citas activas)
+        Set<String> horariosOcupados = new HashSet<>();
         for (int i = 0; i < 200; i++) {
             HorarioDisponible horario = horarios.get(random.nextInt(horarios.size()));
             Usuario paciente = pacientes.get(random.nextInt(pacientes.size()));
@@ -348,6 +352,10 @@ public class DataLoader implements CommandLineRunner {
             LocalDate fechaCita = hoy.plusDays(1 + random.nextInt(30));
             LocalTime horaCita = generarHoraCita(horario);
 
+            if (!horariosOcupados.add(horario.getDoctorId() + "|" + fechaCita + "|" + horaCita)) {
+                continue;
+            }
+
             Cita cita = new Cita();
             cita.setPacienteId(paciente.getId());
             cita.setDoctorId(horario.getDoctorId());
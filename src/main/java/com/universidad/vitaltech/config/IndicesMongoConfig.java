@@ -0,0 +1,94 @@
+package com.universidad.vitaltech.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Component;
+
+import com.universidad.vitaltech.model.Cita;
+import com.universidad.vitaltech.model.DiaFestivo;
+import com.universidad.vitaltech.model.Diagnostico;
+import com.universidad.vitaltech.model.EntradaListaEspera;
+import com.universidad.vitaltech.model.EstadoCita;
+import com.universidad.vitaltech.model.HorarioDisponible;
+import com.universidad.vitaltech.model.ResumenDiarioCitas;
+import com.universidad.vitaltech.model.RetencionHorario;
+import com.universidad.vitaltech.model.Slot;
+import com.universidad.vitaltech.model.Usuario;
+import com.universidad.vitaltech.model.VersionAgenda;
+
+/**
+ * Crea los indices de MongoDB al arrancar la aplicacion.
+ * Los indices declarados con anotaciones en las entidades no se crean solos
+ * (auto-index-creation esta desactivado), asi que se aseguran aqui junto con
+ * los que no se pueden declarar con anotaciones.
+ */
+@Component
+public class IndicesMongoConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(IndicesMongoConfig.class);
+
+    // Indice unico parcial que impide dos citas activas del mismo doctor a la misma hora
+    public static final String INDICE_HORARIO_CITA = "doctor_fecha_hora_activa_uk";
+
+    private static final Class<?>[] ENTIDADES = {
+        Usuario.class, Cita.class, Diagnostico.class, HorarioDisponible.class, Slot.class,
+        RetencionHorario.class, EntradaListaEspera.class, DiaFestivo.class, ResumenDiarioCitas.class,
+        VersionAgenda.class
+    };
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void crearIndices() {
+        MongoPersistentEntityIndexResolver resolver =
+                new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+
+        for (Class<?> entidad : ENTIDADES) {
+            IndexOperations indexOps = mongoTemplate.indexOps(entidad);
+            resolver.resolveIndexFor(entidad).forEach(indice -> asegurarIndice(indexOps, indice));
+        }
+
+        // Requiere MongoDB 6.0+ por el $in en el filtro parcial
+        Index horarioCita = new Index()
+                .on("doctorId", Sort.Direction.ASC)
+                .on("horario.fecha", Sort.Direction.ASC)
+                .on("horario.horaInicio", Sort.Direction.ASC)
+                .unique()
+                .named(INDICE_HORARIO_CITA)
+                .partial(PartialIndexFilter.of(Criteria.where("estado")
+                        .in(EstadoCita.PROGRAMADA.name(), EstadoCita.CONFIRMADA.name())));
+        asegurarIndice(mongoTemplate.indexOps(Cita.class), horarioCita);
+    }
+
+    /**
+     * Un indice unico que falta deja pasar reservas duplicadas, asi que si no se puede
+     * crear (por ejemplo, datos duplicados previos al indice) la aplicacion no arranca.
+     * Los demas indices solo afectan el rendimiento y su falla se registra.
+     */
+    private void asegurarIndice(IndexOperations indexOps, IndexDefinition indice) {
+        try {
+            indexOps.createIndex(indice);
+        } catch (RuntimeException e) {
+            if (indice.getIndexOptions().getBoolean("unique", false)) {
+                log.error("No se pudo crear el indice unico {}: {}", indice.getIndexOptions().get("name"),
+                        e.getMessage());
+                throw new RuntimeException("No se pudo crear el indice unico "
+                        + indice.getIndexOptions().get("name") + " " + indice.getIndexKeys()
+                        + "; revise los documentos duplicados antes de arrancar", e);
+            }
+            log.warn("No se pudo crear el indice {}: {}", indice.getIndexKeys(), e.getMessage());
+        }
+    }
+}
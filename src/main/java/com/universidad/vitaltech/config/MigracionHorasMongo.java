@@ -0,0 +1,106 @@
+package com.universidad.vitaltech.config;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+
+import com.universidad.vitaltech.model.Cita;
+import com.universidad.vitaltech.model.HorarioDisponible;
+import com.universidad.vitaltech.model.RetencionHorario;
+import com.universidad.vitaltech.model.Slot;
+
+/**
+ * Pasa las horas guardadas como fecha (antes de ConversionesMongoConfig) a texto "HH:mm".
+ * Corre antes que DataLoader y que las tareas de arranque, y no hace nada si ya no
+ * quedan horas con formato de fecha. Los slots y las retenciones no se convierten:
+ * se borran, porque los slots se regeneran al arrancar y las retenciones duran minutos.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class MigracionHorasMongo implements CommandLineRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(MigracionHorasMongo.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public void run(String... args) {
+        convertir(mongoTemplate.getCollection(mongoTemplate.getCollectionName(Cita.class)),
+                "horario.horaInicio", "horario.horaFin");
+        convertir(mongoTemplate.getCollection(mongoTemplate.getCollectionName(HorarioDisponible.class)),
+                "horaInicio", "horaFin");
+
+        borrar(mongoTemplate.getCollection(mongoTemplate.getCollectionName(Slot.class)), "horaInicio");
+        borrar(mongoTemplate.getCollection(mongoTemplate.getCollectionName(RetencionHorario.class)), "horaInicio");
+    }
+
+    /**
+     * Un documento por escritura, sin orden: si una cita choca con el indice unico
+     * (dos citas activas a la misma hora que antes no se detectaban) las demas se
+     * convierten igual y la que choca se informa para revisarla a mano
+     */
+    private void convertir(MongoCollection<Document> coleccion, String campoInicio, String campoFin) {
+        List<Object> ids = new ArrayList<>();
+        List<WriteModel<Document>> cambios = new ArrayList<>();
+        Document conversion = new Document(campoInicio, aTexto(campoInicio)).append(campoFin, aTexto(campoFin));
+        for (Document documento : coleccion.find(Filters.type(campoInicio, "date"))
+                .projection(Projections.include("_id"))) {
+            ids.add(documento.get("_id"));
+            cambios.add(new UpdateOneModel<>(Filters.eq("_id", documento.get("_id")),
+                    List.of(new Document("$set", conversion))));
+        }
+        if (cambios.isEmpty()) {
+            return;
+        }
+
+        try {
+            coleccion.bulkWrite(cambios, new BulkWriteOptions().ordered(false));
+            log.info("Horas de {} convertidas a texto: {} documentos", coleccion.getNamespace(), cambios.size());
+        } catch (MongoBulkWriteException e) {
+            for (BulkWriteError error : e.getWriteErrors()) {
+                log.error("No se pudo convertir la hora de {} (documento {}): {}", coleccion.getNamespace(),
+                        ids.get(error.getIndex()), error.getMessage());
+            }
+        }
+    }
+
+    private void borrar(MongoCollection<Document> coleccion, String campo) {
+        long borrados = coleccion.deleteMany(Filters.type(campo, "date")).getDeletedCount();
+        if (borrados > 0) {
+            log.info("Documentos de {} con horas en formato de fecha eliminados: {}", coleccion.getNamespace(),
+                    borrados);
+        }
+    }
+
+    /**
+     * Las fechas se escribieron con la zona del servidor, asi que la hora se lee en esa zona
+     */
+    private static Document aTexto(String campo) {
+        return new Document("$cond", List.of(
+                new Document("$eq", List.of(new Document("$type", "$" + campo), "date")),
+                new Document("$dateToString", new Document("format", "%H:%M")
+                        .append("date", "$" + campo)
+                        .append("timezone", ZoneId.systemDefault().getId())),
+                "$" + campo));
+    }
+}
@@ -0,0 +1,14 @@
+package com.universidad.vitaltech.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Habilita las tareas programadas (@Scheduled) y asíncronas (@Async) de la aplicacion
+ */
+@Configuration
+@EnableScheduling
+@EnableAsync
+public class TareasConfig {
+}
@@ -1,9 +1,11 @@
 package com.universidad.vitaltech.controller;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -15,10 +17,18 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import com.universidad.vitaltech.dto.EstadisticasCitas;
+import com.universidad.vitaltech.dto.EstadisticasUsuarios;
+import com.universidad.vitaltech.dto.FiltroUsuarios;
+import com.universidad.vitaltech.dto.UsuarioResumen;
+import com.universidad.vitaltech.model.DiaFestivo;
+import com.universidad.vitaltech.model.EstadoCita;
 import com.universidad.vitaltech.model.Rol;
 import com.universidad.vitaltech.model.Usuario;
 import com.universidad.vitaltech.service.CitaService;
 import com.universidad.vitaltech.service.DiagnosticoService;
+import com.universidad.vitaltech.service.EstadisticasService;
+import com.universidad.vitaltech.service.FestivoService;
 import com.universidad.vitaltech.service.UsuarioService;
 
 /**
@@ -37,32 +47,56 @@ public class AdminController {
     @Autowired
     private DiagnosticoService diagnosticoService;
     
+    @Autowired
+    private FestivoService festivoService;
+    
+    @Autowired
+    private EstadisticasService estadisticasService;
+    
     /**
      * Dashboard del administrador
      */
     @GetMapping("/dashboard")
     public String dashboard(Model model, Authentication authentication) {
-        // Estadísticas generales
-        long totalUsuarios = usuarioService.listarTodos().size();
-        long totalDoctores = usuarioService.listarDoctoresActivos().size();
-        long totalPacientes = usuarioService.listarPacientesActivos().size();
-        long totalCitas = citaService.listarTodas().size();
+        // Estadísticas generales (una agregación por colección)
+        EstadisticasUsuarios usuarios = estadisticasService.obtenerEstadisticasUsuarios();
+        EstadisticasCitas citas = estadisticasService.obtenerEstadisticasCitas();
         
-        model.addAttribute("totalUsuarios", totalUsuarios);
-        model.addAttribute("totalDoctores", totalDoctores);
-        model.addAttribute("totalPacientes", totalPacientes);
-        model.addAttribute("totalCitas", totalCitas);
+        model.addAttribute("totalUsuarios", usuarios.total());
+        model.addAttribute("totalDoctores", usuarios.activos(Rol.DOCTOR));
+        model.addAttribute("totalPacientes", usuarios.activos(Rol.PACIENTE));
+        model.addAttribute("totalCitas", citas.total());
+        model.addAttribute("estadisticasUsuarios", usuarios);
+        model.addAttribute("estadisticasCitas", citas);
+        model.addAttribute("estadosCita", EstadoCita.values());
         
         return "admin/dashboard";
     }
     
     /**
-     * Listar todos los usuarios
+     * Listar usuarios (paginado, con filtros por rol y estado)
      */
     @GetMapping("/usuarios")
-    public String listarUsuarios(Model model) {
-        List<Usuario> usuarios = usuarioService.listarTodos();
-        model.addAttribute("usuarios", usuarios);
+    public String listarUsuarios(@RequestParam(required = false) String termino,
+                                 @RequestParam(required = false) Rol rol,
+                                 @RequestParam(required = false) Boolean activo,
+                                 @RequestParam(defaultValue = "1") int pagina,
+                                 @RequestParam(defaultValue = "20") int tamano,
+                                 @RequestParam(defaultValue = "apellido") String orden,
+                                 @RequestParam(defaultValue = "asc") String direccion,
+                                 Model model) {
+        FiltroUsuarios filtro = new FiltroUsuarios(termino, rol, activo);
+        boolean ascendente = !"desc".equals(direccion);
+        Page<UsuarioResumen> usuarios = usuarioService.listarResumenes(filtro, pagina - 1, tamano, orden, ascendente);
+        
+        model.addAttribute("usuarios", usuarios.getContent());
+        model.addAttribute("pagina", usuarios);
+        model.addAttribute("termino", filtro.termino());
+        model.addAttribute("rolSeleccionado", rol);
+        model.addAttribute("activoSeleccionado", activo);
+        model.addAttribute("orden", orden);
+        model.addAttribute("direccion", ascendente ? "asc" : "desc");
+        model.addAttribute("roles", Rol.values());
         return "admin/usuarios";
     }
     
@@ -222,20 +256,53 @@ public class AdminController {
     }
     
     /**
-     * Buscar usuarios
+     * Buscar usuarios (misma lista con el término como filtro)
      */
     @GetMapping("/usuarios/buscar")
-    public String buscarUsuarios(@RequestParam(required = false) String termino, Model model) {
-        List<Usuario> usuarios;
-        
-        if (termino != null && !termino.isEmpty()) {
-            usuarios = usuarioService.buscarPorTermino(termino);  // ← CAMBIAR AQUÍ
-            model.addAttribute("termino", termino);
-        }else {
-            usuarios = usuarioService.listarTodos();
+    public String buscarUsuarios(@RequestParam(required = false) String termino,
+                                 RedirectAttributes redirectAttributes) {
+        redirectAttributes.addAttribute("termino", termino);
+        return "redirect:/admin/usuarios";
+    }
+    
+    /**
+     Días festivos de la clínica
+     */
+    @GetMapping("/festivos")
+    public String listarFestivos(Model model) {
+        model.addAttribute("festivos", festivoService.listarProximos());
+        return "admin/festivos";
+    }
+    
+    @PostMapping("/festivos/guardar")
+    public String guardarFestivo(@RequestParam String fecha,
+            @RequestParam(required = false) String descripcion,
+            RedirectAttributes redirectAttributes) {
+        try {
+            DiaFestivo festivo = new DiaFestivo();
+            festivo.setFecha(LocalDate.parse(fecha));
+            festivo.setDescripcion(descripcion);
+            
+            festivoService.agregar(festivo);
+            redirectAttributes.addFlashAttribute("mensaje", "Día festivo registrado exitosamente");
+            
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("error", "Error al registrar festivo: " + e.getMessage());
         }
+        
+        return "redirect:/admin/festivos";
+    }
     
-        model.addAttribute("usuarios", usuarios);
-        return "admin/usuarios";
+    @GetMapping("/festivos/eliminar/{id}")
+    public String eliminarFestivo(@PathVariable String id, RedirectAttributes redirectAttributes) {
+        try {
+            festivoService.eliminar(id);
+            redirectAttributes.addFlashAttribute("mensaje", "Día festivo eliminado exitosamente");
+            
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("error", "Error al eliminar: " + e.getMessage());
+        }
+        
+        return "redirect:/admin/festivos";
     }
-}
\ No newline at end of file
+}
@@ -8,8 +8,11 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -31,11 +34,14 @@ import com.universidad.vitaltech.service.CitaService;
 import com.universidad.vitaltech.service.DiagnosticoService;
 import com.universidad.vitaltech.service.HorarioDisponibleService;
 import com.universidad.vitaltech.service.UsuarioService;
+import com.universidad.vitaltech.service.paralelo.ConsultasParalelas;
 
 @Controller
 @RequestMapping("/doctor")
 public class DoctorController {
 
+    private static final int DIAGNOSTICOS_POR_PAGINA = 20;
+
     @Autowired
     private UsuarioService usuarioService;
 
@@ -53,15 +59,23 @@ public class DoctorController {
         CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
         String doctorId = userDetails.getId();
 
-        long citasHoy = citaService.listarPorDoctorYFecha(doctorId, LocalDate.now()).size();
-        long citasPendientes = citaService.contarCitasPorDoctorYEstado(doctorId, EstadoCita.PROGRAMADA)
-                + citaService.contarCitasPorDoctorYEstado(doctorId, EstadoCita.CONFIRMADA);
-        long totalDiagnosticos = diagnosticoService.contarDiagnosticosPorDoctor(doctorId);
-
-        model.addAttribute("citasHoy", citasHoy);
-        model.addAttribute("citasPendientes", citasPendientes);
-        model.addAttribute("totalDiagnosticos", totalDiagnosticos);
-        model.addAttribute("citasHoyLista", citaService.listarPorDoctorYFecha(doctorId, LocalDate.now()));
+        // Las consultas son independientes: se esperan juntas y el panel tarda lo que la más lenta
+        try (ConsultasParalelas consultas = new ConsultasParalelas()) {
+            Supplier<List<Cita>> citasHoy = consultas.iniciar(
+                    () -> citaService.listarPorDoctorYFecha(doctorId, LocalDate.now()));
+            Supplier<Long> programadas = consultas.iniciar(
+                    () -> citaService.contarCitasPorDoctorYEstado(doctorId, EstadoCita.PROGRAMADA));
+            Supplier<Long> confirmadas = consultas.iniciar(
+                    () -> citaService.contarCitasPorDoctorYEstado(doctorId, EstadoCita.CONFIRMADA));
+            Supplier<Long> totalDiagnosticos = consultas.iniciar(
+                    () -> diagnosticoService.contarDiagnosticosPorDoctor(doctorId));
+            consultas.esperar();
+
+            model.addAttribute("citasHoy", citasHoy.get().size());
+            model.addAttribute("citasPendientes", programadas.get() + confirmadas.get());
+            model.addAttribute("totalDiagnosticos", totalDiagnosticos.get());
+            model.addAttribute("citasHoyLista", citasHoy.get());
+        }
 
         return "doctor/dashboard";
     }
@@ -75,13 +89,6 @@ public class DoctorController {
         CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
         String doctorId = userDetails.getId();
 
-        System.out.println("========================================");
-        System.out.println("🚀 INICIO DEL MÉTODO verCitas()");
-        System.out.println("   Doctor ID: " + doctorId);
-        System.out.println("   Fecha: " + fecha);
-        System.out.println("   Filtro: " + filtro);
-        System.out.println("========================================");
-
         List<Cita> todasLasCitas;
 
         // Si hay filtro de fecha específica
@@ -96,8 +103,6 @@ public class DoctorController {
             todasLasCitas = new ArrayList<>();
         }
 
-        System.out.println("📊 Total citas del doctor: " + todasLasCitas.size());
-
         LocalDate hoy = LocalDate.now();
 
         // Clasificar las citas
@@ -121,10 +126,6 @@ public class DoctorController {
         citasProximas.sort((c1, c2) -> c1.getHorario().getFecha().compareTo(c2.getHorario().getFecha()));
         citasAntiguas.sort((c1, c2) -> c2.getHorario().getFecha().compareTo(c1.getHorario().getFecha()));
 
-        System.out.println("📅 Citas HOY: " + citasHoy.size());
-        System.out.println("📅 Citas PRÓXIMAS: " + citasProximas.size());
-        System.out.println("📅 Citas ANTIGUAS: " + citasAntiguas.size());
-
         List<Cita> citasMostrar;
         String filtroActivo = filtro != null ? filtro : "hoy";
 
@@ -143,58 +144,15 @@ public class DoctorController {
                 break;
         }
 
-        System.out.println("========================================");
-        System.out.println("🔍 Filtro activo: " + filtroActivo);
-        System.out.println("🔍 Citas a mostrar: " + citasMostrar.size());
-        System.out.println("========================================");
-
-        // CARGAR INFORMACIÓN COMPLETA DE PACIENTES (nombre Y documento)
+        // Nombre y documento de todos los pacientes de la lista en una sola consulta
         Map<String, String> nombresPacientes = new HashMap<>();
         Map<String, String> documentosPacientes = new HashMap<>();
 
-        System.out.println("👥 Iniciando carga de información de pacientes...");
-
-        for (Cita cita : citasMostrar) {
-            System.out.println("📋 Procesando cita ID: " + cita.getId());
-            System.out.println("   - Paciente ID: " + cita.getPacienteId());
-            System.out.println("   - Es null?: " + (cita.getPacienteId() == null));
-
-            if (cita.getPacienteId() != null && !nombresPacientes.containsKey(cita.getPacienteId())) {
-                try {
-                    System.out.println("🔍 Buscando paciente con ID: " + cita.getPacienteId());
-                    Optional<Usuario> pacienteOpt = usuarioService.buscarPorId(cita.getPacienteId());
-
-                    if (pacienteOpt.isPresent()) {
-                        Usuario paciente = pacienteOpt.get();
-                        System.out.println("✅ Paciente encontrado: " + paciente.getNombreCompleto());
-                        System.out.println("   - Documento: " + paciente.getNumeroDocumento());
-                        // Guardar nombre completo
-                        nombresPacientes.put(paciente.getId(), paciente.getNombreCompleto());
-                        // Guardar número de documento
-                        documentosPacientes.put(paciente.getId(), paciente.getNumeroDocumento());
-                    } else {
-                        System.out.println("❌ Paciente NO encontrado con ID: " + cita.getPacienteId());
-                        // Fallback si no se encuentra el paciente
-                        nombresPacientes.put(cita.getPacienteId(), "Paciente no encontrado");
-                        documentosPacientes.put(cita.getPacienteId(), "N/A");
-                    }
-                } catch (Exception e) {
-                    System.out.println("💥 Error al buscar paciente: " + e.getMessage());
-                    e.printStackTrace();
-                    // Si falla, poner valores por defecto
-                    nombresPacientes.put(cita.getPacienteId(), "Error al cargar paciente");
-                    documentosPacientes.put(cita.getPacienteId(), "N/A");
-                }
-            } else {
-                System.out.println("⚠️ PacienteId es NULL o ya está en cache");
-            }
-        }
-
-        System.out.println("========================================");
-        System.out.println("📊 Total pacientes cargados: " + nombresPacientes.size());
-        System.out.println("📊 Nombres: " + nombresPacientes);
-        System.out.println("📊 Documentos: " + documentosPacientes);
-        System.out.println("========================================");
+        usuarioService.cargarBasicos(citasMostrar.stream().map(Cita::getPacienteId).collect(Collectors.toSet()))
+                .forEach((id, paciente) -> {
+                    nombresPacientes.put(id, paciente.nombreCompleto());
+                    documentosPacientes.put(id, paciente.numeroDocumento());
+                });
 
         // SIEMPRE agregar todos los atributos al modelo
         model.addAttribute("citas", citasMostrar != null ? citasMostrar : new ArrayList<>());
@@ -207,9 +165,6 @@ public class DoctorController {
         model.addAttribute("totalAntiguas", citasAntiguas.size());
         model.addAttribute("totalTodas", todasLasCitas.size());
 
-        System.out.println("🏁 FIN DEL MÉTODO verCitas()");
-        System.out.println("========================================");
-
         return "doctor/citas";
     }
 
@@ -305,9 +260,22 @@ public class DoctorController {
     }
 
     @GetMapping("/diagnosticos")
-    public String verDiagnosticos(Model model, Authentication authentication) {
+    public String verDiagnosticos(@RequestParam(required = false) String q,
+            @RequestParam(defaultValue = "1") int pagina,
+            Model model,
+            Authentication authentication) {
         CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
-        model.addAttribute("diagnosticos", diagnosticoService.listarPorDoctor(userDetails.getId()));
+
+        if (q == null || q.isBlank()) {
+            model.addAttribute("diagnosticos", diagnosticoService.listarPorDoctor(userDetails.getId()));
+            return "doctor/diagnosticos";
+        }
+
+        Slice<Diagnostico> resultados = diagnosticoService.buscarPorTextoDelDoctor(userDetails.getId(), q,
+                pagina - 1, DIAGNOSTICOS_POR_PAGINA);
+        model.addAttribute("diagnosticos", resultados.getContent());
+        model.addAttribute("resultados", resultados);
+        model.addAttribute("q", q.trim());
         return "doctor/diagnosticos";
     }
 
@@ -445,4 +413,34 @@ public class DoctorController {
 
         return "redirect:/doctor/horarios";
     }
-}
\ No newline at end of file
+
+    @PostMapping("/horarios/bloquear")
+    public String bloquearFechas(@RequestParam String desde,
+            @RequestParam String hasta,
+            RedirectAttributes redirectAttributes,
+            Authentication authentication) {
+        try {
+            CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
+            LocalDate fechaDesde = LocalDate.parse(desde);
+            LocalDate fechaHasta = LocalDate.parse(hasta);
+
+            if (fechaDesde.isBefore(LocalDate.now())) {
+                redirectAttributes.addFlashAttribute("error", "La fecha inicial no puede ser pasada");
+                return "redirect:/doctor/horarios";
+            }
+
+            int actualizados = horarioDisponibleService.bloquearRango(userDetails.getId(), fechaDesde, fechaHasta);
+            if (actualizados == 0) {
+                redirectAttributes.addFlashAttribute("error", "No tienes horarios configurados");
+            } else {
+                redirectAttributes.addFlashAttribute("mensaje",
+                        "No recibirás citas del " + fechaDesde + " al " + fechaHasta);
+            }
+
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("error", "Error al bloquear fechas: " + e.getMessage());
+        }
+
+        return "redirect:/doctor/horarios";
+    }
+}
@@ -1,27 +1,37 @@
 package com.universidad.vitaltech.controller;
 
 import com.universidad.vitaltech.config.CustomUserDetails;
+import com.universidad.vitaltech.dto.HorarioLibre;
+import com.universidad.vitaltech.dto.ResumenCitasPaciente;
+import com.universidad.vitaltech.dto.UsuarioResumen;
 import com.universidad.vitaltech.model.*;
 import com.universidad.vitaltech.model.embedded.Horario;
 import com.universidad.vitaltech.service.CitaService;
 import com.universidad.vitaltech.service.DiagnosticoService;
+import com.universidad.vitaltech.service.DisponibilidadService;
 import com.universidad.vitaltech.service.HorarioDisponibleService;
+import com.universidad.vitaltech.service.ListaEsperaService;
+import com.universidad.vitaltech.service.RetencionHorarioService;
 import com.universidad.vitaltech.service.UsuarioService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.util.HashMap;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 /**
  * Controlador para funcionalidades del Paciente
@@ -30,6 +40,9 @@ import java.util.Optional;
 @RequestMapping("/paciente")
 public class PacienteController {
 
+    private static final int DIAGNOSTICOS_POR_PAGINA = 20;
+    private static final int PROXIMAS_CITAS_PANEL = 5;
+
     @Autowired
     private UsuarioService usuarioService;
 
@@ -42,6 +55,15 @@ public class PacienteController {
     @Autowired
     private HorarioDisponibleService horarioDisponibleService;
 
+    @Autowired
+    private DisponibilidadService disponibilidadService;
+
+    @Autowired
+    private RetencionHorarioService retencionHorarioService;
+
+    @Autowired
+    private ListaEsperaService listaEsperaService;
+
     /**
      * Panel del paciente
      */
@@ -51,24 +73,13 @@ public class PacienteController {
         String pacienteId = userDetails.getId();
         String nombrePaciente = userDetails.getNombreCompleto();
 
-        // Obtener citas
-        List<Cita> proximasCitas = citaService.listarPorPaciente(pacienteId).stream()
-                .filter(c -> c.getHorario().getFecha().isAfter(LocalDate.now()) ||
-                        c.getHorario().getFecha().isEqual(LocalDate.now()))
-                .filter(c -> !c.estaCancelada())
-                .limit(5)
-                .toList();
-
-        // Estadisticas
-        long totalCitas = citaService.listarPorPaciente(pacienteId).size();
-        long citasPendientes = citaService.listarPorPaciente(pacienteId).stream()
-                .filter(c -> c.estaProgramada())
-                .count();
+        // Próximas citas y estadisticas en una sola agregación
+        ResumenCitasPaciente resumen = citaService.obtenerResumenPaciente(pacienteId, PROXIMAS_CITAS_PANEL);
 
         model.addAttribute("nombrePaciente", nombrePaciente);
-        model.addAttribute("proximasCitas", proximasCitas);
-        model.addAttribute("totalCitas", totalCitas);
-        model.addAttribute("citasPendientes", citasPendientes);
+        model.addAttribute("proximasCitas", resumen.proximas());
+        model.addAttribute("totalCitas", resumen.total());
+        model.addAttribute("citasPendientes", resumen.pendientes());
 
         return "paciente/dashboard";
     }
@@ -83,15 +94,9 @@ public class PacienteController {
 
         List<Cita> citas = citaService.listarPorPaciente(pacienteId);
 
-        // Lookup para cargar nombres de doctores
-        Map<String, String> nombresUsuarios = new HashMap<>();
-
-        for (Cita cita : citas) {
-            if (!nombresUsuarios.containsKey(cita.getDoctorId())) {
-                usuarioService.buscarPorId(cita.getDoctorId())
-                        .ifPresent(u -> nombresUsuarios.put(u.getId(), u.getNombreCompleto()));
-            }
-        }
+        // Nombres de los doctores desde el directorio en memoria (sin una consulta por cita)
+        Map<String, String> nombresUsuarios = usuarioService.obtenerNombresDoctores(
+                citas.stream().map(Cita::getDoctorId).collect(Collectors.toSet()));
 
         model.addAttribute("citas", citas);
         model.addAttribute("nombresUsuarios", nombresUsuarios);
@@ -104,7 +109,7 @@ public class PacienteController {
      */
     @GetMapping("/citas/nueva")
     public String nuevaCitaForm(Model model) {
-        List<Usuario> doctores = usuarioService.listarDoctoresActivos();
+        List<UsuarioResumen> doctores = usuarioService.listarDoctoresActivos();
 
         model.addAttribute("doctores", doctores);
 
@@ -119,8 +124,10 @@ public class PacienteController {
     @ResponseBody
     public ResponseEntity<Map<String, Object>> obtenerHorariosDisponibles(
             @RequestParam String doctorId,
-            @RequestParam String fecha) {
+            @RequestParam String fecha,
+            Authentication authentication) {
         try {
+            String pacienteId = ((CustomUserDetails) authentication.getPrincipal()).getId();
             LocalDate fechaSeleccionada = LocalDate.parse(fecha);
 
             // Validar que la fecha sea futura
@@ -129,30 +136,20 @@ public class PacienteController {
                         .body(Map.of("error", "No se pueden agendar citas en fechas pasadas"));
             }
 
-            // Obtener horarios disponibles del doctor para ese día
-            List<LocalTime> horariosDisponibles = horarioDisponibleService
-                    .obtenerHorariosDisponibles(doctorId, fechaSeleccionada);
+            // Horarios del doctor para ese día sin los ocupados ni los apartados por otros pacientes
+            Map<LocalTime, Integer> horariosLibres = disponibilidadService
+                    .obtenerHorariosLibres(doctorId, fechaSeleccionada, pacienteId);
 
-            if (horariosDisponibles.isEmpty()) {
+            if (horariosLibres.isEmpty()) {
                 return ResponseEntity.ok(Map.of(
                         "horarios", List.of(),
                         "mensaje", "El doctor no tiene horarios disponibles para esta fecha"));
             }
 
-            // Filtrar horarios que ya tienen citas agendadas
-            List<Cita> citasExistentes = citaService.listarPorDoctorYFecha(doctorId, fechaSeleccionada);
-            List<LocalTime> horariosOcupados = citasExistentes.stream()
-                    .filter(c -> !c.estaCancelada())
-                    .map(c -> c.getHorario().getHoraInicio())
-                    .toList();
-
-            List<LocalTime> horariosLibres = horariosDisponibles.stream()
-                    .filter(h -> !horariosOcupados.contains(h))
-                    .toList();
-
             return ResponseEntity.ok(Map.of(
-                    "horarios", horariosLibres,
-                    "duracionCita", 30 // Duración en minutos
+                    "horarios", List.copyOf(horariosLibres.keySet()),
+                    "duraciones", List.copyOf(horariosLibres.values()), // Duración en minutos de cada horario
+                    "duracionCita", horariosLibres.values().iterator().next()
             ));
 
         } catch (Exception e) {
@@ -161,6 +158,112 @@ public class PacienteController {
         }
     }
 
+    /**
+     * Apartar un horario por unos minutos mientras el paciente completa el formulario
+     */
+    @PostMapping("/api/retener-horario")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> retenerHorario(
+            @RequestParam String doctorId,
+            @RequestParam String fecha,
+            @RequestParam String horaInicio,
+            @RequestParam String horaFin,
+            Authentication authentication) {
+        try {
+            String pacienteId = ((CustomUserDetails) authentication.getPrincipal()).getId();
+            LocalDate fechaCita = LocalDate.parse(fecha);
+            LocalTime horaInicioCita = LocalTime.parse(horaInicio);
+            LocalTime horaFinCita = LocalTime.parse(horaFin);
+
+            if (!citaService.existeDisponibilidad(doctorId, fechaCita, horaInicioCita, horaFinCita)) {
+                return ResponseEntity.status(409)
+                        .body(Map.of("error", "El horario seleccionado ya está ocupado"));
+            }
+
+            Optional<RetencionHorario> retencion = retencionHorarioService.retener(doctorId, fechaCita,
+                    horaInicioCita, horaFinCita, pacienteId);
+            if (retencion.isEmpty()) {
+                return ResponseEntity.status(409)
+                        .body(Map.of("error", "Otro paciente está agendando este horario. Por favor, elija otro."));
+            }
+
+            return ResponseEntity.ok(Map.of("expiraEn", retencion.get().getExpiraEn()));
+
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Formato de fecha u hora inválido: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Cantidad de horarios libres por día de un doctor en un rango (vista mensual)
+     * Soporta GET condicional con ETag para que el navegador reutilice meses ya vistos
+     */
+    @GetMapping("/api/disponibilidad-mensual")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> obtenerDisponibilidadMensual(
+            @RequestParam String doctorId,
+            @RequestParam String desde,
+            @RequestParam String hasta,
+            Authentication authentication,
+            WebRequest webRequest) {
+        try {
+            String pacienteId = ((CustomUserDetails) authentication.getPrincipal()).getId();
+            LocalDate hoy = LocalDate.now();
+            LocalDate fechaDesde = LocalDate.parse(desde);
+            LocalDate fechaHasta = LocalDate.parse(hasta);
+
+            if (fechaHasta.isBefore(fechaDesde) || fechaDesde.plusDays(62).isBefore(fechaHasta)) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of("error", "El rango debe ser de máximo 62 días"));
+            }
+
+            LocalDate inicio = fechaDesde.isBefore(hoy) ? hoy : fechaDesde;
+
+            // La etiqueta cambia con cualquier cita u horario del doctor, con los horarios
+            // apartados por otros pacientes y con el día actual
+            String etag = "\"" + doctorId + "-" + fechaDesde + "-" + fechaHasta + "-" + hoy + "-"
+                    + disponibilidadService.obtenerVersionAgenda(doctorId, inicio, fechaHasta, pacienteId) + "\"";
+            if (webRequest.checkNotModified(etag)) {
+                return null;
+            }
+
+            Map<LocalDate, Integer> libresPorDia = disponibilidadService
+                    .contarHorariosLibresPorDia(doctorId, inicio, fechaHasta, pacienteId);
+
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .body(Map.of("dias", libresPorDia));
+
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Formato de fecha inválido: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Buscar los primeros horarios libres de todos los doctores de una especialidad
+     */
+    @GetMapping("/api/primeros-horarios")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> buscarPrimerosHorarios(
+            @RequestParam String especialidad,
+            @RequestParam(defaultValue = "14") int dias,
+            @RequestParam(defaultValue = "10") int limite,
+            Authentication authentication) {
+        if (dias < 1 || dias > 60 || limite < 1 || limite > 50) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Parámetros fuera de rango (días 1-60, límite 1-50)"));
+        }
+
+        String pacienteId = ((CustomUserDetails) authentication.getPrincipal()).getId();
+        LocalDate hoy = LocalDate.now();
+        List<HorarioLibre> horarios = disponibilidadService
+                .buscarPrimerosHorariosLibres(especialidad, hoy, hoy.plusDays(dias - 1), limite, pacienteId);
+
+        return ResponseEntity.ok(Map.of("horarios", horarios));
+    }
+
     /**
      * Guardar nueva cita con VALIDACIONES
      */
@@ -190,7 +293,7 @@ public class PacienteController {
             }
 
             // Validar que el doctor exista y esté activo
-            Optional<Usuario> doctorOpt = usuarioService.buscarPorId(doctorId);
+            Optional<Usuario> doctorOpt = usuarioService.buscarDoctor(doctorId);
             if (doctorOpt.isEmpty() || !doctorOpt.get().isActivo()) {
                 redirectAttributes.addFlashAttribute("error",
                         "El doctor seleccionado no está disponible");
@@ -206,14 +309,6 @@ public class PacienteController {
                 return "redirect:/paciente/citas/nueva";
             }
 
-            // Validar que no exista otra cita en ese horario
-            if (!citaService.existeDisponibilidad(doctorId, fechaCita, horaInicio)) {
-                redirectAttributes.addFlashAttribute("error",
-                        "El horario seleccionado ya está ocupado. " +
-                                "Por favor, elija otro horario disponible.");
-                return "redirect:/paciente/citas/nueva";
-            }
-
             // Validar duración de la cita
             long duracionMinutos = java.time.Duration.between(horaInicioCita, horaFinCita).toMinutes();
             if (duracionMinutos > 30 || duracionMinutos <= 0) {
@@ -237,7 +332,13 @@ public class PacienteController {
             cita.setHorario(horario);
             cita.setCreadaPor(pacienteId);
 
-            citaService.guardar(cita);
+            // Reservar el horario (falla si otra persona ya lo tomó)
+            if (citaService.reservar(cita).isEmpty()) {
+                redirectAttributes.addFlashAttribute("error",
+                        "El horario seleccionado ya está ocupado. " +
+                                "Por favor, elija otro horario disponible.");
+                return "redirect:/paciente/citas/nueva";
+            }
 
             redirectAttributes.addFlashAttribute("mensaje",
                     "Cita agendada exitosamente para el " +
@@ -256,6 +357,51 @@ public class PacienteController {
         }
     }
 
+    /**
+     * Inscribirse en la lista de espera de un doctor (o de cualquier doctor de
+     * su especialidad) para un rango de fechas
+     */
+    @PostMapping("/lista-espera")
+    public String inscribirListaEspera(@RequestParam String doctorId,
+            @RequestParam(required = false) String especialidad,
+            @RequestParam(defaultValue = "DOCTOR") String alcance,
+            @RequestParam String fechaDesde,
+            @RequestParam String fechaHasta,
+            @RequestParam(required = false) String motivoConsulta,
+            RedirectAttributes redirectAttributes,
+            Authentication authentication) {
+        try {
+            CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
+
+            EntradaListaEspera entrada = new EntradaListaEspera();
+            entrada.setPacienteId(userDetails.getId());
+            if ("ESPECIALIDAD".equals(alcance) && especialidad != null && !especialidad.isBlank()) {
+                entrada.setEspecialidad(especialidad);
+            } else {
+                entrada.setDoctorId(doctorId);
+            }
+            entrada.setFechaDesde(LocalDate.parse(fechaDesde));
+            entrada.setFechaHasta(LocalDate.parse(fechaHasta));
+            entrada.setMotivoConsulta(motivoConsulta);
+
+            if (entrada.getFechaDesde().isBefore(LocalDate.now())) {
+                redirectAttributes.addFlashAttribute("error", "La fecha inicial no puede ser pasada");
+                return "redirect:/paciente/citas/nueva";
+            }
+
+            listaEsperaService.inscribir(entrada);
+            redirectAttributes.addFlashAttribute("mensaje",
+                    "Te inscribiste en la lista de espera. Si se libera un horario en esas fechas, "
+                            + "la cita se agendará automáticamente.");
+            return "redirect:/paciente/citas";
+
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("error",
+                    "Error al inscribirse en la lista de espera: " + e.getMessage());
+            return "redirect:/paciente/citas/nueva";
+        }
+    }
+
     /**
      * Ver detalle de una cita
      */
@@ -283,7 +429,7 @@ public class PacienteController {
         }
 
         // Obtener doctor
-        Optional<Usuario> doctor = usuarioService.buscarPorId(cita.getDoctorId());
+        Optional<Usuario> doctor = usuarioService.buscarDoctor(cita.getDoctorId());
 
         model.addAttribute("cita", cita);
         model.addAttribute("doctor", doctor.orElse(null));
@@ -340,13 +486,23 @@ public class PacienteController {
      * Ver mis diagnósticos
      */
     @GetMapping("/diagnosticos")
-    public String misDiagnosticos(Model model, Authentication authentication) {
+    public String misDiagnosticos(@RequestParam(required = false) String q,
+                                  @RequestParam(defaultValue = "1") int pagina,
+                                  Model model, Authentication authentication) {
         CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
         String pacienteId = userDetails.getId();
 
-        List<Diagnostico> diagnosticos = diagnosticoService.listarPorPaciente(pacienteId);
+        if (q == null || q.isBlank()) {
+            List<Diagnostico> diagnosticos = diagnosticoService.listarPorPaciente(pacienteId);
+            model.addAttribute("diagnosticos", diagnosticos);
+            return "paciente/mis-diagnosticos";
+        }
 
-        model.addAttribute("diagnosticos", diagnosticos);
+        Slice<Diagnostico> resultados = diagnosticoService.buscarPorTextoDelPaciente(pacienteId, q, pagina - 1,
+                DIAGNOSTICOS_POR_PAGINA);
+        model.addAttribute("diagnosticos", resultados.getContent());
+        model.addAttribute("resultados", resultados);
+        model.addAttribute("q", q.trim());
 
         return "paciente/mis-diagnosticos";
     }
@@ -2,13 +2,14 @@ package com.universidad.vitaltech.controller;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -18,9 +19,14 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import com.universidad.vitaltech.config.CustomUserDetails;
+import com.universidad.vitaltech.dto.HorarioLibre;
+import com.universidad.vitaltech.dto.PaginaCitas;
+import com.universidad.vitaltech.dto.ResultadoSerie;
+import com.universidad.vitaltech.dto.UsuarioResumen;
 import com.universidad.vitaltech.model.Cita;
 import com.universidad.vitaltech.model.EstadoCita;
 import com.universidad.vitaltech.model.Rol;
@@ -28,6 +34,7 @@ import com.universidad.vitaltech.model.Usuario;
 import com.universidad.vitaltech.model.embedded.Horario;
 import com.universidad.vitaltech.model.embedded.InformacionMedica;
 import com.universidad.vitaltech.service.CitaService;
+import com.universidad.vitaltech.service.DisponibilidadService;
 import com.universidad.vitaltech.service.HorarioDisponibleService;
 import com.universidad.vitaltech.service.UsuarioService;
 
@@ -35,6 +42,9 @@ import com.universidad.vitaltech.service.UsuarioService;
 @RequestMapping("/recepcionista")
 public class RecepcionistaController {
 
+    private static final int CITAS_POR_PAGINA = 20;
+    private static final int MAXIMO_CITAS_POR_PAGINA = 100;
+
     @Autowired
     private UsuarioService usuarioService;
 
@@ -44,6 +54,9 @@ public class RecepcionistaController {
     @Autowired
     private HorarioDisponibleService horarioDisponibleService;
 
+    @Autowired
+    private DisponibilidadService disponibilidadService;
+
     /**
      * Dashboard de la recepcionista
      */
@@ -53,16 +66,14 @@ public class RecepcionistaController {
         CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
         String nombreRecepcionista = userDetails.getNombreCompleto();
 
-        // Citas del día
-        List<Cita> citasHoy = citaService.listarPorFecha(LocalDate.now());
-        long totalCitasHoy = citasHoy.size();
+        // Contadores en memoria: el dashboard no consulta Mongo
+        long totalCitasHoy = citaService.contarPorFecha(LocalDate.now());
 
-        // Citas pendientes rogramadas o confirmadas
-        long citasPendientes = citaService.listarPorEstado(EstadoCita.PROGRAMADA).size()
-                + citaService.listarPorEstado(EstadoCita.CONFIRMADA).size();
+        // Citas pendientes programadas o confirmadas
+        long citasPendientes = citaService.contarPorEstados(List.of(EstadoCita.PROGRAMADA, EstadoCita.CONFIRMADA));
 
         // Total de pacientes activos
-        long totalPacientes = usuarioService.listarPacientesActivos().size();
+        long totalPacientes = usuarioService.contarPacientesActivos();
 
         // Enviar datos al modelo
         model.addAttribute("nombreRecepcionista", nombreRecepcionista);
@@ -78,14 +89,10 @@ public class RecepcionistaController {
      */
     @GetMapping("/pacientes")
     public String buscarPacientes(@RequestParam(required = false) String termino, Model model) {
-        List<Usuario> pacientes;
+        List<UsuarioResumen> pacientes;
 
         if (termino != null && !termino.isEmpty()) {
-            pacientes = usuarioService.buscarPorTermino(termino); // ← CAMBIAR AQUÍ
-            // Filtrar solo pacientes
-            pacientes = pacientes.stream()
-                    .filter(Usuario::esPaciente)
-                    .toList();
+            pacientes = usuarioService.buscarResumenesPorTermino(termino, Rol.PACIENTE);
             model.addAttribute("termino", termino);
         } else {
             pacientes = usuarioService.listarPacientesActivos();
@@ -205,21 +212,25 @@ public class RecepcionistaController {
     @GetMapping("/citas")
     public String verCitas(@RequestParam(required = false) String fecha,
             @RequestParam(required = false) String estado,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CITAS_POR_PAGINA) int limite,
             Model model) {
-        List<Cita> citas;
+        LocalDate fechaBuscar = null;
+        List<EstadoCita> estados = null;
 
         if (fecha != null && !fecha.isEmpty()) {
-            LocalDate fechaBuscar = LocalDate.parse(fecha);
-            citas = citaService.listarPorFecha(fechaBuscar);
+            fechaBuscar = LocalDate.parse(fecha);
             model.addAttribute("fechaSeleccionada", fecha);
         } else if (estado != null && !estado.isEmpty()) {
-            citas = citaService.listarPorEstado(EstadoCita.valueOf(estado));
+            estados = List.of(EstadoCita.valueOf(estado));
             model.addAttribute("estadoSeleccionado", estado);
-        } else {
-            citas = citaService.listarTodas();
         }
 
-        model.addAttribute("citas", citas);
+        PaginaCitas pagina = citaService.listarPagina(fechaBuscar, estados, cursor, limitePagina(limite));
+        model.addAttribute("citas", pagina.citas());
+        model.addAttribute("pagina", pagina);
+        model.addAttribute("limite", limitePagina(limite));
+        model.addAttribute("esPrimeraPagina", cursor == null || cursor.isEmpty());
         model.addAttribute("estados", EstadoCita.values());
 
         return "recepcionista/citas";
@@ -230,18 +241,60 @@ public class RecepcionistaController {
      */
     @GetMapping("/citas/nueva")
     public String nuevaCitaForm(Model model) {
-        List<Usuario> pacientes = usuarioService.listarPacientesActivos();
-        List<Usuario> doctores = usuarioService.listarDoctoresActivos();
+        // Los pacientes se buscan con /api/pacientes mientras se escribe
+        List<UsuarioResumen> doctores = usuarioService.listarDoctoresActivos();
 
         model.addAttribute("cita", new Cita());
-        model.addAttribute("pacientes", pacientes);
         model.addAttribute("doctores", doctores);
 
         return "recepcionista/cita-form";
     }
 
     /**
-     * Guardar cita
+     * Autocompletado de pacientes activos para el formulario de citas
+     */
+    @GetMapping("/api/pacientes")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> sugerirPacientes(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limite) {
+        if (limite < 1 || limite > 20) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Parámetro fuera de rango (límite 1-20)"));
+        }
+
+        List<Map<String, String>> pacientes = usuarioService.sugerirPacientes(q, limite).stream()
+                .map(paciente -> Map.of(
+                        "id", paciente.id(),
+                        "nombre", paciente.getNombreCompleto(),
+                        "documento", String.valueOf(paciente.numeroDocumento())))
+                .toList();
+
+        return ResponseEntity.ok(Map.of("pacientes", pacientes));
+    }
+
+    /**
+     * Buscar los primeros horarios libres de todos los doctores de una especialidad
+     */
+    @GetMapping("/api/primeros-horarios")
+    @ResponseBody
+    public ResponseEntity<Map<String, Object>> buscarPrimerosHorarios(
+            @RequestParam String especialidad,
+            @RequestParam(defaultValue = "14") int dias,
+            @RequestParam(defaultValue = "10") int limite) {
+        if (dias < 1 || dias > 60 || limite < 1 || limite > 50) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "Parámetros fuera de rango (días 1-60, límite 1-50)"));
+        }
+
+        LocalDate hoy = LocalDate.now();
+        List<HorarioLibre> horarios = disponibilidadService
+                .buscarPrimerosHorariosLibres(especialidad, hoy, hoy.plusDays(dias - 1), limite, null);
+
+        return ResponseEntity.ok(Map.of("horarios", horarios));
+    }
+
+    /**
+     * Guardar cita (o una serie de citas si se indica más de una repetición)
      */
     @PostMapping("/citas/guardar")
     public String guardarCita(@RequestParam String pacienteId,
@@ -250,6 +303,9 @@ public class RecepcionistaController {
             @RequestParam String horaInicio,
             @RequestParam String horaFin,
             @RequestParam String motivoConsulta,
+            @RequestParam(defaultValue = "1") int repeticiones,
+            @RequestParam(defaultValue = "1") int intervaloSemanas,
+            @RequestParam(defaultValue = "false") boolean ignorarRetenciones,
             RedirectAttributes redirectAttributes,
             Authentication authentication) {
         try {
@@ -270,13 +326,17 @@ public class RecepcionistaController {
             CustomUserDetails userDetails = (CustomUserDetails) authentication.getPrincipal();
             cita.setCreadaPor(userDetails.getId());
 
-            // Validar disponibilidad
-            if (!citaService.existeDisponibilidad(doctorId, horario.getFecha(), horaInicio)) {
-                redirectAttributes.addFlashAttribute("error", "El horario seleccionado no está disponible");
+            if (repeticiones > 1) {
+                return guardarSerie(cita, repeticiones, intervaloSemanas, ignorarRetenciones, redirectAttributes);
+            }
+
+            // Reservar el horario (falla si ya está ocupado)
+            if (citaService.reservar(cita, ignorarRetenciones).isEmpty()) {
+                redirectAttributes.addFlashAttribute("error", "El horario seleccionado no está disponible"
+                        + (ignorarRetenciones ? "" : " (puede estar apartado por un paciente)"));
                 return "redirect:/recepcionista/citas/nueva";
             }
 
-            citaService.guardar(cita);
             redirectAttributes.addFlashAttribute("mensaje", "Cita creada exitosamente");
             return "redirect:/recepcionista/citas";
 
@@ -286,6 +346,35 @@ public class RecepcionistaController {
         }
     }
 
+    /**
+     * Agendar una serie de citas e informar las fechas que no se pudieron agendar
+     */
+    private String guardarSerie(Cita cita, int repeticiones, int intervaloSemanas, boolean ignorarRetenciones,
+            RedirectAttributes redirectAttributes) {
+        ResultadoSerie resultado = citaService.reservarSerie(cita, repeticiones, intervaloSemanas,
+                ignorarRetenciones);
+
+        if (resultado.creadas().isEmpty()) {
+            redirectAttributes.addFlashAttribute("error", "No se pudo agendar ninguna cita de la serie: "
+                    + describirConflictos(resultado));
+            return "redirect:/recepcionista/citas/nueva";
+        }
+
+        String mensaje = "Se agendaron " + resultado.creadas().size() + " de " + resultado.totalSolicitadas()
+                + " citas de la serie";
+        if (!resultado.conflictos().isEmpty()) {
+            mensaje += ". No se agendaron: " + describirConflictos(resultado);
+        }
+        redirectAttributes.addFlashAttribute("mensaje", mensaje);
+        return "redirect:/recepcionista/citas";
+    }
+
+    private String describirConflictos(ResultadoSerie resultado) {
+        return resultado.conflictos().stream()
+                .map(conflicto -> conflicto.fecha() + " (" + conflicto.motivo() + ")")
+                .collect(Collectors.joining(", "));
+    }
+
     /**
      * Ver detalles de una cita
      */
@@ -430,26 +519,26 @@ public class RecepcionistaController {
 
     // ver citas pendientes y confirmadas
     @GetMapping("/citas/pendientes")
-    public String citasPendientes(Model model) {
-        // Obtener citas programadas
-        List<Cita> citasProgramadas = citaService.listarPorEstado(EstadoCita.PROGRAMADA);
-
-        // Obtener citas confirmadas
-        List<Cita> citasConfirmadas = citaService.listarPorEstado(EstadoCita.CONFIRMADA);
-
-        // Combinar ambas listas
-        List<Cita> citasPendientes = new ArrayList<>();
-        citasPendientes.addAll(citasProgramadas);
-        citasPendientes.addAll(citasConfirmadas);
-
-        // Ordenar por fecha
-        citasPendientes.sort((c1, c2) -> c1.getHorario().getFecha().compareTo(c2.getHorario().getFecha()));
+    public String citasPendientes(@RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CITAS_POR_PAGINA) int limite,
+            Model model) {
+        List<EstadoCita> pendientes = List.of(EstadoCita.PROGRAMADA, EstadoCita.CONFIRMADA);
 
-        model.addAttribute("citas", citasPendientes);
+        PaginaCitas pagina = citaService.listarPagina(null, pendientes, cursor, limitePagina(limite));
+        model.addAttribute("citas", pagina.citas());
+        model.addAttribute("pagina", pagina);
+        model.addAttribute("limite", limitePagina(limite));
+        model.addAttribute("esPrimeraPagina", cursor == null || cursor.isEmpty());
+        model.addAttribute("totalPendientes", citaService.contarPorEstados(pendientes));
 
         return "recepcionista/citas-pendientes";
     }
 
+    // Un limite fuera de rango se ajusta en vez de rechazar la pagina
+    private static int limitePagina(int limite) {
+        return Math.max(1, Math.min(limite, MAXIMO_CITAS_POR_PAGINA));
+    }
+
     @ModelAttribute
     public void datosNavbar(Model model, Authentication authentication) {
         if (authentication != null && authentication.getPrincipal() instanceof CustomUserDetails userDetails) {
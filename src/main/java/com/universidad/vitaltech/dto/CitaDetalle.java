@@ -0,0 +1,17 @@
+package com.universidad.vitaltech.dto;
+
+import com.universidad.vitaltech.model.EstadoCita;
+import com.universidad.vitaltech.model.embedded.Horario;
+
+/**
+ * Cita con los datos del paciente y del doctor (resultado de $lookup)
+ */
+public record CitaDetalle(
+        String id,
+        Horario horario,
+        EstadoCita estado,
+        String motivoConsulta,
+        String observaciones,
+        UsuarioReferencia paciente,
+        UsuarioReferencia doctor) {
+}
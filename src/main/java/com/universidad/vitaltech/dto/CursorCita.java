@@ -0,0 +1,49 @@
+package com.universidad.vitaltech.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import com.universidad.vitaltech.model.Cita;
+
+/**
+ * Posición de la última cita de una página en el orden (fecha, horaInicio, id).
+ * La página siguiente empieza después de esta cita, sin saltar documentos.
+ */
+public record CursorCita(
+        LocalDate fecha,
+        LocalTime horaInicio,
+        String id) {
+
+    private static final String SEPARADOR = "_";
+
+    public static CursorCita de(Cita cita) {
+        return new CursorCita(cita.getHorario().getFecha(), cita.getHorario().getHoraInicio(), cita.getId());
+    }
+
+    /**
+     * Texto para usar en la URL (fecha_hora_id)
+     */
+    public String codificar() {
+        return fecha + SEPARADOR + horaInicio + SEPARADOR + id;
+    }
+
+    /**
+     * Lee un cursor recibido en la URL
+     *
+     * @return el cursor, o null si viene vacío o no tiene el formato esperado
+     */
+    public static CursorCita decodificar(String texto) {
+        if (texto == null || texto.isBlank()) {
+            return null;
+        }
+        String[] partes = texto.split(SEPARADOR, 3);
+        if (partes.length != 3) {
+            return null;
+        }
+        try {
+            return new CursorCita(LocalDate.parse(partes[0]), LocalTime.parse(partes[1]), partes[2]);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
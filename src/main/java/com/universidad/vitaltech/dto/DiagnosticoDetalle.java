@@ -0,0 +1,27 @@
+package com.universidad.vitaltech.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.universidad.vitaltech.model.embedded.Horario;
+
+/**
+ * Diagnóstico con el horario de su cita y los datos del paciente y del doctor
+ * (resultado de $lookup)
+ */
+public record DiagnosticoDetalle(
+        String id,
+        String citaId,
+        String diagnostico,
+        String sintomas,
+        String tratamiento,
+        List<String> medicamentos,
+        String observaciones,
+        String recomendaciones,
+        List<String> examenesOrdenados,
+        String proximaConsulta,
+        LocalDateTime fechaCreacion,
+        Horario horarioCita,
+        UsuarioReferencia paciente,
+        UsuarioReferencia doctor) {
+}
@@ -0,0 +1,21 @@
+package com.universidad.vitaltech.dto;
+
+import java.util.Map;
+
+import com.universidad.vitaltech.model.EstadoCita;
+
+/**
+ * Conteo de citas por estado, más las agendadas para hoy
+ */
+public record EstadisticasCitas(
+        Map<EstadoCita, Long> porEstado,
+        long deHoy) {
+
+    public long cantidad(EstadoCita estado) {
+        return porEstado.getOrDefault(estado, 0L);
+    }
+
+    public long total() {
+        return porEstado.values().stream().mapToLong(Long::longValue).sum();
+    }
+}
@@ -0,0 +1,27 @@
+package com.universidad.vitaltech.dto;
+
+import java.util.Map;
+
+import com.universidad.vitaltech.model.Rol;
+
+/**
+ * Conteo de usuarios por rol y estado, más los registrados recientemente
+ */
+public record EstadisticasUsuarios(
+        Map<Rol, Long> activosPorRol,
+        Map<Rol, Long> inactivosPorRol,
+        long registradosUltimoMes) {
+
+    public long activos(Rol rol) {
+        return activosPorRol.getOrDefault(rol, 0L);
+    }
+
+    public long inactivos(Rol rol) {
+        return inactivosPorRol.getOrDefault(rol, 0L);
+    }
+
+    public long total() {
+        return activosPorRol.values().stream().mapToLong(Long::longValue).sum()
+                + inactivosPorRol.values().stream().mapToLong(Long::longValue).sum();
+    }
+}
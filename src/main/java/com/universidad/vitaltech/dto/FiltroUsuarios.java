@@ -0,0 +1,22 @@
+package com.universidad.vitaltech.dto;
+
+import com.universidad.vitaltech.model.Rol;
+
+/**
+ * Filtros de la lista de usuarios del administrador (null = sin filtrar)
+ */
+public record FiltroUsuarios(
+        String termino,
+        Rol rol,
+        Boolean activo) {
+
+    public FiltroUsuarios {
+        if (termino != null && termino.isBlank()) {
+            termino = null;
+        }
+    }
+
+    public boolean estaVacio() {
+        return termino == null && rol == null && activo == null;
+    }
+}
@@ -0,0 +1,16 @@
+package com.universidad.vitaltech.dto;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+
+/**
+ * Horario disponible con los datos del doctor (resultado de $lookup)
+ */
+public record HorarioDetalle(
+        String id,
+        DayOfWeek diaSemana,
+        LocalTime horaInicio,
+        LocalTime horaFin,
+        Integer duracionCita,
+        UsuarioReferencia doctor) {
+}
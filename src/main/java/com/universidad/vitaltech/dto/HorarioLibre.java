@@ -0,0 +1,16 @@
+package com.universidad.vitaltech.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Horario libre de un doctor (resultado de las búsquedas de disponibilidad)
+ */
+public record HorarioLibre(
+        String doctorId,
+        String nombreDoctor,
+        String especialidad,
+        LocalDate fecha,
+        LocalTime horaInicio,
+        LocalTime horaFin) {
+}
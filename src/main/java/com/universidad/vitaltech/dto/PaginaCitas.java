@@ -0,0 +1,17 @@
+package com.universidad.vitaltech.dto;
+
+import java.util.List;
+
+import com.universidad.vitaltech.model.Cita;
+
+/**
+ * Una página de citas y el cursor de la siguiente (null si es la última)
+ */
+public record PaginaCitas(
+        List<Cita> citas,
+        String siguiente) {
+
+    public boolean hayMas() {
+        return siguiente != null;
+    }
+}
@@ -0,0 +1,22 @@
+package com.universidad.vitaltech.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.universidad.vitaltech.model.Cita;
+
+/**
+ * Resultado de agendar una serie de citas: las creadas y, por cada fecha
+ * que no se pudo agendar, el motivo
+ */
+public record ResultadoSerie(
+        List<Cita> creadas,
+        List<Conflicto> conflictos) {
+
+    public record Conflicto(LocalDate fecha, String motivo) {
+    }
+
+    public int totalSolicitadas() {
+        return creadas.size() + conflictos.size();
+    }
+}
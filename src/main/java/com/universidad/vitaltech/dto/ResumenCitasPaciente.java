@@ -0,0 +1,39 @@
+package com.universidad.vitaltech.dto;
+
+import java.util.List;
+
+import com.universidad.vitaltech.model.Cita;
+import com.universidad.vitaltech.model.EstadoCita;
+
+/**
+ * Resumen de las citas de un paciente para su panel: las próximas citas no
+ * canceladas y la cantidad de citas por estado (una sola agregación $facet)
+ */
+public record ResumenCitasPaciente(
+        List<Cita> proximas,
+        List<ConteoEstado> porEstado) {
+
+    public record ConteoEstado(EstadoCita id, long cantidad) {
+    }
+
+    public ResumenCitasPaciente {
+        proximas = proximas != null ? proximas : List.of();
+        porEstado = porEstado != null ? porEstado : List.of();
+    }
+
+    public long cantidad(EstadoCita estado) {
+        return porEstado.stream()
+                .filter(conteo -> conteo.id() == estado)
+                .mapToLong(ConteoEstado::cantidad)
+                .sum();
+    }
+
+    public long total() {
+        return porEstado.stream().mapToLong(ConteoEstado::cantidad).sum();
+    }
+
+    // Programadas o confirmadas, como Cita.estaProgramada()
+    public long pendientes() {
+        return cantidad(EstadoCita.PROGRAMADA) + cantidad(EstadoCita.CONFIRMADA);
+    }
+}
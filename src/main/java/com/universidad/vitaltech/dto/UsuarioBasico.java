@@ -0,0 +1,15 @@
+package com.universidad.vitaltech.dto;
+
+/**
+ * Datos mínimos de un usuario para mostrarlo en listas (proyección de usuarios)
+ */
+public record UsuarioBasico(
+        String id,
+        String nombre,
+        String apellido,
+        String numeroDocumento) {
+
+    public String nombreCompleto() {
+        return nombre + " " + apellido;
+    }
+}
@@ -0,0 +1,17 @@
+package com.universidad.vitaltech.dto;
+
+/**
+ * Paciente o doctor referenciado en los resultados con detalles
+ * (solo los campos que proyecta el $lookup)
+ */
+public record UsuarioReferencia(
+        String id,
+        String nombre,
+        String apellido,
+        String numeroDocumento,
+        String especialidad) {
+
+    public String nombreCompleto() {
+        return nombre + " " + apellido;
+    }
+}
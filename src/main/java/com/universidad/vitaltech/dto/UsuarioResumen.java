@@ -0,0 +1,52 @@
+package com.universidad.vitaltech.dto;
+
+import java.time.LocalDate;
+
+import com.universidad.vitaltech.model.Rol;
+import com.universidad.vitaltech.model.Usuario;
+
+/**
+ * Usuario para las pantallas de listas (proyección de usuarios sin contraseña,
+ * dirección ni información médica)
+ */
+public record UsuarioResumen(
+        String id,
+        String username,
+        String nombre,
+        String apellido,
+        String numeroDocumento,
+        String email,
+        String telefono,
+        LocalDate fechaNacimiento,
+        Rol rol,
+        String especialidad,
+        String licenciaMedica,
+        boolean activo) {
+
+    // Campos que carga la proyección (mismos nombres que los componentes)
+    public static final String CAMPOS = "{ 'username': 1, 'nombre': 1, 'apellido': 1, 'numeroDocumento': 1, "
+            + "'email': 1, 'telefono': 1, 'fechaNacimiento': 1, 'rol': 1, 'especialidad': 1, "
+            + "'licenciaMedica': 1, 'activo': 1 }";
+
+    public static UsuarioResumen de(Usuario usuario) {
+        return new UsuarioResumen(usuario.getId(), usuario.getUsername(), usuario.getNombre(),
+                usuario.getApellido(), usuario.getNumeroDocumento(), usuario.getEmail(), usuario.getTelefono(),
+                usuario.getFechaNacimiento(), usuario.getRol(), usuario.getEspecialidad(),
+                usuario.getLicenciaMedica(), usuario.isActivo());
+    }
+
+    public String getNombreCompleto() {
+        return nombre + " " + apellido;
+    }
+
+    public int getEdad() {
+        if (fechaNacimiento == null) {
+            return 0;
+        }
+        return LocalDate.now().getYear() - fechaNacimiento.getYear();
+    }
+
+    public boolean esPaciente() {
+        return rol == Rol.PACIENTE;
+    }
+}
@@ -4,6 +4,7 @@ import java.time.LocalDateTime;
 
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -19,7 +20,13 @@ import lombok.NoArgsConstructor;
  * y uso un lookup manual para hacer la relaciones con Usuario del paiente y el doctor
  */
 @Document(collection = "citas")
-@CompoundIndex(name = "paciente_fecha_idx", def = "{'pacienteId': 1, 'horario.fecha': -1}")
+@CompoundIndexes({
+    @CompoundIndex(name = "paciente_fecha_idx", def = "{'pacienteId': 1, 'horario.fecha': -1}"),
+    // Paginacion por cursor (CitaRepository.buscarPagina)
+    @CompoundIndex(name = "fecha_hora_id_idx", def = "{'horario.fecha': 1, 'horario.horaInicio': 1, '_id': 1}"),
+    @CompoundIndex(name = "estado_fecha_hora_id_idx",
+            def = "{'estado': 1, 'horario.fecha': 1, 'horario.horaInicio': 1, '_id': 1}")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,93 @@
+package com.universidad.vitaltech.model;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * Claves de búsqueda de un usuario: texto en minúsculas y sin tildes, para
+ * que la búsqueda sea un prefijo anclado (^texto) que puede usar el indice.
+ * Se guardan las palabras del nombre y apellido, el documento sin separadores
+ * y el correo completo.
+ */
+public final class ClavesBusqueda {
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern NO_ALFANUMERICO = Pattern.compile("[^\\p{Alnum}]+");
+    private static final Pattern ESPACIOS = Pattern.compile("\\s+");
+
+    private ClavesBusqueda() {
+    }
+
+    /**
+     * Minúsculas y sin tildes ("Peña" -> "pena")
+     */
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinMarcas = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return sinMarcas.toLowerCase(Locale.ROOT).trim();
+    }
+
+    /**
+     * Claves de un usuario, ordenadas y sin repetir
+     */
+    public static List<String> generar(String nombre, String apellido, String email, String numeroDocumento) {
+        TreeSet<String> claves = new TreeSet<>();
+        agregarPalabras(claves, nombre);
+        agregarPalabras(claves, apellido);
+        agregarSiNoVacia(claves, NO_ALFANUMERICO.matcher(normalizar(numeroDocumento)).replaceAll(""));
+        agregarSiNoVacia(claves, normalizar(email));
+        return new ArrayList<>(claves);
+    }
+
+    /**
+     * Términos de una consulta con la misma normalización que las claves,
+     * del más largo al más corto (el primero es el que recorre el indice)
+     */
+    public static List<String> terminos(String consulta) {
+        TreeSet<String> terminos = new TreeSet<>();
+        for (String palabra : ESPACIOS.split(normalizar(consulta))) {
+            // Un correo se busca completo; el resto sin separadores (documentos "1.234.567", "Ana-María")
+            agregarSiNoVacia(terminos, palabra.contains("@") ? palabra : NO_ALFANUMERICO.matcher(palabra).replaceAll(""));
+        }
+        List<String> ordenados = new ArrayList<>(terminos);
+        ordenados.sort(Comparator.comparingInt(String::length).reversed());
+        return ordenados;
+    }
+
+    /**
+     * Expresión regular de prefijo anclado para un término
+     */
+    public static Pattern prefijo(String termino) {
+        StringBuilder regex = new StringBuilder("^");
+        for (char c : termino.toCharArray()) {
+            if (!Character.isLetterOrDigit(c)) {
+                regex.append('\\');
+            }
+            regex.append(c);
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    // Cada palabra y, si lleva separadores, sus partes y la palabra sin ellos
+    private static void agregarPalabras(TreeSet<String> claves, String texto) {
+        for (String palabra : ESPACIOS.split(normalizar(texto))) {
+            agregarSiNoVacia(claves, NO_ALFANUMERICO.matcher(palabra).replaceAll(""));
+            for (String parte : NO_ALFANUMERICO.split(palabra)) {
+                agregarSiNoVacia(claves, parte);
+            }
+        }
+    }
+
+    private static void agregarSiNoVacia(TreeSet<String> conjunto, String valor) {
+        if (!valor.isEmpty()) {
+            conjunto.add(valor);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.universidad.vitaltech.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entidad DiaFestivo - Día en que la clínica no atiende. Aplica a todos los
+ * doctores sin modificar sus horarios.
+ */
+@Document(collection = "dias_festivos")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DiaFestivo {
+    
+    @Id
+    private String id;
+    
+    @NotNull(message = "La fecha es obligatoria")
+    @Indexed(name = "fecha_uk", unique = true)
+    private LocalDate fecha;
+    
+    private String descripcion;
+    
+    private LocalDateTime fechaCreacion;
+}
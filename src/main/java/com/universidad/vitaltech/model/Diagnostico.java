@@ -4,7 +4,11 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.TextScore;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -15,8 +19,14 @@ import java.util.List;
 /**
  * Entidad Diagnostico - Almacena diagnósticos médicos
  * Usa lookup para relacionarse con Cita, Paciente y Doctor
+ * Los campos clínicos forman un indice de texto en español (con raíces y sin
+ * acentos) para buscar diagnósticos por relevancia
  */
-@Document(collection = "diagnosticos")
+@Document(collection = "diagnosticos", language = "spanish")
+@CompoundIndexes({
+    @CompoundIndex(name = "doctor_fecha_idx", def = "{ 'doctorId': 1, 'fechaCreacion': -1 }"),
+    @CompoundIndex(name = "paciente_fecha_idx", def = "{ 'pacienteId': 1, 'fechaCreacion': -1 }")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -37,10 +47,16 @@ public class Diagnostico {
     
     // Datos del diagnóstico
     @NotBlank(message = "El diagnóstico es obligatorio")
+    @TextIndexed(weight = 5)
     private String diagnostico;
     
+    @TextIndexed(weight = 3)
     private String sintomas;
+    
+    @TextIndexed(weight = 2)
     private String tratamiento;
+    
+    @TextIndexed(weight = 2)
     private List<String> medicamentos = new ArrayList<>();
     private String observaciones;
     private String recomendaciones;
@@ -54,6 +70,7 @@ public class Diagnostico {
     private Double altura;
     
     // Exámenes y procedimientos
+    @TextIndexed
     private List<String> examenesOrdenados = new ArrayList<>();
     private String proximaConsulta; // Fecha sugerida
     
@@ -61,6 +78,10 @@ public class Diagnostico {
     private LocalDateTime fechaCreacion = LocalDateTime.now();
     private LocalDateTime fechaActualizacion;
     
+    // Relevancia en una búsqueda de texto (no se guarda)
+    @TextScore
+    private Float puntaje;
+    
     // Métodos de utilidad
     public void agregarMedicamento(String medicamento) {
         if (this.medicamentos == null) {
@@ -0,0 +1,58 @@
+package com.universidad.vitaltech.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entidad EntradaListaEspera - Paciente que espera un horario con un doctor
+ * (o con cualquier doctor de una especialidad) dentro de un rango de fechas.
+ * Cuando se cancela una cita se le asigna el horario liberado al primero que coincida.
+ */
+@Document(collection = "lista_espera")
+@CompoundIndexes({
+    @CompoundIndex(name = "doctor_espera_idx", def = "{'doctorId': 1, 'estado': 1, 'fechaDesde': 1, 'fechaCreacion': 1}"),
+    @CompoundIndex(name = "especialidad_espera_idx", def = "{'especialidad': 1, 'estado': 1, 'fechaDesde': 1, 'fechaCreacion': 1}")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EntradaListaEspera {
+    
+    @Id
+    private String id;
+    
+    @NotNull(message = "El paciente es obligatorio")
+    @Indexed
+    private String pacienteId;
+    
+    // Doctor especifico o, si es null, cualquier doctor de la especialidad
+    private String doctorId;
+    private String especialidad;
+    
+    @NotNull(message = "La fecha inicial es obligatoria")
+    private LocalDate fechaDesde;
+    
+    @NotNull(message = "La fecha final es obligatoria")
+    private LocalDate fechaHasta;
+    
+    private String motivoConsulta;
+    
+    private EstadoListaEspera estado = EstadoListaEspera.ESPERANDO;
+    
+    // Cita creada al asignarle un horario
+    private String citaId;
+    
+    private LocalDateTime fechaCreacion = LocalDateTime.now();
+    private LocalDateTime fechaAsignacion;
+}
@@ -0,0 +1,17 @@
+package com.universidad.vitaltech.model;
+
+public enum EstadoListaEspera {
+    ESPERANDO("Esperando"),
+    ASIGNADA("Asignada"),
+    CANCELADA("Cancelada");
+    
+    private final String displayName;
+    
+    EstadoListaEspera(String displayName) {
+        this.displayName = displayName;
+    }
+    
+    public String getDisplayName() {
+        return displayName;
+    }
+}
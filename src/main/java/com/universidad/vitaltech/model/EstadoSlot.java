@@ -0,0 +1,16 @@
+package com.universidad.vitaltech.model;
+
+public enum EstadoSlot {
+    LIBRE("Libre"),
+    RESERVADO("Reservado");
+    
+    private final String displayName;
+    
+    EstadoSlot(String displayName) {
+        this.displayName = displayName;
+    }
+    
+    public String getDisplayName() {
+        return displayName;
+    }
+}
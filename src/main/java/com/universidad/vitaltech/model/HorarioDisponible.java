@@ -6,6 +6,8 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import com.universidad.vitaltech.model.embedded.RangoFechas;
+
 import jakarta.validation.constraints.NotNull;
 import java.time.DayOfWeek;
 import java.time.LocalTime;
@@ -47,8 +49,8 @@ public class HorarioDisponible {
     // Si está activo o no
     private boolean activo = true;
     
-    // Fechas específicas de excepción (vacaciones, días no laborables)
-    private List<LocalDate> fechasNoDisponibles = new ArrayList<>();
+    // Rangos de excepción (vacaciones, días no laborables), ordenados y fusionados
+    private List<RangoFechas> rangosNoDisponibles = new ArrayList<>();
     
     // Métodos de utilidad
     public boolean validarHorario() {
@@ -67,17 +69,15 @@ public class HorarioDisponible {
     }
     
     public void agregarFechaNoDisponible(LocalDate fecha) {
-        if (this.fechasNoDisponibles == null) {
-            this.fechasNoDisponibles = new ArrayList<>();
-        }
-        this.fechasNoDisponibles.add(fecha);
+        agregarRangoNoDisponible(fecha, fecha);
+    }
+    
+    public void agregarRangoNoDisponible(LocalDate desde, LocalDate hasta) {
+        this.rangosNoDisponibles = RangoFechas.agregar(this.rangosNoDisponibles, desde, hasta);
     }
     
     public boolean estaDisponibleEnFecha(LocalDate fecha) {
-        if (fechasNoDisponibles == null) {
-            return true;
-        }
-        return !fechasNoDisponibles.contains(fecha);
+        return !RangoFechas.algunoContiene(rangosNoDisponibles, fecha);
     }
     
     public List<LocalTime> generarHorariosDisponibles() {
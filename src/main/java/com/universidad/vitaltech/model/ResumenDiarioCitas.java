@@ -0,0 +1,55 @@
+package com.universidad.vitaltech.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entidad ResumenDiarioCitas - Conteos ya agregados de las citas de un doctor en un dia.
+ * Los reportes leen estos documentos (uno por doctor y dia) en lugar de las citas.
+ * El ID es "doctorId|yyyy-MM-dd", asi que las citas de un doctor en un rango de
+ * fechas se leen recorriendo el indice de _id.
+ */
+@Document(collection = "citas_daily_rollup")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumenDiarioCitas {
+
+    @Id
+    private String id;
+
+    private String doctorId;
+
+    @Indexed(name = "fecha_idx")
+    private LocalDate fecha;
+
+    // Citas del dia en cada estado
+    private Map<EstadoCita, Long> estados = new EnumMap<>(EstadoCita.class);
+
+    private long total;
+
+    // Minutos de las citas que no fueron canceladas
+    private long minutosReservados;
+
+    // Ultimo $inc y ultima reconstruccion; la reconstruccion usa ambos para no pisar cambios recientes
+    private LocalDateTime actualizadoEn;
+    private LocalDateTime reconstruidoEn;
+
+    public static String clave(String doctorId, LocalDate fecha) {
+        return doctorId + "|" + fecha;
+    }
+
+    public long cantidad(EstadoCita estado) {
+        return estados != null ? estados.getOrDefault(estado, 0L) : 0;
+    }
+}
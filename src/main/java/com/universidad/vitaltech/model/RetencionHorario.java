@@ -0,0 +1,47 @@
+package com.universidad.vitaltech.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entidad RetencionHorario - Aparta un horario por unos minutos mientras el
+ * paciente completa el formulario de la cita. MongoDB borra el documento
+ * cuando pasa expiraEn (indice TTL).
+ */
+@Document(collection = "retenciones_horario")
+@CompoundIndex(name = "doctor_fecha_hora_uk", def = "{'doctorId': 1, 'fecha': 1, 'horaInicio': 1}", unique = true)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RetencionHorario {
+    
+    @Id
+    private String id;
+    
+    private String doctorId;
+    private LocalDate fecha;
+    private LocalTime horaInicio;
+    private LocalTime horaFin;
+    
+    // Paciente que aparto el horario
+    @Indexed
+    private String pacienteId;
+    
+    // El monitor TTL de MongoDB revisa cada minuto, por eso tambien se compara en las consultas
+    @Indexed(name = "expira_ttl_idx", expireAfter = "0s")
+    private LocalDateTime expiraEn;
+    
+    public boolean estaVigente() {
+        return expiraEn != null && expiraEn.isAfter(LocalDateTime.now());
+    }
+}
@@ -0,0 +1,44 @@
+package com.universidad.vitaltech.model;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entidad Slot - Inventario de horarios ya generados a partir de los HorarioDisponible.
+ * Un documento por doctor, fecha y hora de inicio dentro de la ventana de semanas configurada
+ */
+@Document(collection = "slots")
+@CompoundIndex(name = "doctor_fecha_hora_uk", def = "{'doctorId': 1, 'fecha': 1, 'horaInicio': 1}", unique = true)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Slot {
+    
+    @Id
+    private String id;
+    
+    private String doctorId;
+    private LocalDate fecha;
+    private LocalTime horaInicio;
+    private LocalTime horaFin;
+    
+    private EstadoSlot estado = EstadoSlot.LIBRE;
+    
+    // Cita que ocupa el horario (si esta reservado)
+    private String citaId;
+    
+    private LocalDateTime fechaActualizacion;
+    
+    public boolean estaLibre() {
+        return this.estado == EstadoSlot.LIBRE;
+    }
+}
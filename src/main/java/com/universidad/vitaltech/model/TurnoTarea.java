@@ -0,0 +1,30 @@
+package com.universidad.vitaltech.model;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entidad TurnoTarea - Indica que nodo corre una tarea programada y hasta cuando.
+ * Todos los nodos disparan la tarea a la misma hora; solo la corre el que toma el turno.
+ * El ID es el nombre de la tarea.
+ */
+@Document(collection = "turnos_tareas")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TurnoTarea {
+
+    @Id
+    private String id;
+
+    // Nodo que tomo el turno
+    private String nodo;
+
+    private LocalDateTime hasta;
+}
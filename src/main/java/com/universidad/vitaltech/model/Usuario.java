@@ -2,8 +2,11 @@ package com.universidad.vitaltech.model;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
@@ -19,6 +22,13 @@ import lombok.NoArgsConstructor;
 
 
 @Document(collection = "usuarios")
+@CompoundIndexes({
+    // Orden y filtros de la lista de usuarios del administrador
+    @CompoundIndex(name = "apellido_nombre_idx", def = "{'apellido': 1, 'nombre': 1, '_id': 1}"),
+    @CompoundIndex(name = "rol_activo_apellido_idx",
+            def = "{'rol': 1, 'activo': 1, 'apellido': 1, 'nombre': 1, '_id': 1}"),
+    @CompoundIndex(name = "fecha_registro_idx", def = "{'fechaRegistro': 1, '_id': 1}")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -79,7 +89,15 @@ public class Usuario {
     private LocalDateTime ultimaActualizacion;
     private String registradoPor; // ID del usuario que lo registró
 
+    // Claves normalizadas para la búsqueda por prefijo (se calculan al guardar)
+    @Indexed(name = "claves_busqueda_idx")
+    private List<String> clavesBusqueda;
+
     // Métodos de utilidad
+    public void actualizarClavesBusqueda() {
+        this.clavesBusqueda = ClavesBusqueda.generar(nombre, apellido, email, numeroDocumento);
+    }
+
     public String getNombreCompleto() {
         return nombre + " " + apellido;
     }
@@ -0,0 +1,40 @@
+package com.universidad.vitaltech.model;
+
+import java.time.LocalDate;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Entidad VersionAgenda - Contador de reservas confirmadas de un doctor en un dia.
+ * Cada reserva lo avanza solo si nadie lo avanzo desde que reviso los cruces,
+ * asi dos reservas que se cruzan no pueden confirmarse a la vez.
+ * El ID es "doctorId|yyyy-MM-dd"; MongoDB borra el documento 30 dias despues de la fecha.
+ * Los documentos sin fecha cuentan los cambios de toda la agenda de un doctor
+ * (ID = doctorId) o de todas las agendas (ID = GENERAL) y no vencen.
+ */
+@Document(collection = "agenda_versiones")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VersionAgenda {
+
+    @Id
+    private String id;
+
+    @Indexed(name = "fecha_ttl_idx", expireAfter = "30d")
+    private LocalDate fecha;
+
+    private long version;
+
+    public static final String GENERAL = "*";
+
+    public static String clave(String doctorId, LocalDate fecha) {
+        return doctorId + "|" + fecha;
+    }
+}
@@ -14,6 +14,9 @@ import java.time.LocalTime;
 @NoArgsConstructor
 @AllArgsConstructor
 public class Horario {
+
+    public static final int DURACION_MAXIMA_MINUTOS = 30;
+
     private LocalDate fecha;
     private LocalTime horaInicio;
     private LocalTime horaFin;
@@ -26,7 +29,7 @@ public class Horario {
             return false;
         }
         long minutos = java.time.Duration.between(horaInicio, horaFin).toMinutes();
-        return minutos > 0 && minutos <= 30;
+        return minutos > 0 && minutos <= DURACION_MAXIMA_MINUTOS;
     }
     
     @Override
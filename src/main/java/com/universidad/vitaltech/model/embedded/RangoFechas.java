@@ -0,0 +1,85 @@
+package com.universidad.vitaltech.model.embedded;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Documento embebido para un rango de fechas [desde, hasta], ambas inclusive.
+ * Las listas de rangos se guardan ordenadas por desde y sin rangos que se
+ * crucen ni se toquen, asi saber si una fecha cae en alguno es una busqueda binaria.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RangoFechas {
+    private LocalDate desde;
+    private LocalDate hasta;
+
+    public boolean contiene(LocalDate fecha) {
+        return !fecha.isBefore(desde) && !fecha.isAfter(hasta);
+    }
+
+    /**
+     * Agrega un rango a una lista ordenada, fusionandolo con los rangos que se
+     * cruzan o son contiguos. Devuelve una lista nueva y tambien ordenada.
+     */
+    public static List<RangoFechas> agregar(List<RangoFechas> rangos, LocalDate desde, LocalDate hasta) {
+        if (hasta.isBefore(desde)) {
+            throw new RuntimeException("La fecha final debe ser posterior a la inicial");
+        }
+        List<RangoFechas> resultado = new ArrayList<>();
+        LocalDate nuevoDesde = desde;
+        LocalDate nuevoHasta = hasta;
+        boolean insertado = false;
+
+        for (RangoFechas rango : rangos != null ? rangos : List.<RangoFechas>of()) {
+            if (rango.getHasta().plusDays(1).isBefore(nuevoDesde)) {
+                // Termina antes del nuevo rango
+                resultado.add(rango);
+            } else if (nuevoHasta.plusDays(1).isBefore(rango.getDesde())) {
+                // Empieza despues del nuevo rango
+                if (!insertado) {
+                    resultado.add(new RangoFechas(nuevoDesde, nuevoHasta));
+                    insertado = true;
+                }
+                resultado.add(rango);
+            } else {
+                // Se cruza o es contiguo: se fusiona
+                nuevoDesde = rango.getDesde().isBefore(nuevoDesde) ? rango.getDesde() : nuevoDesde;
+                nuevoHasta = rango.getHasta().isAfter(nuevoHasta) ? rango.getHasta() : nuevoHasta;
+            }
+        }
+        if (!insertado) {
+            resultado.add(new RangoFechas(nuevoDesde, nuevoHasta));
+        }
+        return resultado;
+    }
+
+    /**
+     * Indica si la fecha cae en alguno de los rangos de una lista ordenada
+     */
+    public static boolean algunoContiene(List<RangoFechas> rangos, LocalDate fecha) {
+        if (rangos == null || rangos.isEmpty()) {
+            return false;
+        }
+        // Ultimo rango que empieza en o antes de la fecha
+        int bajo = 0;
+        int alto = rangos.size() - 1;
+        int candidato = -1;
+        while (bajo <= alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (rangos.get(medio).getDesde().isAfter(fecha)) {
+                alto = medio - 1;
+            } else {
+                candidato = medio;
+                bajo = medio + 1;
+            }
+        }
+        return candidato >= 0 && !rangos.get(candidato).getHasta().isBefore(fecha);
+    }
+}
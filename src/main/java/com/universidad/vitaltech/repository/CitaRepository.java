@@ -1,13 +1,17 @@
 package com.universidad.vitaltech.repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.mongodb.repository.Aggregation;
+import org.springframework.data.mongodb.repository.Hint;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import com.universidad.vitaltech.dto.CitaDetalle;
+import com.universidad.vitaltech.dto.ResumenCitasPaciente;
 import com.universidad.vitaltech.model.Cita;
 import com.universidad.vitaltech.model.EstadoCita;
 
@@ -16,7 +20,7 @@ import com.universidad.vitaltech.model.EstadoCita;
  * Incluye queries con lookup para relacionar con Usuario
  */
 @Repository
-public interface CitaRepository extends MongoRepository<Cita, String> {
+public interface CitaRepository extends MongoRepository<Cita, String>, CitaRepositoryCustom {
     
     // Buscar citas por paciente
     List<Cita> findByPacienteId(String pacienteId);
@@ -44,38 +48,64 @@ public interface CitaRepository extends MongoRepository<Cita, String> {
     // Buscar citas programadas de un doctor en una fecha
     @Query("{ 'doctorId': ?0, 'horario.fecha': ?1, 'estado': { $in: ['PROGRAMADA', 'CONFIRMADA'] } }")
     List<Cita> findCitasProgramadasByDoctorAndFecha(String doctorId, LocalDate fecha);
-    
+
+    // Citas no canceladas de un doctor en una fecha (solo horario, para la disponibilidad del dia)
+    @Query(value = "{ 'doctorId': ?0, 'horario.fecha': ?1, 'estado': { $ne: 'CANCELADA' } }",
+           fields = "{ 'doctorId': 1, 'horario': 1, 'estado': 1 }")
+    List<Cita> findCitasActivasByDoctorAndFecha(String doctorId, LocalDate fecha);
+
+    // Citas no canceladas de varios doctores en un rango de fechas (una sola consulta)
+    @Query(value = "{ 'doctorId': { $in: ?0 }, 'horario.fecha': { $gte: ?1, $lte: ?2 }, 'estado': { $ne: 'CANCELADA' } }",
+           fields = "{ 'doctorId': 1, 'horario': 1, 'estado': 1 }")
+    List<Cita> findCitasActivasByDoctoresAndRangoFechas(Collection<String> doctorIds, LocalDate desde, LocalDate hasta);
+
     // LOOKUP: Obtener citas con información del paciente y doctor
     @Aggregation(pipeline = {
         "{ $match: { 'pacienteId': ?0 } }",
-        "{ $lookup: { from: 'usuarios', localField: 'pacienteId', foreignField: '_id', as: 'paciente' } }",
-        "{ $lookup: { from: 'usuarios', localField: 'doctorId', foreignField: '_id', as: 'doctor' } }",
-        "{ $unwind: '$paciente' }",
-        "{ $unwind: '$doctor' }"
+        LookupsUsuario.PACIENTE,
+        LookupsUsuario.DOCTOR,
+        LookupsUsuario.UNWIND_PACIENTE,
+        LookupsUsuario.UNWIND_DOCTOR,
+        "{ $project: { horario: 1, estado: 1, motivoConsulta: 1, observaciones: 1, paciente: 1, doctor: 1 } }"
     })
-    List<Object> findCitasConDetallesByPacienteId(String pacienteId);
+    List<CitaDetalle> findCitasConDetallesByPacienteId(String pacienteId);
     
     // LOOKUP: Obtener citas con información del paciente y doctor por doctorId
     @Aggregation(pipeline = {
         "{ $match: { 'doctorId': ?0 } }",
-        "{ $lookup: { from: 'usuarios', localField: 'pacienteId', foreignField: '_id', as: 'paciente' } }",
-        "{ $lookup: { from: 'usuarios', localField: 'doctorId', foreignField: '_id', as: 'doctor' } }",
-        "{ $unwind: '$paciente' }",
-        "{ $unwind: '$doctor' }",
-        "{ $sort: { 'horario.fecha': -1, 'horario.horaInicio': -1 } }"
+        "{ $sort: { 'horario.fecha': -1, 'horario.horaInicio': -1 } }",
+        LookupsUsuario.PACIENTE,
+        LookupsUsuario.DOCTOR,
+        LookupsUsuario.UNWIND_PACIENTE,
+        LookupsUsuario.UNWIND_DOCTOR,
+        "{ $project: { horario: 1, estado: 1, motivoConsulta: 1, observaciones: 1, paciente: 1, doctor: 1 } }"
     })
-    List<Object> findCitasConDetallesByDoctorId(String doctorId);
+    List<CitaDetalle> findCitasConDetallesByDoctorId(String doctorId);
     
     // LOOKUP: Obtener citas por fecha con detalles
     @Aggregation(pipeline = {
         "{ $match: { 'horario.fecha': ?0 } }",
-        "{ $lookup: { from: 'usuarios', localField: 'pacienteId', foreignField: '_id', as: 'paciente' } }",
-        "{ $lookup: { from: 'usuarios', localField: 'doctorId', foreignField: '_id', as: 'doctor' } }",
-        "{ $unwind: '$paciente' }",
-        "{ $unwind: '$doctor' }",
-        "{ $sort: { 'horario.horaInicio': 1 } }"
+        "{ $sort: { 'horario.horaInicio': 1 } }",
+        LookupsUsuario.PACIENTE,
+        LookupsUsuario.DOCTOR,
+        LookupsUsuario.UNWIND_PACIENTE,
+        LookupsUsuario.UNWIND_DOCTOR,
+        "{ $project: { horario: 1, estado: 1, motivoConsulta: 1, observaciones: 1, paciente: 1, doctor: 1 } }"
+    })
+    List<CitaDetalle> findCitasConDetallesByFecha(LocalDate fecha);
+    
+    // FACET: Próximas citas no canceladas y conteo por estado de un paciente en una sola consulta.
+    // El $match inicial recorre paciente_fecha_idx y solo trae las citas de ese paciente.
+    // horaInicio es texto "HH:mm" (ConversionesMongoConfig), asi que el $sort sigue la hora del dia
+    @Hint("paciente_fecha_idx")
+    @Aggregation(pipeline = {
+        "{ $match: { 'pacienteId': ?0 } }",
+        "{ $facet: { "
+            + "proximas: [ { $match: { 'horario.fecha': { $gte: ?1 }, 'estado': { $ne: 'CANCELADA' } } }, "
+            + "{ $sort: { 'horario.fecha': 1, 'horario.horaInicio': 1 } }, { $limit: ?2 } ], "
+            + "porEstado: [ { $group: { _id: '$estado', cantidad: { $sum: 1 } } } ] } }"
     })
-    List<Object> findCitasConDetallesByFecha(String fecha);
+    ResumenCitasPaciente resumirCitasDePaciente(String pacienteId, LocalDate desde, int limiteProximas);
     
     // Contar citas por doctor y estado
     long countByDoctorIdAndEstado(String doctorId, EstadoCita estado);
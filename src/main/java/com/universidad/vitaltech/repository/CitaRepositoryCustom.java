@@ -0,0 +1,38 @@
+package com.universidad.vitaltech.repository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.List;
+
+import com.universidad.vitaltech.dto.CursorCita;
+import com.universidad.vitaltech.model.Cita;
+import com.universidad.vitaltech.model.EstadoCita;
+
+/**
+ * Consultas de citas que no se pueden expresar con métodos derivados
+ */
+public interface CitaRepositoryCustom {
+
+    /**
+     * Citas en orden (horario.fecha, horario.horaInicio, _id) a partir de un cursor.
+     * Usa los indices fecha_hora_id_idx y estado_fecha_hora_id_idx, asi que el costo
+     * no depende de cuantas páginas haya antes.
+     *
+     * @param fecha Solo citas de esta fecha (null para todas)
+     * @param estados Solo citas en alguno de estos estados (null o vacío para todos)
+     * @param despues Cursor de la última cita de la página anterior (null para la primera)
+     * @param limite Cantidad máxima de citas
+     */
+    List<Cita> buscarPagina(LocalDate fecha, Collection<EstadoCita> estados, CursorCita despues, int limite);
+
+    /**
+     * Indica si el doctor tiene una cita programada o confirmada que se cruce con
+     * [horaInicio, horaFin) en la fecha. Una cita dura a lo sumo
+     * Horario.DURACION_MAXIMA_MINUTOS, asi que solo se recorre el tramo del indice
+     * doctor_fecha_hora_activa_uk con las citas que empiezan hasta esa duracion antes del intervalo.
+     *
+     * @param excluirId Cita que no se cuenta (null para contar todas)
+     */
+    boolean existeCruce(String doctorId, LocalDate fecha, LocalTime horaInicio, LocalTime horaFin, String excluirId);
+}
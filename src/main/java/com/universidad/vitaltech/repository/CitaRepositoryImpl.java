@@ -0,0 +1,71 @@
+package com.universidad.vitaltech.repository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.universidad.vitaltech.dto.CursorCita;
+import com.universidad.vitaltech.model.Cita;
+import com.universidad.vitaltech.model.EstadoCita;
+import com.universidad.vitaltech.model.embedded.Horario;
+
+/**
+ * Implementación de las consultas personalizadas de citas
+ */
+class CitaRepositoryImpl implements CitaRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Cita> buscarPagina(LocalDate fecha, Collection<EstadoCita> estados, CursorCita despues, int limite) {
+        Criteria criteria = new Criteria();
+        if (fecha != null) {
+            criteria.and("horario.fecha").is(fecha);
+        }
+        if (estados != null && !estados.isEmpty()) {
+            criteria.and("estado").in(estados);
+        }
+        if (despues != null) {
+            // Estrictamente despues de (fecha, hora, id) del cursor
+            criteria.orOperator(
+                    Criteria.where("horario.fecha").gt(despues.fecha()),
+                    Criteria.where("horario.fecha").is(despues.fecha())
+                            .and("horario.horaInicio").gt(despues.horaInicio()),
+                    Criteria.where("horario.fecha").is(despues.fecha())
+                            .and("horario.horaInicio").is(despues.horaInicio())
+                            .and("_id").gt(despues.id()));
+        }
+
+        Query query = new Query(criteria)
+                .with(Sort.by("horario.fecha", "horario.horaInicio", "_id"))
+                .limit(limite);
+        return mongoTemplate.find(query, Cita.class);
+    }
+
+    @Override
+    public boolean existeCruce(String doctorId, LocalDate fecha, LocalTime horaInicio, LocalTime horaFin,
+            String excluirId) {
+        // Mismos estados que el filtro parcial del indice, para que la consulta lo use
+        Criteria criteria = Criteria.where("doctorId").is(doctorId)
+                .and("horario.fecha").is(fecha)
+                .and("estado").in(EstadoCita.PROGRAMADA, EstadoCita.CONFIRMADA)
+                .and("horario.horaFin").gt(horaInicio);
+        Criteria inicio = criteria.and("horario.horaInicio").lt(horaFin);
+        LocalTime primerInicio = horaInicio.minusMinutes(Horario.DURACION_MAXIMA_MINUTOS);
+        if (primerInicio.isBefore(horaInicio)) {
+            inicio.gt(primerInicio);
+        }
+        if (excluirId != null) {
+            criteria.and("_id").ne(excluirId);
+        }
+        return mongoTemplate.exists(new Query(criteria), Cita.class);
+    }
+}
@@ -0,0 +1,21 @@
+package com.universidad.vitaltech.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.universidad.vitaltech.model.DiaFestivo;
+
+@Repository
+public interface DiaFestivoRepository extends MongoRepository<DiaFestivo, String> {
+    
+    // Festivos ordenados por fecha
+    List<DiaFestivo> findAllByOrderByFechaAsc();
+    
+    // Festivos desde una fecha
+    List<DiaFestivo> findByFechaGreaterThanEqualOrderByFechaAsc(LocalDate desde);
+    
+    boolean existsByFecha(LocalDate fecha);
+}
@@ -1,6 +1,10 @@
 package com.universidad.vitaltech.repository;
 
+import com.universidad.vitaltech.dto.DiagnosticoDetalle;
 import com.universidad.vitaltech.model.Diagnostico;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.mongodb.core.query.TextCriteria;
 import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
@@ -29,6 +33,12 @@ public interface DiagnosticoRepository extends MongoRepository<Diagnostico, Stri
     @Query(value = "{ 'pacienteId': ?0 }", sort = "{ 'fechaCreacion': -1 }")
     List<Diagnostico> findByPacienteIdOrderByFechaCreacionDesc(String pacienteId);
     
+    // TEXTO: Diagnósticos de un doctor que coinciden con la búsqueda (el orden por relevancia va en el Pageable)
+    Slice<Diagnostico> findByDoctorId(String doctorId, TextCriteria texto, Pageable pageable);
+    
+    // TEXTO: Diagnósticos de un paciente que coinciden con la búsqueda
+    Slice<Diagnostico> findByPacienteId(String pacienteId, TextCriteria texto, Pageable pageable);
+    
     // Obtener el último diagnóstico de un paciente
     @Query(value = "{ 'pacienteId': ?0 }", sort = "{ 'fechaCreacion': -1 }")
     Optional<Diagnostico> findUltimoDiagnosticoByPacienteId(String pacienteId);
@@ -36,54 +46,54 @@ public interface DiagnosticoRepository extends MongoRepository<Diagnostico, Stri
     // LOOKUP: Obtener diagnóstico con información de la cita y usuarios
     @Aggregation(pipeline = {
         "{ $match: { '_id': { $oid: ?0 } } }",
-        "{ $lookup: { from: 'citas', localField: 'citaId', foreignField: '_id', as: 'cita' } }",
-        "{ $lookup: { from: 'usuarios', localField: 'pacienteId', foreignField: '_id', as: 'paciente' } }",
-        "{ $lookup: { from: 'usuarios', localField: 'doctorId', foreignField: '_id', as: 'doctor' } }",
-        "{ $unwind: { path: '$cita', preserveNullAndEmptyArrays: true } }",
-        "{ $unwind: '$paciente' }",
-        "{ $unwind: '$doctor' }"
+        "{ $lookup: { from: 'citas', let: { citaId: { $convert: { input: '$citaId', to: 'objectId', onError: null, onNull: null } } }, pipeline: [ { $match: { $expr: { $eq: ['$_id', '$$citaId'] } } }, { $project: { horario: 1 } } ], as: 'cita' } }",
+        LookupsUsuario.PACIENTE,
+        LookupsUsuario.DOCTOR,
+        LookupsUsuario.UNWIND_PACIENTE,
+        LookupsUsuario.UNWIND_DOCTOR,
+        "{ $project: { citaId: 1, diagnostico: 1, sintomas: 1, tratamiento: 1, medicamentos: 1, observaciones: 1, recomendaciones: 1, examenesOrdenados: 1, proximaConsulta: 1, fechaCreacion: 1, horarioCita: { $arrayElemAt: ['$cita.horario', 0] }, paciente: 1, doctor: 1 } }"
     })
-    Optional<Object> findDiagnosticoConDetallesById(String id);
+    Optional<DiagnosticoDetalle> findDiagnosticoConDetallesById(String id);
     
     // LOOKUP: Obtener diagnósticos de un paciente con información completa
     @Aggregation(pipeline = {
         "{ $match: { 'pacienteId': ?0 } }",
-        "{ $lookup: { from: 'citas', localField: 'citaId', foreignField: '_id', as: 'cita' } }",
-        "{ $lookup: { from: 'usuarios', localField: 'pacienteId', foreignField: '_id', as: 'paciente' } }",
-        "{ $lookup: { from: 'usuarios', localField: 'doctorId', foreignField: '_id', as: 'doctor' } }",
-        "{ $unwind: { path: '$cita', preserveNullAndEmptyArrays: true } }",
-        "{ $unwind: '$paciente' }",
-        "{ $unwind: '$doctor' }",
-        "{ $sort: { 'fechaCreacion': -1 } }"
+        "{ $sort: { 'fechaCreacion': -1 } }",
+        "{ $lookup: { from: 'citas', let: { citaId: { $convert: { input: '$citaId', to: 'objectId', onError: null, onNull: null } } }, pipeline: [ { $match: { $expr: { $eq: ['$_id', '$$citaId'] } } }, { $project: { horario: 1 } } ], as: 'cita' } }",
+        LookupsUsuario.PACIENTE,
+        LookupsUsuario.DOCTOR,
+        LookupsUsuario.UNWIND_PACIENTE,
+        LookupsUsuario.UNWIND_DOCTOR,
+        "{ $project: { citaId: 1, diagnostico: 1, sintomas: 1, tratamiento: 1, medicamentos: 1, observaciones: 1, recomendaciones: 1, examenesOrdenados: 1, proximaConsulta: 1, fechaCreacion: 1, horarioCita: { $arrayElemAt: ['$cita.horario', 0] }, paciente: 1, doctor: 1 } }"
     })
-    List<Object> findDiagnosticosConDetallesByPacienteId(String pacienteId);
+    List<DiagnosticoDetalle> findDiagnosticosConDetallesByPacienteId(String pacienteId);
     
     // LOOKUP: Obtener diagnósticos de un doctor con información completa
     @Aggregation(pipeline = {
         "{ $match: { 'doctorId': ?0 } }",
-        "{ $lookup: { from: 'citas', localField: 'citaId', foreignField: '_id', as: 'cita' } }",
-        "{ $lookup: { from: 'usuarios', localField: 'pacienteId', foreignField: '_id', as: 'paciente' } }",
-        "{ $lookup: { from: 'usuarios', localField: 'doctorId', foreignField: '_id', as: 'doctor' } }",
-        "{ $unwind: { path: '$cita', preserveNullAndEmptyArrays: true } }",
-        "{ $unwind: '$paciente' }",
-        "{ $unwind: '$doctor' }",
-        "{ $sort: { 'fechaCreacion': -1 } }"
+        "{ $sort: { 'fechaCreacion': -1 } }",
+        "{ $lookup: { from: 'citas', let: { citaId: { $convert: { input: '$citaId', to: 'objectId', onError: null, onNull: null } } }, pipeline: [ { $match: { $expr: { $eq: ['$_id', '$$citaId'] } } }, { $project: { horario: 1 } } ], as: 'cita' } }",
+        LookupsUsuario.PACIENTE,
+        LookupsUsuario.DOCTOR,
+        LookupsUsuario.UNWIND_PACIENTE,
+        LookupsUsuario.UNWIND_DOCTOR,
+        "{ $project: { citaId: 1, diagnostico: 1, sintomas: 1, tratamiento: 1, medicamentos: 1, observaciones: 1, recomendaciones: 1, examenesOrdenados: 1, proximaConsulta: 1, fechaCreacion: 1, horarioCita: { $arrayElemAt: ['$cita.horario', 0] }, paciente: 1, doctor: 1 } }"
     })
-    List<Object> findDiagnosticosConDetallesByDoctorId(String doctorId);
+    List<DiagnosticoDetalle> findDiagnosticosConDetallesByDoctorId(String doctorId);
     
     // LOOKUP: Obtener el último diagnóstico de un paciente con detalles completos
     @Aggregation(pipeline = {
         "{ $match: { 'pacienteId': ?0 } }",
         "{ $sort: { 'fechaCreacion': -1 } }",
         "{ $limit: 1 }",
-        "{ $lookup: { from: 'citas', localField: 'citaId', foreignField: '_id', as: 'cita' } }",
-        "{ $lookup: { from: 'usuarios', localField: 'pacienteId', foreignField: '_id', as: 'paciente' } }",
-        "{ $lookup: { from: 'usuarios', localField: 'doctorId', foreignField: '_id', as: 'doctor' } }",
-        "{ $unwind: { path: '$cita', preserveNullAndEmptyArrays: true } }",
-        "{ $unwind: '$paciente' }",
-        "{ $unwind: '$doctor' }"
+        "{ $lookup: { from: 'citas', let: { citaId: { $convert: { input: '$citaId', to: 'objectId', onError: null, onNull: null } } }, pipeline: [ { $match: { $expr: { $eq: ['$_id', '$$citaId'] } } }, { $project: { horario: 1 } } ], as: 'cita' } }",
+        LookupsUsuario.PACIENTE,
+        LookupsUsuario.DOCTOR,
+        LookupsUsuario.UNWIND_PACIENTE,
+        LookupsUsuario.UNWIND_DOCTOR,
+        "{ $project: { citaId: 1, diagnostico: 1, sintomas: 1, tratamiento: 1, medicamentos: 1, observaciones: 1, recomendaciones: 1, examenesOrdenados: 1, proximaConsulta: 1, fechaCreacion: 1, horarioCita: { $arrayElemAt: ['$cita.horario', 0] }, paciente: 1, doctor: 1 } }"
     })
-    Optional<Object> findUltimoDiagnosticoConDetallesByPacienteId(String pacienteId);
+    Optional<DiagnosticoDetalle> findUltimoDiagnosticoConDetallesByPacienteId(String pacienteId);
     
     // Verificar si existe diagnóstico para una cita
     boolean existsByCitaId(String citaId);
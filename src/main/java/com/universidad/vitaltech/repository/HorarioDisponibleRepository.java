@@ -1,12 +1,14 @@
 package com.universidad.vitaltech.repository;
 
 import java.time.DayOfWeek;
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.mongodb.repository.Aggregation;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.stereotype.Repository;
 
+import com.universidad.vitaltech.dto.HorarioDetalle;
 import com.universidad.vitaltech.model.HorarioDisponible;
 
 @Repository
@@ -17,6 +19,9 @@ public interface HorarioDisponibleRepository extends MongoRepository<HorarioDisp
     
     // Buscar horarios activos por doctor
     List<HorarioDisponible> findByDoctorIdAndActivoTrue(String doctorId);
+
+    // Buscar horarios activos de varios doctores
+    List<HorarioDisponible> findByDoctorIdInAndActivoTrue(Collection<String> doctorIds);
     
     // Buscar horarios por doctor y día de la semana
     List<HorarioDisponible> findByDoctorIdAndDiaSemana(String doctorId, DayOfWeek diaSemana);
@@ -33,31 +38,32 @@ public interface HorarioDisponibleRepository extends MongoRepository<HorarioDisp
     // LOOKUP: Obtener horarios con información del doctor
     @Aggregation(pipeline = {
         "{ $match: { 'activo': true } }",
-        "{ $lookup: { from: 'usuarios', localField: 'doctorId', foreignField: '_id', as: 'doctor' } }",
+        LookupsUsuario.DOCTOR_ACTIVO,
         "{ $unwind: '$doctor' }",
-        "{ $match: { 'doctor.rol': 'DOCTOR', 'doctor.activo': true } }",
-        "{ $sort: { 'diaSemana': 1, 'horaInicio': 1 } }"
+        "{ $sort: { 'diaSemana': 1, 'horaInicio': 1 } }",
+        "{ $project: { diaSemana: 1, horaInicio: 1, horaFin: 1, duracionCita: 1, doctor: 1 } }"
     })
-    List<Object> findHorariosActivosConDetallesDoctor();
+    List<HorarioDetalle> findHorariosActivosConDetallesDoctor();
     
     // LOOKUP: Obtener horarios de un doctor específico con sus detalles
     @Aggregation(pipeline = {
         "{ $match: { 'doctorId': ?0, 'activo': true } }",
-        "{ $lookup: { from: 'usuarios', localField: 'doctorId', foreignField: '_id', as: 'doctor' } }",
-        "{ $unwind: '$doctor' }",
-        "{ $sort: { 'diaSemana': 1, 'horaInicio': 1 } }"
+        "{ $sort: { 'diaSemana': 1, 'horaInicio': 1 } }",
+        LookupsUsuario.DOCTOR,
+        LookupsUsuario.UNWIND_DOCTOR,
+        "{ $project: { diaSemana: 1, horaInicio: 1, horaFin: 1, duracionCita: 1, doctor: 1 } }"
     })
-    List<Object> findHorariosConDetallesByDoctorId(String doctorId);
+    List<HorarioDetalle> findHorariosConDetallesByDoctorId(String doctorId);
     
     // LOOKUP: Obtener horarios disponibles por día de la semana con información del doctor
     @Aggregation(pipeline = {
         "{ $match: { 'diaSemana': ?0, 'activo': true } }",
-        "{ $lookup: { from: 'usuarios', localField: 'doctorId', foreignField: '_id', as: 'doctor' } }",
+        LookupsUsuario.DOCTOR_ACTIVO,
         "{ $unwind: '$doctor' }",
-        "{ $match: { 'doctor.rol': 'DOCTOR', 'doctor.activo': true } }",
-        "{ $sort: { 'doctor.nombre': 1, 'horaInicio': 1 } }"
+        "{ $sort: { 'doctor.nombre': 1, 'horaInicio': 1 } }",
+        "{ $project: { diaSemana: 1, horaInicio: 1, horaFin: 1, duracionCita: 1, doctor: 1 } }"
     })
-    List<Object> findHorariosConDetallesByDiaSemana(String diaSemana);
+    List<HorarioDetalle> findHorariosConDetallesByDiaSemana(DayOfWeek diaSemana);
     
     // Verificar si existe horario para un doctor en un día específico
     boolean existsByDoctorIdAndDiaSemana(String doctorId, DayOfWeek diaSemana);
@@ -0,0 +1,15 @@
+package com.universidad.vitaltech.repository;
+
+import java.util.List;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import com.universidad.vitaltech.model.EntradaListaEspera;
+
+@Repository
+public interface ListaEsperaRepository extends MongoRepository<EntradaListaEspera, String> {
+    
+    // Entradas de un paciente, las mas recientes primero
+    List<EntradaListaEspera> findByPacienteIdOrderByFechaCreacionDesc(String pacienteId);
+}
@@ -0,0 +1,35 @@
+package com.universidad.vitaltech.repository;
+
+/**
+ * Etapas $lookup hacia usuarios compartidas por las agregaciones con detalles.
+ * Los ids de referencia se guardan como String y el _id de usuarios es ObjectId,
+ * por eso se convierten antes de comparar. El sub-pipeline proyecta solo los
+ * campos que muestran las vistas (nunca password ni informacionMedica).
+ */
+final class LookupsUsuario {
+
+    private static final String CAMPOS = "{ $project: { nombre: 1, apellido: 1, numeroDocumento: 1, especialidad: 1 } }";
+
+    static final String PACIENTE = "{ $lookup: { from: 'usuarios', "
+            + "let: { usuarioId: { $convert: { input: '$pacienteId', to: 'objectId', onError: null, onNull: null } } }, "
+            + "pipeline: [ { $match: { $expr: { $eq: ['$_id', '$$usuarioId'] } } }, " + CAMPOS + " ], "
+            + "as: 'paciente' } }";
+
+    static final String DOCTOR = "{ $lookup: { from: 'usuarios', "
+            + "let: { usuarioId: { $convert: { input: '$doctorId', to: 'objectId', onError: null, onNull: null } } }, "
+            + "pipeline: [ { $match: { $expr: { $eq: ['$_id', '$$usuarioId'] } } }, " + CAMPOS + " ], "
+            + "as: 'doctor' } }";
+
+    // Solo doctores activos (join interno con el $unwind que le sigue)
+    static final String DOCTOR_ACTIVO = "{ $lookup: { from: 'usuarios', "
+            + "let: { usuarioId: { $convert: { input: '$doctorId', to: 'objectId', onError: null, onNull: null } } }, "
+            + "pipeline: [ { $match: { $expr: { $eq: ['$_id', '$$usuarioId'] }, rol: 'DOCTOR', activo: true } }, "
+            + CAMPOS + " ], "
+            + "as: 'doctor' } }";
+
+    static final String UNWIND_PACIENTE = "{ $unwind: { path: '$paciente', preserveNullAndEmptyArrays: true } }";
+    static final String UNWIND_DOCTOR = "{ $unwind: { path: '$doctor', preserveNullAndEmptyArrays: true } }";
+
+    private LookupsUsuario() {
+    }
+}
@@ -0,0 +1,22 @@
+package com.universidad.vitaltech.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.universidad.vitaltech.model.ResumenDiarioCitas;
+
+@Repository
+public interface ResumenDiarioCitasRepository extends MongoRepository<ResumenDiarioCitas, String> {
+
+    // Dias de un doctor en un rango: rango sobre el _id "doctorId|yyyy-MM-dd"
+    @Query(value = "{ '_id': { $gte: ?0, $lte: ?1 } }", sort = "{ '_id': 1 }")
+    List<ResumenDiarioCitas> findByRangoDeClaves(String desde, String hasta);
+
+    // Todos los doctores en un rango de fechas (usa fecha_idx)
+    @Query(value = "{ 'fecha': { $gte: ?0, $lte: ?1 } }", sort = "{ 'fecha': 1, 'doctorId': 1 }")
+    List<ResumenDiarioCitas> findByRangoFechas(LocalDate desde, LocalDate hasta);
+}
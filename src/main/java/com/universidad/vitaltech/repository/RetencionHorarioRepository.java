@@ -0,0 +1,28 @@
+package com.universidad.vitaltech.repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.universidad.vitaltech.model.RetencionHorario;
+
+@Repository
+public interface RetencionHorarioRepository extends MongoRepository<RetencionHorario, String> {
+    
+    // Retenciones vigentes de un doctor en una fecha
+    @Query("{ 'doctorId': ?0, 'fecha': ?1, 'expiraEn': { $gt: ?2 } }")
+    List<RetencionHorario> findVigentesByDoctorAndFecha(String doctorId, LocalDate fecha, LocalDateTime ahora);
+    
+    // Retenciones vigentes de varios doctores en un rango de fechas
+    @Query("{ 'doctorId': { $in: ?0 }, 'fecha': { $gte: ?1, $lte: ?2 }, 'expiraEn': { $gt: ?3 } }")
+    List<RetencionHorario> findVigentesByDoctoresAndRangoFechas(Collection<String> doctorIds, LocalDate desde,
+            LocalDate hasta, LocalDateTime ahora);
+    
+    // Liberar las retenciones de un paciente
+    void deleteByPacienteId(String pacienteId);
+}
@@ -0,0 +1,26 @@
+package com.universidad.vitaltech.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import com.universidad.vitaltech.model.Slot;
+
+@Repository
+public interface SlotRepository extends MongoRepository<Slot, String> {
+    
+    // Slots libres de un doctor en un rango de fechas, en orden cronologico
+    @Query(value = "{ 'doctorId': ?0, 'fecha': { $gte: ?1, $lte: ?2 }, 'estado': 'LIBRE' }",
+           sort = "{ 'fecha': 1, 'horaInicio': 1 }")
+    List<Slot> findLibresByDoctorAndRangoFechas(String doctorId, LocalDate desde, LocalDate hasta);
+    
+    // Todos los slots de un doctor en un rango de fechas
+    @Query("{ 'doctorId': ?0, 'fecha': { $gte: ?1, $lte: ?2 } }")
+    List<Slot> findByDoctorAndRangoFechas(String doctorId, LocalDate desde, LocalDate hasta);
+    
+    // Limpiar los slots de fechas pasadas
+    void deleteByFechaBefore(LocalDate fecha);
+}
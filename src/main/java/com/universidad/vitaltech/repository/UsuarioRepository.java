@@ -1,5 +1,6 @@
 package com.universidad.vitaltech.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -7,6 +8,8 @@ import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import com.universidad.vitaltech.dto.UsuarioBasico;
+import com.universidad.vitaltech.dto.UsuarioResumen;
 import com.universidad.vitaltech.model.Rol;
 import com.universidad.vitaltech.model.Usuario;
 
@@ -14,7 +17,7 @@ import com.universidad.vitaltech.model.Usuario;
  * Repositorio para la entidad Usuario
  */
 @Repository
-public interface UsuarioRepository extends MongoRepository<Usuario, String> {
+public interface UsuarioRepository extends MongoRepository<Usuario, String>, UsuarioRepositoryCustom {
     
     // Buscar por username
     Optional<Usuario> findByUsername(String username);
@@ -31,6 +34,19 @@ public interface UsuarioRepository extends MongoRepository<Usuario, String> {
     // Buscar usuarios activos por rol
     List<Usuario> findByRolAndActivoTrue(Rol rol);
     
+    // Datos basicos de varios usuarios en una sola consulta
+    @Query(value = "{ '_id': { $in: ?0 } }", fields = "{ 'nombre': 1, 'apellido': 1, 'numeroDocumento': 1 }")
+    List<UsuarioBasico> findBasicosByIdIn(Collection<String> ids);
+    
+    // Resumen de los usuarios activos de un rol
+    @Query(value = "{ 'rol': ?0, 'activo': true }", fields = UsuarioResumen.CAMPOS)
+    List<UsuarioResumen> findResumenesActivosByRol(Rol rol);
+    
+    // Doctores sin contraseña, dirección ni información médica (directorio en memoria)
+    @Query(value = "{ 'rol': 'DOCTOR' }",
+           fields = "{ 'password': 0, 'direccion': 0, 'informacionMedica': 0, 'clavesBusqueda': 0 }")
+    List<Usuario> findDoctoresParaDirectorio();
+    
     // Buscar doctores activos
     @Query("{ 'rol': 'DOCTOR', 'activo': true }")
     List<Usuario> findDoctoresActivos();
@@ -51,17 +67,4 @@ public interface UsuarioRepository extends MongoRepository<Usuario, String> {
     
     // Verificar si existe documento
     boolean existsByNumeroDocumento(String numeroDocumento);
-    
-    // Buscar por nombre o apellido 
-    @Query("{ $or: [ { 'nombre': { $regex: ?0, $options: 'i' } }, { 'apellido': { $regex: ?0, $options: 'i' } } ] }")
-    List<Usuario> buscarPorNombre(String nombre);
-    
-    //Buscar por nombre apellido correo o numero de documento 
-    @Query("{ $or: [ " +
-            "{ 'nombre': { $regex: ?0, $options: 'i' } }, " +
-            "{ 'apellido': { $regex: ?0, $options: 'i' } }, " +
-            "{ 'email': { $regex: ?0, $options: 'i' } }, " +
-            "{ 'numeroDocumento': { $regex: ?0, $options: 'i' } } " +
-            "] }")
-    List<Usuario> buscarPorNombreCorreoODocumento(String termino);
 }
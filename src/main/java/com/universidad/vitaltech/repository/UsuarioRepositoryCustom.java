@@ -0,0 +1,48 @@
+package com.universidad.vitaltech.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import com.universidad.vitaltech.dto.FiltroUsuarios;
+import com.universidad.vitaltech.dto.UsuarioResumen;
+import com.universidad.vitaltech.model.Rol;
+import com.universidad.vitaltech.model.Usuario;
+
+/**
+ * Consultas de usuarios que no se pueden expresar con métodos derivados
+ */
+public interface UsuarioRepositoryCustom {
+
+    /**
+     * Usuarios cuyo nombre, apellido, correo o documento empiezan por cada palabra
+     * del término (sin distinguir mayúsculas ni tildes)
+     */
+    List<Usuario> buscarPorTermino(String termino);
+
+    /**
+     * Igual que buscarPorTermino pero solo con los campos del resumen
+     *
+     * @param rol Rol al que se restringe la búsqueda (null para todos)
+     */
+    List<UsuarioResumen> buscarResumenesPorTermino(String termino, Rol rol);
+
+    /**
+     * Primeros usuarios activos de un rol para el autocompletado (sin ordenar, en el
+     * orden del indice, para no leer todas las coincidencias)
+     */
+    List<UsuarioResumen> sugerirResumenes(String termino, Rol rol, int limite);
+
+    /**
+     * Página de resúmenes de usuarios que cumplen los filtros.
+     * El total sale de countDocuments con el mismo filtro, o del conteo estimado
+     * de la colección cuando no hay filtros.
+     */
+    Page<UsuarioResumen> buscarResumenes(FiltroUsuarios filtro, Pageable pageable);
+
+    /**
+     * Cantidad de usuarios que cumplen los filtros (estimada si no hay filtros)
+     */
+    long contar(FiltroUsuarios filtro);
+}
@@ -0,0 +1,101 @@
+package com.universidad.vitaltech.repository;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import com.universidad.vitaltech.dto.FiltroUsuarios;
+import com.universidad.vitaltech.dto.UsuarioResumen;
+import com.universidad.vitaltech.model.ClavesBusqueda;
+import com.universidad.vitaltech.model.Rol;
+import com.universidad.vitaltech.model.Usuario;
+
+/**
+ * Implementación de las consultas personalizadas de usuarios
+ */
+class UsuarioRepositoryImpl implements UsuarioRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public List<Usuario> buscarPorTermino(String termino) {
+        return mongoTemplate.find(new Query(criterioTermino(termino)), Usuario.class);
+    }
+
+    @Override
+    public List<UsuarioResumen> buscarResumenesPorTermino(String termino, Rol rol) {
+        Criteria criteria = criterioTermino(termino);
+        if (rol != null) {
+            criteria.and("rol").is(rol);
+        }
+        return mongoTemplate.query(Usuario.class)
+                .as(UsuarioResumen.class)
+                .matching(new Query(criteria))
+                .all();
+    }
+
+    @Override
+    public List<UsuarioResumen> sugerirResumenes(String termino, Rol rol, int limite) {
+        Criteria criteria = criterioTermino(termino).and("rol").is(rol).and("activo").is(true);
+        return mongoTemplate.query(Usuario.class)
+                .as(UsuarioResumen.class)
+                .matching(new Query(criteria).limit(limite))
+                .all();
+    }
+
+    @Override
+    public Page<UsuarioResumen> buscarResumenes(FiltroUsuarios filtro, Pageable pageable) {
+        Query query = new Query(criterios(filtro)).with(pageable);
+
+        // La proyección a UsuarioResumen solo trae los campos del record
+        List<UsuarioResumen> contenido = mongoTemplate.query(Usuario.class)
+                .as(UsuarioResumen.class)
+                .matching(query)
+                .all();
+
+        // Solo se cuenta si la página no basta para deducir el total
+        return PageableExecutionUtils.getPage(contenido, pageable, () -> contar(filtro));
+    }
+
+    @Override
+    public long contar(FiltroUsuarios filtro) {
+        if (filtro.estaVacio()) {
+            return mongoTemplate.estimatedCount(Usuario.class);
+        }
+        return mongoTemplate.count(new Query(criterios(filtro)), Usuario.class);
+    }
+
+    private static Criteria criterios(FiltroUsuarios filtro) {
+        Criteria criteria = new Criteria();
+        if (filtro.rol() != null) {
+            criteria.and("rol").is(filtro.rol());
+        }
+        if (filtro.activo() != null) {
+            criteria.and("activo").is(filtro.activo());
+        }
+        if (filtro.termino() != null) {
+            criteria.andOperator(criterioTermino(filtro.termino()));
+        }
+        return criteria;
+    }
+
+    /**
+     * Cada término debe ser prefijo de alguna clave ($all de regex anclados).
+     * El indice multikey claves_busqueda_idx se recorre con el primer término.
+     */
+    private static Criteria criterioTermino(String termino) {
+        List<String> terminos = ClavesBusqueda.terminos(termino);
+        if (terminos.isEmpty()) {
+            return new Criteria();
+        }
+        return Criteria.where("clavesBusqueda")
+                .all(terminos.stream().map(ClavesBusqueda::prefijo).toArray());
+    }
+}
@@ -1,9 +1,15 @@
 package com.universidad.vitaltech.service;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+import com.universidad.vitaltech.dto.CitaDetalle;
+import com.universidad.vitaltech.dto.PaginaCitas;
+import com.universidad.vitaltech.dto.ResultadoSerie;
+import com.universidad.vitaltech.dto.ResumenCitasPaciente;
 import com.universidad.vitaltech.model.Cita;
 import com.universidad.vitaltech.model.EstadoCita;
 
@@ -13,8 +19,75 @@ import com.universidad.vitaltech.model.EstadoCita;
 public interface CitaService {
     
     Cita guardar(Cita cita);
+
+    /**
+     * Reserva el horario de una cita nueva con una sola escritura.
+     * El indice unico parcial de citas activas rechaza la reserva si otro
+     * paciente ya tomo el mismo doctor, fecha y hora.
+     * La fecha pasa por las mismas reglas del horario del doctor que cada fecha de
+     * {@link #reservarSerie}: no puede haber pasado, ser festivo ni quedar fuera de su plantilla.
+     *
+     * @param cita Cita nueva a reservar; si trae ID se usa ese
+     * @return La cita creada, o vacío si el horario ya estaba tomado
+     * @throws RuntimeException si la fecha u hora no es válida para el doctor
+     */
+    Optional<Cita> reservar(Cita cita);
+
+    /**
+     * Igual que {@link #reservar(Cita)}, pero el personal puede reservar un horario
+     * que otro paciente tiene apartado mientras llena el formulario
+     *
+     * @param ignorarRetenciones true para no respetar las retenciones de otros pacientes
+     */
+    Optional<Cita> reservar(Cita cita, boolean ignorarRetenciones);
+
+    /**
+     * Agenda una serie de citas que se repite cada cierto número de semanas.
+     * Todas las fechas se validan contra los horarios del doctor y contra las citas
+     * existentes con una sola consulta, y las válidas se insertan en una sola escritura.
+     * Cada fecha pasa por las mismas reglas que {@link #reservar(Cita, boolean)}:
+     * retenciones, slots y version de la agenda del dia.
+     * Una fecha con conflicto no impide agendar las demás.
+     *
+     * @param cita Primera cita de la serie (paciente, doctor, horario y motivo)
+     * @param repeticiones Cantidad total de citas de la serie
+     * @param intervaloSemanas Semanas entre una cita y la siguiente (1 = semanal, 2 = quincenal)
+     * @param ignorarRetenciones true para no respetar las retenciones de otros pacientes
+     * @return Citas creadas y conflictos por fecha
+     */
+    ResultadoSerie reservarSerie(Cita cita, int repeticiones, int intervaloSemanas, boolean ignorarRetenciones);
     Optional<Cita> buscarPorId(String id);
     List<Cita> listarTodas();
+
+    /**
+     * Página de citas en orden de fecha y hora, con paginación por cursor
+     *
+     * @param fecha Solo citas de esta fecha (null para todas)
+     * @param estados Solo citas en estos estados (null o vacío para todos)
+     * @param cursor Cursor recibido en la página anterior (null o inválido para la primera)
+     * @param limite Citas por página
+     * @return Las citas y el cursor de la página siguiente
+     */
+    PaginaCitas listarPagina(LocalDate fecha, Collection<EstadoCita> estados, String cursor, int limite);
+
+    /**
+     * Cantidad de citas en alguno de los estados (contadores en memoria, sin consultar Mongo)
+     */
+    long contarPorEstados(Collection<EstadoCita> estados);
+
+    /**
+     * Cantidad de citas de una fecha desde hoy en adelante (contadores en memoria)
+     */
+    long contarPorFecha(LocalDate fecha);
+
+    /**
+     * Próximas citas (desde hoy, sin canceladas, en orden) y conteo por estado de un paciente
+     *
+     * @param pacienteId ID del paciente
+     * @param limiteProximas Cantidad máxima de próximas citas
+     */
+    ResumenCitasPaciente obtenerResumenPaciente(String pacienteId, int limiteProximas);
+
     void eliminar(String id);
     
     // Busquedas por paciente
@@ -40,14 +113,21 @@ public interface CitaService {
     
     // Validaciones
     boolean existeDisponibilidad(String doctorId, LocalDate fecha, String horaInicio);
+
+    /**
+     * Verifica que el intervalo [horaInicio, horaFin) esté libre: dentro de la ventana,
+     * que los slots generados lo cubran y estén LIBRE; más allá, que no se cruce con otra
+     * cita activa del doctor (las citas pueden tener distinta duración)
+     */
+    boolean existeDisponibilidad(String doctorId, LocalDate fecha, LocalTime horaInicio, LocalTime horaFin);
     
     boolean puedeSerAtendida(Cita cita);
     String obtenerMensajeBloqueo(Cita cita);
     
 
-    List<Object> obtenerCitasConDetallesPorPaciente(String pacienteId);
-    List<Object> obtenerCitasConDetallesPorDoctor(String doctorId);
-    List<Object> obtenerCitasConDetallesPorFecha(LocalDate fecha);
+    List<CitaDetalle> obtenerCitasConDetallesPorPaciente(String pacienteId);
+    List<CitaDetalle> obtenerCitasConDetallesPorDoctor(String doctorId);
+    List<CitaDetalle> obtenerCitasConDetallesPorFecha(LocalDate fecha);
     
     // Estadisticas
     long contarCitasPorDoctorYEstado(String doctorId, EstadoCita estado);
@@ -1,6 +1,8 @@
 package com.universidad.vitaltech.service;
 
+import com.universidad.vitaltech.dto.DiagnosticoDetalle;
 import com.universidad.vitaltech.model.Diagnostico;
+import org.springframework.data.domain.Slice;
 
 import java.util.List;
 import java.util.Optional;
@@ -22,14 +24,18 @@ public interface DiagnosticoService {
     List<Diagnostico> listarPorDoctor(String doctorId);
     Optional<Diagnostico> buscarUltimoDiagnosticoPorPaciente(String pacienteId);
     
+    // Búsqueda de texto (español, sin acentos, por relevancia); la página empieza en 0
+    Slice<Diagnostico> buscarPorTextoDelDoctor(String doctorId, String termino, int pagina, int tamano);
+    Slice<Diagnostico> buscarPorTextoDelPaciente(String pacienteId, String termino, int pagina, int tamano);
+    
     // Validaciones
     boolean existeDiagnosticoParaCita(String citaId);
     
     // Queries con lookup
-    Optional<Object> obtenerDiagnosticoConDetalles(String id);
-    List<Object> obtenerDiagnosticosConDetallesPorPaciente(String pacienteId);
-    List<Object> obtenerDiagnosticosConDetallesPorDoctor(String doctorId);
-    Optional<Object> obtenerUltimoDiagnosticoConDetallesPorPaciente(String pacienteId);
+    Optional<DiagnosticoDetalle> obtenerDiagnosticoConDetalles(String id);
+    List<DiagnosticoDetalle> obtenerDiagnosticosConDetallesPorPaciente(String pacienteId);
+    List<DiagnosticoDetalle> obtenerDiagnosticosConDetallesPorDoctor(String doctorId);
+    Optional<DiagnosticoDetalle> obtenerUltimoDiagnosticoConDetallesPorPaciente(String pacienteId);
     
     // Estadísticas
     long contarDiagnosticosPorDoctor(String doctorId);
@@ -0,0 +1,57 @@
+package com.universidad.vitaltech.service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import com.universidad.vitaltech.dto.HorarioLibre;
+
+/**
+ * Interfaz del servicio de disponibilidad de la agenda de los doctores
+ */
+public interface DisponibilidadService {
+
+    /**
+     * Obtiene las horas de inicio libres de un doctor en una fecha
+     * (horarios del doctor menos los que se cruzan con citas ya agendadas
+     * o con horarios apartados por otros pacientes)
+     *
+     * @param doctorId ID del doctor
+     * @param fecha Fecha a consultar
+     * @param pacienteId Paciente que consulta; sus propias retenciones cuentan como libres (puede ser null)
+     * @return Hora de inicio libre y duración de la cita en minutos, ordenadas por hora
+     */
+    Map<LocalTime, Integer> obtenerHorariosLibres(String doctorId, LocalDate fecha, String pacienteId);
+
+    /**
+     * Busca los primeros horarios libres entre todos los doctores de una especialidad
+     *
+     * @param especialidad Especialidad de los doctores
+     * @param desde Primera fecha a considerar
+     * @param hasta Última fecha a considerar (inclusive)
+     * @param limite Cantidad máxima de horarios a devolver
+     * @param pacienteId Paciente que consulta; sus propias retenciones cuentan como libres (puede ser null)
+     * @return Horarios libres en orden cronológico
+     */
+    List<HorarioLibre> buscarPrimerosHorariosLibres(String especialidad, LocalDate desde, LocalDate hasta, int limite,
+            String pacienteId);
+
+    /**
+     * Cuenta los horarios libres de un doctor para cada día de un rango
+     *
+     * @param doctorId ID del doctor
+     * @param desde Primera fecha del rango
+     * @param hasta Última fecha del rango (inclusive)
+     * @param pacienteId Paciente que consulta; sus propias retenciones cuentan como libres (puede ser null)
+     * @return Cantidad de horarios libres por fecha, en orden
+     */
+    Map<LocalDate, Integer> contarHorariosLibresPorDia(String doctorId, LocalDate desde, LocalDate hasta,
+            String pacienteId);
+
+    /**
+     * Etiqueta que cambia cada vez que cambia la agenda del doctor o los horarios que
+     * otros pacientes tienen apartados en el rango (para GET condicional)
+     */
+    String obtenerVersionAgenda(String doctorId, LocalDate desde, LocalDate hasta, String pacienteId);
+}
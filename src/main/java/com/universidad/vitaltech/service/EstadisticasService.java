@@ -0,0 +1,21 @@
+package com.universidad.vitaltech.service;
+
+import com.universidad.vitaltech.dto.EstadisticasCitas;
+import com.universidad.vitaltech.dto.EstadisticasUsuarios;
+
+/**
+ * Interfaz del servicio de estadísticas del sistema
+ * (cada método es una sola agregación; no se cargan documentos en memoria)
+ */
+public interface EstadisticasService {
+
+    /**
+     * Usuarios por rol y estado, y registrados en los últimos 30 días
+     */
+    EstadisticasUsuarios obtenerEstadisticasUsuarios();
+
+    /**
+     * Citas por estado y citas de hoy
+     */
+    EstadisticasCitas obtenerEstadisticasCitas();
+}
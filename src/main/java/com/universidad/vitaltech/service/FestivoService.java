@@ -0,0 +1,33 @@
+package com.universidad.vitaltech.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.universidad.vitaltech.model.DiaFestivo;
+
+/**
+ * Interfaz del servicio de días festivos de la clínica
+ */
+public interface FestivoService {
+
+    /**
+     * Festivos de hoy en adelante, ordenados por fecha
+     */
+    List<DiaFestivo> listarProximos();
+
+    /**
+     * Registra un día festivo. Deja de ofrecerse ese día en la agenda de todos los
+     * doctores; las citas ya agendadas ese día se conservan.
+     */
+    DiaFestivo agregar(DiaFestivo festivo);
+
+    /**
+     * Elimina un día festivo y vuelve a abrir ese día en las agendas
+     */
+    void eliminar(String id);
+
+    /**
+     * Indica si la clínica no atiende en esa fecha
+     */
+    boolean esFestivo(LocalDate fecha);
+}
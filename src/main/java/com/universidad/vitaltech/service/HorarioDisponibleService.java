@@ -6,6 +6,7 @@ import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
 
+import com.universidad.vitaltech.dto.HorarioDetalle;
 import com.universidad.vitaltech.model.HorarioDisponible;
 
 
@@ -20,6 +21,7 @@ public interface HorarioDisponibleService {
     // Busquedas por doctor
     List<HorarioDisponible> listarPorDoctor(String doctorId);
     List<HorarioDisponible> listarActivosPorDoctor(String doctorId);
+    // Primer turno del día; un doctor puede tener varios (ver listarActivosPorDoctorYDia)
     Optional<HorarioDisponible> buscarPorDoctorYDia(String doctorId, DayOfWeek diaSemana);
     
     // Búuquedas por día
@@ -33,6 +35,17 @@ public interface HorarioDisponibleService {
     void cambiarEstado(String id, boolean activo);
     void agregarFechaNoDisponible(String id, LocalDate fecha);
     
+    /**
+     * Marca un rango de fechas como no disponible en todos los horarios del doctor
+     * (vacaciones, permisos). Los rangos que se cruzan se fusionan.
+     * 
+     * @param doctorId ID del doctor
+     * @param desde Primera fecha bloqueada
+     * @param hasta Última fecha bloqueada (inclusive)
+     * @return Cantidad de horarios actualizados
+     */
+    int bloquearRango(String doctorId, LocalDate desde, LocalDate hasta);
+    
     // Generación de horarios
     List<LocalTime> obtenerHorariosDisponibles(String horarioId);
     
@@ -40,9 +53,9 @@ public interface HorarioDisponibleService {
     boolean existeHorarioPorDoctorYDia(String doctorId, DayOfWeek diaSemana);
     
     // Consultas con detalles
-    List<Object> obtenerHorariosActivosConDetalles();
-    List<Object> obtenerHorariosPorDoctorConDetalles(String doctorId);
-    List<Object> obtenerHorariosPorDiaConDetalles(DayOfWeek diaSemana);
+    List<HorarioDetalle> obtenerHorariosActivosConDetalles();
+    List<HorarioDetalle> obtenerHorariosPorDoctorConDetalles(String doctorId);
+    List<HorarioDetalle> obtenerHorariosPorDiaConDetalles(DayOfWeek diaSemana);
     
     // Estadísticas
     long contarHorariosActivosPorDoctor(String doctorId);
@@ -50,7 +63,8 @@ public interface HorarioDisponibleService {
     // validaciones de citas
     
     /**
-     * Obtiene todos los horarios disponibles de un doctor en una fecha específica
+     * Obtiene todos los horarios disponibles de un doctor en una fecha específica,
+     * sumando todos sus turnos de ese día
      * 
      * @param doctorId ID del doctor
      * @param fecha Fecha para la cual se quieren obtener horarios
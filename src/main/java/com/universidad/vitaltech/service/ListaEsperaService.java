@@ -0,0 +1,36 @@
+package com.universidad.vitaltech.service;
+
+import java.util.List;
+import java.util.Optional;
+
+import com.universidad.vitaltech.model.Cita;
+import com.universidad.vitaltech.model.EntradaListaEspera;
+
+/**
+ * Interfaz del servicio de lista de espera
+ */
+public interface ListaEsperaService {
+
+    /**
+     * Inscribe a un paciente en la lista de espera
+     */
+    EntradaListaEspera inscribir(EntradaListaEspera entrada);
+
+    /**
+     * Lista las entradas de un paciente
+     */
+    List<EntradaListaEspera> listarPorPaciente(String pacienteId);
+
+    /**
+     * Sale de la lista de espera (solo si sigue esperando)
+     */
+    void cancelar(String entradaId, String pacienteId);
+
+    /**
+     * Asigna el horario de una cita cancelada al primer paciente en espera que coincida
+     *
+     * @param cancelada Cita cuyo horario quedó libre
+     * @return La cita creada para el paciente en espera, si hubo alguno
+     */
+    Optional<Cita> asignarHorarioLiberado(Cita cancelada);
+}
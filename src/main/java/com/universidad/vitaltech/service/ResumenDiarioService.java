@@ -0,0 +1,54 @@
+package com.universidad.vitaltech.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.universidad.vitaltech.model.Cita;
+import com.universidad.vitaltech.model.EstadoCita;
+import com.universidad.vitaltech.model.ResumenDiarioCitas;
+
+/**
+ * Interfaz del servicio de resúmenes diarios de citas (colección citas_daily_rollup),
+ * la fuente de los reportes por doctor y por rango de fechas
+ */
+public interface ResumenDiarioService {
+
+    /**
+     * Suma las citas recién creadas al resumen de su doctor y día (una escritura)
+     */
+    void citasCreadas(List<Cita> citas);
+
+    /**
+     * Resta una cita borrada de su resumen
+     */
+    void citaEliminada(Cita cita);
+
+    /**
+     * Mueve una cita guardada de nuevo: resta la versión anterior y suma la actual
+     * (pueden ser días o doctores distintos)
+     */
+    void citaModificada(Cita anterior, Cita actual);
+
+    /**
+     * Registra el cambio de estado de una cita que conserva su doctor y horario
+     */
+    void estadoCambiado(Cita cita, EstadoCita estadoAnterior);
+
+    /**
+     * Resúmenes de un doctor entre dos fechas (incluidas), en orden de fecha
+     */
+    List<ResumenDiarioCitas> listarPorDoctor(String doctorId, LocalDate desde, LocalDate hasta);
+
+    /**
+     * Resúmenes de todos los doctores entre dos fechas (incluidas)
+     */
+    List<ResumenDiarioCitas> listarPorRango(LocalDate desde, LocalDate hasta);
+
+    /**
+     * Vuelve a calcular los resúmenes a partir de las citas con una agregación
+     *
+     * @param desde Primera fecha (null para toda la historia)
+     * @param hasta Última fecha (null sin límite)
+     */
+    void reconstruir(LocalDate desde, LocalDate hasta);
+}
@@ -0,0 +1,50 @@
+package com.universidad.vitaltech.service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import com.universidad.vitaltech.model.RetencionHorario;
+
+/**
+ * Interfaz del servicio de retenciones temporales de horarios
+ */
+public interface RetencionHorarioService {
+
+    /**
+     * Aparta un horario para el paciente durante unos minutos. Una retención nueva
+     * reemplaza la que el paciente tuviera en otro horario.
+     *
+     * @return La retención, o vacío si otro paciente ya tiene apartado ese horario
+     */
+    Optional<RetencionHorario> retener(String doctorId, LocalDate fecha, LocalTime horaInicio, LocalTime horaFin,
+            String pacienteId);
+
+    /**
+     * Libera las retenciones del paciente
+     */
+    void liberar(String pacienteId);
+
+    /**
+     * Retenciones vigentes de otros pacientes en un día del doctor
+     *
+     * @param pacienteId Paciente cuyas retenciones no se cuentan (puede ser null)
+     */
+    List<RetencionHorario> listarRetenidosPorOtros(String doctorId, LocalDate fecha, String pacienteId);
+
+    /**
+     * Retenciones vigentes de otros pacientes para varios doctores en un rango de fechas
+     *
+     * @param pacienteId Paciente cuyas retenciones no se cuentan (puede ser null)
+     */
+    List<RetencionHorario> listarRetenidosPorOtros(Collection<String> doctorIds, LocalDate desde, LocalDate hasta,
+            String pacienteId);
+
+    /**
+     * Indica si [horaInicio, horaFin) se cruza con un horario apartado por otro paciente
+     */
+    boolean estaRetenidoPorOtro(String doctorId, LocalDate fecha, LocalTime horaInicio, LocalTime horaFin,
+            String pacienteId);
+}
@@ -0,0 +1,77 @@
+package com.universidad.vitaltech.service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.List;
+
+import com.universidad.vitaltech.model.Cita;
+import com.universidad.vitaltech.model.RetencionHorario;
+import com.universidad.vitaltech.model.Slot;
+
+/**
+ * Interfaz del servicio del inventario de slots (horarios ya generados)
+ */
+public interface SlotService {
+
+    /**
+     * Vuelve a generar los slots de un doctor dentro de la ventana, a partir de sus
+     * horarios activos. Los slots reservados por citas se conservan.
+     *
+     * @param doctorId ID del doctor
+     */
+    void regenerarAgenda(String doctorId);
+
+    /**
+     * Genera la ventana completa para todos los doctores con horarios activos
+     * y descarta los slots de fechas pasadas
+     */
+    void regenerarVentana();
+
+    /**
+     * Pasa de LIBRE a RESERVADO todos los slots que toca la cita; si alguno ya
+     * estaba tomado no queda ninguno reservado
+     *
+     * @param cita Cita con ID, doctor y horario
+     * @return false si algún slot ya estaba tomado o si la cita no calza en los
+     *         slots generados; true si se reservaron o si la fecha está fuera de la
+     *         ventana (ahí no hay slots)
+     */
+    boolean reservar(Cita cita);
+
+    /**
+     * Devuelve a LIBRE los slots reservados por la cita
+     */
+    void liberar(Cita cita);
+
+    /**
+     * Ajusta los slots al estado actual de una cita (nueva, modificada o cancelada)
+     */
+    void sincronizarCita(Cita cita);
+
+    /**
+     * Slots libres de varios doctores en un rango de fechas, en orden cronológico,
+     * sin las horas que ya pasaron
+     *
+     * @param retenidos Horarios apartados; los slots que se cruzan con ellos no se devuelven
+     * @param limite Cantidad máxima de slots (0 = sin límite)
+     */
+    List<Slot> buscarLibres(Collection<String> doctorIds, LocalDate desde, LocalDate hasta,
+            Collection<RetencionHorario> retenidos, int limite);
+
+    /**
+     * Indica si los slots generados cubren [horaInicio, horaFin) y todos estan libres
+     */
+    boolean estanLibres(String doctorId, LocalDate fecha, LocalTime horaInicio, LocalTime horaFin);
+
+    /**
+     * Elimina los slots libres de todos los doctores en una fecha (día festivo).
+     * Los reservados se conservan.
+     */
+    void descartarLibres(LocalDate fecha);
+
+    /**
+     * Última fecha para la que hay slots generados
+     */
+    LocalDate obtenerFinVentana();
+}
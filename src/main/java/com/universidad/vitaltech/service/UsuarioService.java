@@ -1,8 +1,15 @@
 package com.universidad.vitaltech.service;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+import org.springframework.data.domain.Page;
+
+import com.universidad.vitaltech.dto.FiltroUsuarios;
+import com.universidad.vitaltech.dto.UsuarioBasico;
+import com.universidad.vitaltech.dto.UsuarioResumen;
 import com.universidad.vitaltech.model.Rol;
 import com.universidad.vitaltech.model.Usuario;
 
@@ -13,10 +20,45 @@ public interface UsuarioService {
     
     List<Usuario> buscarPorTermino(String termino);
     
+    /**
+     * Busca por nombre, apellido, correo o documento devolviendo solo el resumen
+     * 
+     * @param rol Rol al que se restringe la búsqueda (null para todos)
+     */
+    List<UsuarioResumen> buscarResumenesPorTermino(String termino, Rol rol);
+    
+    /**
+     * Autocompletado de pacientes activos: primeros resultados para un prefijo
+     * 
+     * @return Hasta limite pacientes (vacío si el término tiene menos de 2 caracteres)
+     */
+    List<UsuarioResumen> sugerirPacientes(String termino, int limite);
+    
     // CRUD básico
     Usuario guardar(Usuario usuario);
     Optional<Usuario> buscarPorId(String id);
     List<Usuario> listarTodos();
+    
+    /**
+     * Página de la lista de usuarios del administrador (sin contraseña, dirección ni información médica)
+     * 
+     * @param pagina Número de página, desde 0
+     * @param tamano Usuarios por página (se ajusta a 1-100)
+     * @param orden apellido, documento, email, rol o registro (otro valor ordena por apellido)
+     */
+    Page<UsuarioResumen> listarResumenes(FiltroUsuarios filtro, int pagina, int tamano, String orden,
+            boolean ascendente);
+    
+    /**
+     * Cantidad de usuarios que cumplen los filtros (estimada si no hay filtros)
+     */
+    long contarUsuarios(FiltroUsuarios filtro);
+    
+    /**
+     * Cantidad de pacientes activos (contador en memoria, sin consultar Mongo)
+     */
+    long contarPacientesActivos();
+
     void eliminar(String id);
     
     // Búsquedas específicas
@@ -26,8 +68,28 @@ public interface UsuarioService {
     
     // Búsquedas por rol
     List<Usuario> listarPorRol(Rol rol);
-    List<Usuario> listarDoctoresActivos();
-    List<Usuario> listarPacientesActivos();
+    List<UsuarioResumen> listarDoctoresActivos();
+    
+    /**
+     * Busca un doctor en el directorio en memoria (solo lectura; para modificarlo usar buscarPorId)
+     */
+    Optional<Usuario> buscarDoctor(String doctorId);
+    
+    /**
+     * Nombres completos de varios doctores sin consultar Mongo por cada uno
+     * 
+     * @return doctorId -> nombre completo
+     */
+    Map<String, String> obtenerNombresDoctores(Collection<String> doctorIds);
+    
+    /**
+     * Nombre y documento de varios usuarios con una sola consulta. Dentro de una
+     * petición web los resultados se reutilizan hasta que termina.
+     * 
+     * @return id -> datos básicos (los ids inexistentes se omiten)
+     */
+    Map<String, UsuarioBasico> cargarBasicos(Collection<String> ids);
+    List<UsuarioResumen> listarPacientesActivos();
     List<Usuario> listarDoctoresPorEspecialidad(String especialidad);
     
     // Validaciones
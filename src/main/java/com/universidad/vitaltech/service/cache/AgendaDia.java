@@ -0,0 +1,189 @@
+package com.universidad.vitaltech.service.cache;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+
+import com.universidad.vitaltech.model.HorarioDisponible;
+import com.universidad.vitaltech.model.embedded.RangoFechas;
+
+/**
+ * Linea de tiempo de un doctor en un dia de la semana, armada con todos sus
+ * horarios activos de ese dia (turno de mañana, de tarde, etc.).
+ * Guarda los turnos fusionados en tramos continuos y las horas de inicio de
+ * todos los turnos, en minutos del dia y ordenadas, de modo que validar una
+ * hora es una busqueda binaria sin crear objetos. Es inmutable.
+ */
+public final class AgendaDia {
+
+    static final AgendaDia VACIA = new AgendaDia(List.of());
+
+    private final Turno[] turnos;
+
+    // Tramos continuos de atencion (turnos que se cruzan o se tocan quedan en uno)
+    private final int[] tramoInicio;
+    private final int[] tramoFin;
+
+    // Horas de inicio de los slots de todos los turnos, sin repetir, y su duracion
+    private final int[] horas;
+    private final int[] duraciones;
+
+    // Algun turno tiene fechas no disponibles; solo entonces hay que revisarlas
+    private final boolean conExcepciones;
+
+    private record Turno(int inicio, int fin, int duracion, List<RangoFechas> excepciones) {
+
+        boolean bloqueadoEn(LocalDate fecha) {
+            return RangoFechas.algunoContiene(excepciones, fecha);
+        }
+
+        boolean ofrece(int minuto) {
+            return minuto >= inicio && minuto + duracion <= fin && (minuto - inicio) % duracion == 0;
+        }
+    }
+
+    AgendaDia(List<HorarioDisponible> horarios) {
+        List<Turno> validos = new ArrayList<>();
+        for (HorarioDisponible horario : horarios) {
+            if (horario.validarHorario() && horario.getDuracionCita() != null && horario.getDuracionCita() > 0) {
+                validos.add(new Turno(minutoDelDia(horario.getHoraInicio()), minutoDelDia(horario.getHoraFin()),
+                        horario.getDuracionCita(), horario.getRangosNoDisponibles()));
+            }
+        }
+        validos.sort(Comparator.comparingInt(Turno::inicio));
+        turnos = validos.toArray(new Turno[0]);
+        conExcepciones = validos.stream().anyMatch(turno -> turno.excepciones() != null && !turno.excepciones().isEmpty());
+
+        int[][] tramos = fusionarTramos(turnos);
+        tramoInicio = tramos[0];
+        tramoFin = tramos[1];
+
+        // El primer turno (por hora de inicio) que ofrece una hora define su duracion
+        TreeMap<Integer, Integer> slots = new TreeMap<>();
+        for (Turno turno : turnos) {
+            for (int minuto = turno.inicio(); minuto + turno.duracion() <= turno.fin(); minuto += turno.duracion()) {
+                slots.putIfAbsent(minuto, turno.duracion());
+            }
+        }
+        horas = slots.keySet().stream().mapToInt(Integer::intValue).toArray();
+        duraciones = slots.values().stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    public boolean estaVacia() {
+        return turnos.length == 0;
+    }
+
+    /**
+     * Indica si alguno de los turnos ofrece un slot que empieza a esa hora en la fecha
+     */
+    public boolean ofreceHora(LocalDate fecha, LocalTime hora) {
+        int minuto = minutoDelDia(hora);
+        if (!hayBloqueos(fecha)) {
+            return Arrays.binarySearch(horas, minuto) >= 0;
+        }
+        for (Turno turno : turnos) {
+            if (!turno.bloqueadoEn(fecha) && turno.ofrece(minuto)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Indica si [horaInicio, horaFin] queda dentro del horario de atencion de la fecha
+     */
+    public boolean cubre(LocalDate fecha, LocalTime horaInicio, LocalTime horaFin) {
+        int inicio = minutoDelDia(horaInicio);
+        int fin = minutoDelDia(horaFin);
+        if (!hayBloqueos(fecha)) {
+            // Ultimo tramo que empieza en o antes del inicio
+            int posicion = Arrays.binarySearch(tramoInicio, inicio);
+            if (posicion < 0) {
+                posicion = -posicion - 2;
+            }
+            return posicion >= 0 && fin <= tramoFin[posicion];
+        }
+
+        // Con turnos bloqueados se fusionan al vuelo los que siguen disponibles
+        int actualInicio = -1;
+        int actualFin = -1;
+        for (Turno turno : turnos) {
+            if (turno.bloqueadoEn(fecha)) {
+                continue;
+            }
+            if (turno.inicio() > actualFin) {
+                if (actualInicio >= 0 && actualInicio <= inicio && fin <= actualFin) {
+                    return true;
+                }
+                actualInicio = turno.inicio();
+            }
+            actualFin = Math.max(actualFin, turno.fin());
+        }
+        return actualInicio >= 0 && actualInicio <= inicio && fin <= actualFin;
+    }
+
+    /**
+     * Horas de inicio de la fecha con la duracion de cada cita, ordenadas
+     */
+    public TreeMap<LocalTime, Integer> horasDelDia(LocalDate fecha) {
+        TreeMap<LocalTime, Integer> resultado = new TreeMap<>();
+        if (!hayBloqueos(fecha)) {
+            for (int i = 0; i < horas.length; i++) {
+                resultado.put(aHora(horas[i]), duraciones[i]);
+            }
+            return resultado;
+        }
+        for (Turno turno : turnos) {
+            if (turno.bloqueadoEn(fecha)) {
+                continue;
+            }
+            for (int minuto = turno.inicio(); minuto + turno.duracion() <= turno.fin(); minuto += turno.duracion()) {
+                resultado.putIfAbsent(aHora(minuto), turno.duracion());
+            }
+        }
+        return resultado;
+    }
+
+    private boolean hayBloqueos(LocalDate fecha) {
+        if (!conExcepciones) {
+            return false;
+        }
+        for (Turno turno : turnos) {
+            if (turno.bloqueadoEn(fecha)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int[][] fusionarTramos(Turno[] turnos) {
+        List<int[]> tramos = new ArrayList<>();
+        for (Turno turno : turnos) {
+            int[] ultimo = tramos.isEmpty() ? null : tramos.get(tramos.size() - 1);
+            if (ultimo != null && turno.inicio() <= ultimo[1]) {
+                ultimo[1] = Math.max(ultimo[1], turno.fin());
+            } else {
+                tramos.add(new int[] { turno.inicio(), turno.fin() });
+            }
+        }
+        int[] inicios = new int[tramos.size()];
+        int[] fines = new int[tramos.size()];
+        for (int i = 0; i < tramos.size(); i++) {
+            inicios[i] = tramos.get(i)[0];
+            fines[i] = tramos.get(i)[1];
+        }
+        return new int[][] { inicios, fines };
+    }
+
+    private static int minutoDelDia(LocalTime hora) {
+        return hora.getHour() * 60 + hora.getMinute();
+    }
+
+    private static LocalTime aHora(int minuto) {
+        return LocalTime.of(minuto / 60, minuto % 60);
+    }
+}
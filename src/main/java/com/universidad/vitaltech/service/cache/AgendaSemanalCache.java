@@ -0,0 +1,73 @@
+package com.universidad.vitaltech.service.cache;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.universidad.vitaltech.model.HorarioDisponible;
+import com.universidad.vitaltech.repository.HorarioDisponibleRepository;
+
+/**
+ * Lineas de tiempo semanales de los doctores en memoria.
+ * Por cada doctor se leen sus horarios activos en una sola consulta y se arma
+ * una AgendaDia por dia de la semana. Se invalida desde HorarioDisponibleServiceImpl
+ * y vence a los app.agenda.indice.ttl-segundos (cambios de otros nodos).
+ */
+@Component
+public class AgendaSemanalCache {
+
+    @Value("${app.agenda.indice.ttl-segundos:300}")
+    private long ttlSegundos = 300;
+
+    @Autowired
+    private HorarioDisponibleRepository horarioDisponibleRepository;
+
+    // doctorId -> agenda de la semana
+    private final Map<String, AgendaSemana> agendas = new ConcurrentHashMap<>();
+
+    private record AgendaSemana(Map<DayOfWeek, AgendaDia> dias, long cargadoEn) {
+
+        boolean expirada(long ttlSegundos) {
+            return System.currentTimeMillis() - cargadoEn > ttlSegundos * 1000;
+        }
+    }
+
+    /**
+     * Linea de tiempo del doctor para ese dia de la semana (vacia si no atiende)
+     */
+    public AgendaDia obtener(String doctorId, DayOfWeek dia) {
+        AgendaSemana semana = agendas.get(doctorId);
+        if (semana == null || semana.expirada(ttlSegundos)) {
+            semana = agendas.compute(doctorId, (id, actual) -> actual != null && !actual.expirada(ttlSegundos)
+                    ? actual
+                    : cargar(id));
+        }
+        return semana.dias().getOrDefault(dia, AgendaDia.VACIA);
+    }
+
+    /**
+     * Descarta la agenda cargada de un doctor
+     */
+    public void invalidar(String doctorId) {
+        agendas.remove(doctorId);
+    }
+
+    private AgendaSemana cargar(String doctorId) {
+        Map<DayOfWeek, List<HorarioDisponible>> porDia = new EnumMap<>(DayOfWeek.class);
+        for (HorarioDisponible horario : horarioDisponibleRepository.findByDoctorIdAndActivoTrue(doctorId)) {
+            if (horario.getDiaSemana() != null) {
+                porDia.computeIfAbsent(horario.getDiaSemana(), dia -> new ArrayList<>()).add(horario);
+            }
+        }
+        Map<DayOfWeek, AgendaDia> dias = new EnumMap<>(DayOfWeek.class);
+        porDia.forEach((dia, horarios) -> dias.put(dia, new AgendaDia(horarios)));
+        return new AgendaSemana(dias, System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,58 @@
+package com.universidad.vitaltech.service.cache;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.universidad.vitaltech.model.DiaFestivo;
+import com.universidad.vitaltech.repository.DiaFestivoRepository;
+
+/**
+ * Fechas festivas de la clinica en memoria, ordenadas.
+ * Se consulta en cada dia que se expande de un horario, por eso no va a Mongo:
+ * el conjunto se recarga cuando cambia un festivo o cuando vence el TTL
+ * (cambios hechos por otros nodos).
+ */
+@Component
+public class CalendarioFestivos {
+
+    @Value("${app.agenda.indice.ttl-segundos:300}")
+    private long ttlSegundos = 300;
+
+    @Autowired
+    private DiaFestivoRepository diaFestivoRepository;
+
+    private volatile NavigableSet<LocalDate> fechas;
+    private volatile long cargadoEn;
+
+    public boolean esFestivo(LocalDate fecha) {
+        return obtenerFechas().contains(fecha);
+    }
+
+    /**
+     * Descarta lo cargado; la siguiente consulta vuelve a leer de Mongo
+     */
+    public void invalidar() {
+        fechas = null;
+    }
+
+    private NavigableSet<LocalDate> obtenerFechas() {
+        NavigableSet<LocalDate> actuales = fechas;
+        if (actuales != null && System.currentTimeMillis() - cargadoEn < ttlSegundos * 1000) {
+            return actuales;
+        }
+        TreeSet<LocalDate> cargadas = new TreeSet<>();
+        for (DiaFestivo festivo : diaFestivoRepository.findAll()) {
+            cargadas.add(festivo.getFecha());
+        }
+        actuales = Collections.unmodifiableNavigableSet(cargadas);
+        cargadoEn = System.currentTimeMillis();
+        fechas = actuales;
+        return actuales;
+    }
+}
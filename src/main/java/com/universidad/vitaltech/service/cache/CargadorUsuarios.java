@@ -0,0 +1,81 @@
+package com.universidad.vitaltech.service.cache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.annotation.RequestScope;
+
+import com.universidad.vitaltech.dto.UsuarioBasico;
+import com.universidad.vitaltech.repository.UsuarioRepository;
+
+/**
+ * Cargador de usuarios por petición.
+ * Se registran los ids que se van a mostrar y, al pedir los datos, todos los
+ * pendientes se resuelven con una sola consulta $in que trae solo nombre,
+ * apellido y documento. Lo ya cargado se reutiliza durante el resto de la petición.
+ * Las consultas paralelas de una misma petición comparten la instancia; el candado
+ * es un ReentrantLock para no fijar el hilo virtual mientras se consulta Mongo.
+ */
+@Component
+@RequestScope
+public class CargadorUsuarios {
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    private final Set<String> pendientes = new HashSet<>();
+    private final Map<String, UsuarioBasico> cargados = new HashMap<>();
+    private final ReentrantLock candado = new ReentrantLock();
+
+    /**
+     * Registra ids para la siguiente consulta
+     */
+    public void solicitar(Collection<String> ids) {
+        candado.lock();
+        try {
+            for (String id : ids) {
+                if (id != null && !cargados.containsKey(id)) {
+                    pendientes.add(id);
+                }
+            }
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    /**
+     * Datos de los usuarios pedidos (los que no existen se omiten)
+     */
+    public Map<String, UsuarioBasico> obtener(Collection<String> ids) {
+        candado.lock();
+        try {
+            solicitar(ids);
+            despachar();
+
+            Map<String, UsuarioBasico> resultado = new HashMap<>();
+            for (String id : ids) {
+                UsuarioBasico usuario = id != null ? cargados.get(id) : null;
+                if (usuario != null) {
+                    resultado.put(id, usuario);
+                }
+            }
+            return resultado;
+        } finally {
+            candado.unlock();
+        }
+    }
+
+    private void despachar() {
+        if (pendientes.isEmpty()) {
+            return;
+        }
+        usuarioRepository.findBasicosByIdIn(pendientes).forEach(usuario -> cargados.put(usuario.id(), usuario));
+        pendientes.clear();
+    }
+}
@@ -0,0 +1,218 @@
+package com.universidad.vitaltech.service.cache;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.universidad.vitaltech.model.Cita;
+import com.universidad.vitaltech.model.EstadoCita;
+import com.universidad.vitaltech.model.Rol;
+import com.universidad.vitaltech.model.Usuario;
+
+/**
+ * Contadores en memoria de citas por fecha y por estado y de pacientes activos.
+ * Los servicios los ajustan en cada cambio (LongAdder reparte las sumas entre
+ * celdas, asi que los hilos no compiten por un mismo valor) y cada cierto tiempo
+ * se comparan con los conteos de Mongo para corregir lo escrito por otros nodos
+ * o directamente en la base. Leerlos no hace consultas.
+ * Son aproximados: entre la escritura en Mongo y el ajuste del contador un cambio
+ * puede contarse dos veces o ninguna si coincide con una reconciliacion, y la
+ * siguiente reconciliacion lo corrige.
+ */
+@Component
+public class ContadoresVivos {
+
+    private static final Logger log = LoggerFactory.getLogger(ContadoresVivos.class);
+
+    // Conteos seguidos con cambios concurrentes antes de igualar con el ultimo
+    private static final int INTENTOS_CONTEO = 3;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    // Zona con la que se decide que fecha es hoy, la misma de las citas
+    @Value("${app.timezone:America/Bogota}")
+    private String appTimezone = "America/Bogota";
+
+    // Cambios registrados por este nodo; si avanzan mientras se cuenta en Mongo, no se iguala
+    private final AtomicLong cambiosCitas = new AtomicLong();
+    private final AtomicLong cambiosPacientes = new AtomicLong();
+
+    // Solo fechas desde hoy; las pasadas se descartan al reconciliar
+    private final Map<LocalDate, LongAdder> citasPorFecha = new ConcurrentHashMap<>();
+
+    // Se llena una vez en el constructor y despues solo se leen las claves
+    private final Map<EstadoCita, LongAdder> citasPorEstado = new EnumMap<>(EstadoCita.class);
+
+    private final LongAdder pacientesActivos = new LongAdder();
+
+    public ContadoresVivos() {
+        for (EstadoCita estado : EstadoCita.values()) {
+            citasPorEstado.put(estado, new LongAdder());
+        }
+    }
+
+    public long citasDeFecha(LocalDate fecha) {
+        LongAdder contador = citasPorFecha.get(fecha);
+        return contador != null ? Math.max(contador.sum(), 0) : 0;
+    }
+
+    public long citasEnEstados(Collection<EstadoCita> estados) {
+        return estados.stream().mapToLong(estado -> Math.max(citasPorEstado.get(estado).sum(), 0)).sum();
+    }
+
+    public long pacientesActivos() {
+        return Math.max(pacientesActivos.sum(), 0);
+    }
+
+    /**
+     * Registra una cita nueva
+     */
+    public void citaCreada(Cita cita) {
+        ajustarCita(cita.getHorario() != null ? cita.getHorario().getFecha() : null, cita.getEstado(), 1);
+    }
+
+    /**
+     * Registra una cita borrada
+     */
+    public void citaEliminada(Cita cita) {
+        ajustarCita(cita.getHorario() != null ? cita.getHorario().getFecha() : null, cita.getEstado(), -1);
+    }
+
+    /**
+     * Registra un cambio de fecha o de estado de una cita existente
+     */
+    public void citaModificada(LocalDate fechaAnterior, EstadoCita estadoAnterior, Cita actual) {
+        ajustarCita(fechaAnterior, estadoAnterior, -1);
+        citaCreada(actual);
+    }
+
+    /**
+     * Registra el paso de un usuario de (no) ser paciente activo a (no) serlo
+     */
+    public void pacienteModificado(boolean eraPacienteActivo, boolean esPacienteActivo) {
+        if (eraPacienteActivo != esPacienteActivo) {
+            pacientesActivos.add(esPacienteActivo ? 1 : -1);
+            cambiosPacientes.incrementAndGet();
+        }
+    }
+
+    public static boolean esPacienteActivo(Usuario usuario) {
+        return usuario != null && usuario.getRol() == Rol.PACIENTE && usuario.isActivo();
+    }
+
+    private void ajustarCita(LocalDate fecha, EstadoCita estado, long delta) {
+        if (fecha != null && !fecha.isBefore(hoy())) {
+            citasPorFecha.computeIfAbsent(fecha, dia -> new LongAdder()).add(delta);
+        }
+        if (estado != null) {
+            citasPorEstado.get(estado).add(delta);
+        }
+        cambiosCitas.incrementAndGet();
+    }
+
+    private LocalDate hoy() {
+        return LocalDate.now(ZoneId.of(appTimezone));
+    }
+
+    /**
+     * Iguala los contadores con los conteos de Mongo. Cada conteo usa un indice
+     * (estado_fecha_hora_id_idx, fecha_hora_id_idx y rol_activo_apellido_idx).
+     * Si este nodo registro algun cambio mientras se contaba, el conteo puede o no
+     * incluirlo, asi que se vuelve a contar. Con escrituras continuas se iguala con el
+     * ultimo conteo tras INTENTOS_CONTEO intentos: el error queda limitado a los cambios
+     * de ese ultimo conteo, en lugar de no reconciliar nunca.
+     */
+    @Scheduled(fixedDelayString = "${app.contadores.reconciliar-ms:300000}",
+            initialDelayString = "${app.contadores.reconciliar-ms:300000}")
+    public void reconciliar() {
+        LocalDate hoy = hoy();
+        citasPorFecha.keySet().removeIf(fecha -> fecha.isBefore(hoy));
+
+        for (int intento = 1; ; intento++) {
+            long cambiosAntes = cambiosCitas.get();
+            Map<EstadoCita, Long> porEstado = new EnumMap<>(EstadoCita.class);
+            for (EstadoCita estado : EstadoCita.values()) {
+                porEstado.put(estado, mongoTemplate.count(new Query(Criteria.where("estado").is(estado)),
+                        Cita.class));
+            }
+            Map<LocalDate, Long> porFecha = contarCitasDesde(hoy);
+            if (cambiosCitas.get() != cambiosAntes && intento < INTENTOS_CONTEO) {
+                continue;
+            }
+            if (cambiosCitas.get() != cambiosAntes) {
+                log.debug("Citas modificadas en {} conteos seguidos, se igualan con el ultimo", intento);
+            }
+            porEstado.forEach((estado, real) -> igualar(citasPorEstado.get(estado), real));
+            citasPorFecha.forEach((fecha, contador) -> igualar(contador, porFecha.getOrDefault(fecha, 0L)));
+            porFecha.forEach((fecha, real) -> igualar(citasPorFecha.computeIfAbsent(fecha, dia -> new LongAdder()),
+                    real));
+            break;
+        }
+
+        for (int intento = 1; ; intento++) {
+            long pacientesAntes = cambiosPacientes.get();
+            long realPacientes = mongoTemplate.count(new Query(Criteria.where("rol").is(Rol.PACIENTE)
+                    .and("activo").is(true)), Usuario.class);
+            if (cambiosPacientes.get() == pacientesAntes || intento == INTENTOS_CONTEO) {
+                igualar(pacientesActivos, realPacientes);
+                break;
+            }
+        }
+
+        log.debug("Contadores reconciliados: {} fechas, {} pacientes activos", citasPorFecha.size(),
+                pacientesActivos.sum());
+    }
+
+    /**
+     * Carga los contadores al arrancar (despues de DataLoader, que guarda directamente)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarAlIniciar() {
+        try {
+            reconciliar();
+        } catch (Exception e) {
+            log.warn("No se pudieron cargar los contadores: {}", e.getMessage());
+        }
+    }
+
+    private Map<LocalDate, Long> contarCitasDesde(LocalDate desde) {
+        MongoConverter converter = mongoTemplate.getConverter();
+        Map<LocalDate, Long> porFecha = new HashMap<>();
+        for (Document grupo : mongoTemplate.aggregate(newAggregation(Cita.class,
+                match(Criteria.where("horario.fecha").gte(desde)),
+                group("horario.fecha").count().as("cantidad")), Document.class)) {
+            LocalDate fecha = converter.getConversionService().convert(grupo.get("_id"), LocalDate.class);
+            porFecha.put(fecha, grupo.get("cantidad", Number.class).longValue());
+        }
+        return porFecha;
+    }
+
+    private static void igualar(LongAdder contador, long real) {
+        contador.add(real - contador.sum());
+    }
+}
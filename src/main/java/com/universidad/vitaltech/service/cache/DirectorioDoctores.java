@@ -0,0 +1,150 @@
+package com.universidad.vitaltech.service.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.universidad.vitaltech.model.Usuario;
+import com.universidad.vitaltech.repository.UsuarioRepository;
+
+/**
+ * Directorio de doctores en memoria, por id y por especialidad.
+ * Los doctores son pocos y cambian poco: se leen todos en una sola consulta y
+ * se descartan cuando UsuarioServiceImpl modifica un usuario o cuando vence el TTL
+ * (cambios hechos por otros nodos). Si hay mas doctores que el maximo configurado
+ * no se guarda nada y las consultas van a Mongo.
+ * Los Usuario devueltos son compartidos, solo deben leerse.
+ */
+@Component
+public class DirectorioDoctores {
+
+    private static final Logger log = LoggerFactory.getLogger(DirectorioDoctores.class);
+
+    @Value("${app.directorio.ttl-segundos:600}")
+    private long ttlSegundos = 600;
+
+    @Value("${app.directorio.maximo-doctores:2000}")
+    private int maximoDoctores = 2000;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    private volatile Directorio directorio;
+
+    // Cambia con cada invalidación; una carga que empezo antes no se publica
+    private final AtomicLong generacion = new AtomicLong();
+
+    // Mientras no venza, no se intenta cargar (hay demasiados doctores)
+    private volatile long excedidoHasta;
+
+    private record Directorio(Map<String, Usuario> porId, List<Usuario> activos,
+            Map<String, List<Usuario>> activosPorEspecialidad, long cargadoEn) {
+    }
+
+    /**
+     * Doctor (activo o no) por id
+     */
+    public Optional<Usuario> buscar(String doctorId) {
+        if (doctorId == null) {
+            return Optional.empty();
+        }
+        Directorio actual = obtener();
+        if (actual == null) {
+            return usuarioRepository.findById(doctorId).filter(Usuario::esDoctor);
+        }
+        return Optional.ofNullable(actual.porId().get(doctorId));
+    }
+
+    /**
+     * Nombre completo de cada doctor de la lista (los que no existen se omiten)
+     */
+    public Map<String, String> nombres(Collection<String> doctorIds) {
+        Map<String, String> nombres = new HashMap<>();
+        Directorio actual = obtener();
+        if (actual == null) {
+            usuarioRepository.findAllById(doctorIds)
+                    .forEach(doctor -> nombres.put(doctor.getId(), doctor.getNombreCompleto()));
+            return nombres;
+        }
+        for (String doctorId : doctorIds) {
+            Usuario doctor = doctorId != null ? actual.porId().get(doctorId) : null;
+            if (doctor != null) {
+                nombres.put(doctorId, doctor.getNombreCompleto());
+            }
+        }
+        return nombres;
+    }
+
+    public List<Usuario> listarActivos() {
+        Directorio actual = obtener();
+        return actual != null ? actual.activos() : usuarioRepository.findDoctoresActivos();
+    }
+
+    public List<Usuario> listarActivosPorEspecialidad(String especialidad) {
+        Directorio actual = obtener();
+        if (actual == null) {
+            return usuarioRepository.findDoctoresByEspecialidad(especialidad);
+        }
+        return actual.activosPorEspecialidad().getOrDefault(especialidad, List.of());
+    }
+
+    /**
+     * Descarta el directorio; la siguiente consulta lo vuelve a leer de Mongo
+     */
+    public void invalidar() {
+        generacion.incrementAndGet();
+        directorio = null;
+    }
+
+    private Directorio obtener() {
+        Directorio actual = directorio;
+        if (actual != null && System.currentTimeMillis() - actual.cargadoEn() < ttlSegundos * 1000) {
+            return actual;
+        }
+        if (System.currentTimeMillis() < excedidoHasta) {
+            return null;
+        }
+
+        long generacionCarga = generacion.get();
+        List<Usuario> doctores = usuarioRepository.findDoctoresParaDirectorio();
+        if (doctores.size() > maximoDoctores) {
+            log.warn("{} doctores superan el maximo del directorio ({}), se consultara Mongo",
+                    doctores.size(), maximoDoctores);
+            excedidoHasta = System.currentTimeMillis() + ttlSegundos * 1000;
+            return null;
+        }
+
+        Map<String, Usuario> porId = new LinkedHashMap<>();
+        List<Usuario> activos = new ArrayList<>();
+        Map<String, List<Usuario>> porEspecialidad = new HashMap<>();
+        for (Usuario doctor : doctores) {
+            porId.put(doctor.getId(), doctor);
+            if (doctor.isActivo()) {
+                activos.add(doctor);
+                if (doctor.getEspecialidad() != null) {
+                    porEspecialidad.computeIfAbsent(doctor.getEspecialidad(), e -> new ArrayList<>()).add(doctor);
+                }
+            }
+        }
+        porEspecialidad.replaceAll((especialidad, lista) -> Collections.unmodifiableList(lista));
+
+        actual = new Directorio(Collections.unmodifiableMap(porId), Collections.unmodifiableList(activos),
+                Collections.unmodifiableMap(porEspecialidad), System.currentTimeMillis());
+        if (generacion.get() == generacionCarga) {
+            directorio = actual;
+        }
+        return actual;
+    }
+}
@@ -0,0 +1,92 @@
+package com.universidad.vitaltech.service.cache;
+
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Intervalos [inicio, fin) ocupados por las citas de un doctor en un dia,
+ * en minutos del dia. Se guardan ordenados por inicio junto con el mayor fin
+ * acumulado, asi saber si un horario se cruza con alguna cita es una busqueda
+ * binaria sin importar cuantas citas tenga el dia.
+ */
+public class IntervalosOcupados {
+
+    private final Map<String, int[]> intervaloPorCita = new HashMap<>();
+
+    // Inicios ordenados y, para cada posicion, el mayor fin de las citas hasta ahi
+    private int[] inicios = new int[0];
+    private int[] finMaximo = new int[0];
+
+    /**
+     * Agrega (o reemplaza) el intervalo ocupado por una cita
+     */
+    public synchronized void agregar(String citaId, LocalTime horaInicio, LocalTime horaFin) {
+        int inicio = minutoDelDia(horaInicio);
+        intervaloPorCita.put(citaId, new int[] { inicio, minutoFin(inicio, horaFin) });
+        reconstruir();
+    }
+
+    /**
+     * Quita el intervalo de una cita
+     */
+    public synchronized void quitar(String citaId) {
+        if (intervaloPorCita.remove(citaId) != null) {
+            reconstruir();
+        }
+    }
+
+    /**
+     * Indica si [horaInicio, horaFin) se cruza con alguna cita
+     */
+    public synchronized boolean seSolapa(LocalTime horaInicio, LocalTime horaFin) {
+        int inicio = minutoDelDia(horaInicio);
+        int fin = minutoFin(inicio, horaFin);
+
+        // Cantidad de citas que empiezan antes de que termine el intervalo
+        int cantidad = primeraPosicionNoMenor(fin);
+        return cantidad > 0 && finMaximo[cantidad - 1] > inicio;
+    }
+
+    private int primeraPosicionNoMenor(int minuto) {
+        int bajo = 0;
+        int alto = inicios.length;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (inicios[medio] < minuto) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    private void reconstruir() {
+        int[][] ordenados = intervaloPorCita.values().toArray(new int[0][]);
+        Arrays.sort(ordenados, (a, b) -> Integer.compare(a[0], b[0]));
+
+        inicios = new int[ordenados.length];
+        finMaximo = new int[ordenados.length];
+        int maximo = Integer.MIN_VALUE;
+        for (int i = 0; i < ordenados.length; i++) {
+            inicios[i] = ordenados[i][0];
+            maximo = Math.max(maximo, ordenados[i][1]);
+            finMaximo[i] = maximo;
+        }
+    }
+
+    // Sin hora de fin valida la cita ocupa al menos su minuto de inicio
+    private static int minutoFin(int inicio, LocalTime horaFin) {
+        if (horaFin == null) {
+            return inicio + 1;
+        }
+        int fin = minutoDelDia(horaFin);
+        return fin > inicio ? fin : inicio + 1;
+    }
+
+    private static int minutoDelDia(LocalTime hora) {
+        return hora.getHour() * 60 + hora.getMinute();
+    }
+}
@@ -0,0 +1,80 @@
+package com.universidad.vitaltech.service.cache;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.universidad.vitaltech.dto.UsuarioResumen;
+import com.universidad.vitaltech.model.ClavesBusqueda;
+import com.universidad.vitaltech.model.Rol;
+import com.universidad.vitaltech.repository.UsuarioRepository;
+
+/**
+ * Resultados recientes del autocompletado de pacientes (LRU en memoria).
+ * Mientras se escribe un nombre se repiten los mismos prefijos desde varias
+ * recepciones, asi que se guardan las ultimas consultas con un TTL corto.
+ * Se vacia cuando UsuarioServiceImpl modifica un usuario; el TTL cubre los
+ * cambios hechos por otros nodos.
+ */
+@Component
+public class SugerenciasPacientes {
+
+    @Value("${app.sugerencias.maximo-consultas:500}")
+    private int maximoConsultas = 500;
+
+    @Value("${app.sugerencias.ttl-segundos:30}")
+    private long ttlSegundos = 30;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    // Orden de acceso: la entrada menos usada es la primera en salir
+    private final Map<String, Sugerencias> recientes = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Sugerencias> mayor) {
+            return size() > maximoConsultas;
+        }
+    };
+
+    // Cambia con cada invalidación; una consulta que empezo antes no se guarda
+    private final AtomicLong generacion = new AtomicLong();
+
+    private record Sugerencias(List<UsuarioResumen> pacientes, long cargadoEn) {
+    }
+
+    /**
+     * Pacientes activos cuyo nombre, correo o documento empiezan por el término
+     */
+    public List<UsuarioResumen> buscar(String termino, int limite) {
+        // Misma clave para "Peña ana" y "ana pena"
+        String clave = String.join(" ", ClavesBusqueda.terminos(termino)) + "|" + limite;
+        synchronized (recientes) {
+            Sugerencias guardadas = recientes.get(clave);
+            if (guardadas != null && System.currentTimeMillis() - guardadas.cargadoEn() < ttlSegundos * 1000) {
+                return guardadas.pacientes();
+            }
+        }
+
+        long generacionConsulta = generacion.get();
+        List<UsuarioResumen> pacientes = List.copyOf(
+                usuarioRepository.sugerirResumenes(termino, Rol.PACIENTE, limite));
+        synchronized (recientes) {
+            if (generacion.get() == generacionConsulta) {
+                recientes.put(clave, new Sugerencias(pacientes, System.currentTimeMillis()));
+            }
+        }
+        return pacientes;
+    }
+
+    public void invalidar() {
+        generacion.incrementAndGet();
+        synchronized (recientes) {
+            recientes.clear();
+        }
+    }
+}
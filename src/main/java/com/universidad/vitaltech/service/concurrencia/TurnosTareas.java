@@ -0,0 +1,61 @@
+package com.universidad.vitaltech.service.concurrencia;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.universidad.vitaltech.model.TurnoTarea;
+
+/**
+ * Reparte las tareas programadas entre los nodos (coleccion turnos_tareas).
+ * El turno se toma con un upsert sobre el documento de la tarea que solo encuentra
+ * turnos vencidos; si otro nodo tiene el turno vigente, el upsert intenta insertar
+ * un documento con el mismo _id y MongoDB lo rechaza por clave duplicada.
+ */
+@Component
+public class TurnosTareas {
+
+    // Identifica este nodo en los turnos
+    private static final String NODO = UUID.randomUUID().toString().substring(0, 8);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Toma el turno de la tarea por la duracion indicada. El turno no se devuelve al
+     * terminar, asi un nodo cuyo reloj dispara la tarea un poco despues no la repite.
+     *
+     * @return true si este nodo debe correr la tarea
+     */
+    public boolean tomar(String tarea, Duration duracion) {
+        LocalDateTime ahora = LocalDateTime.now();
+        try {
+            mongoTemplate.upsert(vencido(tarea, ahora), new Update()
+                    .set("nodo", NODO)
+                    .set("hasta", ahora.plus(duracion)), TurnoTarea.class);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Devuelve el turno antes de que venza, solo si lo tiene este nodo (la tarea fallo
+     * y otro nodo puede intentarla)
+     */
+    public void soltar(String tarea) {
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(tarea).and("nodo").is(NODO)), TurnoTarea.class);
+    }
+
+    static Query vencido(String tarea, LocalDateTime ahora) {
+        return new Query(Criteria.where("_id").is(tarea).and("hasta").lte(ahora));
+    }
+}
@@ -0,0 +1,125 @@
+package com.universidad.vitaltech.service.concurrencia;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import com.universidad.vitaltech.model.VersionAgenda;
+
+/**
+ * Control optimista de las reservas de un doctor en un dia fuera de la ventana de
+ * slots (coleccion agenda_versiones); dentro de la ventana ya ordenan los slots.
+ * Quien reserva lee la version, revisa los cruces contra las citas guardadas, inserta
+ * la cita y avanza la version solo si sigue igual. Si otra reserva del mismo dia se
+ * confirmo entre medio, el avance falla y la reserva se deshace y se vuelve a revisar.
+ * La misma coleccion cuenta los cambios de cada agenda para las etiquetas ETag.
+ */
+@Component
+public class VersionesAgenda {
+
+    private static final Logger log = LoggerFactory.getLogger(VersionesAgenda.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Version actual de la agenda del doctor en la fecha (0 si nadie ha reservado)
+     */
+    public long leer(String doctorId, LocalDate fecha) {
+        VersionAgenda actual = mongoTemplate.findById(VersionAgenda.clave(doctorId, fecha), VersionAgenda.class);
+        return actual != null ? actual.getVersion() : 0;
+    }
+
+    /**
+     * Versiones de varios dias del doctor en una sola consulta (los dias sin documento no aparecen)
+     */
+    public Map<LocalDate, Long> leer(String doctorId, Collection<LocalDate> fechas) {
+        List<String> claves = fechas.stream().map(fecha -> VersionAgenda.clave(doctorId, fecha)).toList();
+        Map<LocalDate, Long> versiones = new HashMap<>();
+        for (VersionAgenda actual : mongoTemplate.find(new Query(Criteria.where("_id").in(claves)),
+                VersionAgenda.class)) {
+            versiones.put(actual.getFecha(), actual.getVersion());
+        }
+        return versiones;
+    }
+
+    /**
+     * Avanza la version si sigue siendo la leida. Si cambio, el upsert intenta insertar
+     * un documento con el mismo _id y MongoDB lo rechaza por clave duplicada.
+     *
+     * @return false si otra reserva avanzo la version primero
+     */
+    public boolean avanzar(String doctorId, LocalDate fecha, long leida) {
+        try {
+            mongoTemplate.upsert(porVersion(doctorId, fecha, leida), siguiente(fecha), VersionAgenda.class);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Cuenta un cambio en la agenda del doctor (cita, horario) para las etiquetas de version
+     */
+    public void registrarCambio(String doctorId) {
+        contarCambio(doctorId);
+    }
+
+    /**
+     * Cuenta un cambio que afecta a todas las agendas (dias festivos)
+     */
+    public void registrarCambioGeneral() {
+        contarCambio(VersionAgenda.GENERAL);
+    }
+
+    /**
+     * Etiqueta "general.doctor" con los cambios guardados en Mongo, igual en todos los nodos
+     */
+    public String etiqueta(String doctorId) {
+        long general = 0;
+        long doctor = 0;
+        for (VersionAgenda version : mongoTemplate.find(
+                new Query(Criteria.where("_id").in(doctorId, VersionAgenda.GENERAL)), VersionAgenda.class)) {
+            if (VersionAgenda.GENERAL.equals(version.getId())) {
+                general = version.getVersion();
+            } else {
+                doctor = version.getVersion();
+            }
+        }
+        return general + "." + doctor;
+    }
+
+    /**
+     * Se llama despues de guardar el cambio: si la escritura falla se registra en el
+     * log y no se interrumpe la operacion, que ya se hizo. Las etiquetas de ese doctor
+     * quedan iguales hasta su siguiente cambio.
+     */
+    private void contarCambio(String id) {
+        try {
+            mongoTemplate.upsert(new Query(Criteria.where("_id").is(id)), new Update().inc("version", 1),
+                    VersionAgenda.class);
+        } catch (RuntimeException e) {
+            log.warn("No se pudo registrar el cambio de la agenda {}: {}", id, e.getMessage());
+        }
+    }
+
+    static Query porVersion(String doctorId, LocalDate fecha, long version) {
+        return new Query(Criteria.where("_id").is(VersionAgenda.clave(doctorId, fecha)).and("version").is(version));
+    }
+
+    static Update siguiente(LocalDate fecha) {
+        return new Update().inc("version", 1).setOnInsert("fecha", fecha);
+    }
+}
@@ -0,0 +1,9 @@
+package com.universidad.vitaltech.service.event;
+
+import com.universidad.vitaltech.model.Cita;
+
+/**
+ * Evento publicado cuando se cancela una cita y su horario queda libre
+ */
+public record CitaCanceladaEvent(Cita cita) {
+}
@@ -0,0 +1,33 @@
+package com.universidad.vitaltech.service.event;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import com.universidad.vitaltech.service.ListaEsperaService;
+
+/**
+ * Ofrece a la lista de espera el horario de cada cita cancelada.
+ * Se ejecuta fuera de la peticion que cancelo la cita.
+ */
+@Component
+public class ListaEsperaListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ListaEsperaListener.class);
+
+    @Autowired
+    private ListaEsperaService listaEsperaService;
+
+    @Async
+    @EventListener
+    public void alCancelarCita(CitaCanceladaEvent evento) {
+        try {
+            listaEsperaService.asignarHorarioLiberado(evento.cita());
+        } catch (Exception e) {
+            log.warn("No se pudo asignar el horario de la cita {}: {}", evento.cita().getId(), e.getMessage());
+        }
+    }
+}
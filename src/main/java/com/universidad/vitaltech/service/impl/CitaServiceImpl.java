@@ -1,23 +1,53 @@
 package com.universidad.vitaltech.service.impl;
 
+import java.time.DayOfWeek;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
+import org.bson.types.ObjectId;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.stereotype.Service;
 
+import com.universidad.vitaltech.dto.CitaDetalle;
+import com.universidad.vitaltech.dto.CursorCita;
+import com.universidad.vitaltech.dto.PaginaCitas;
+import com.universidad.vitaltech.dto.ResultadoSerie;
+import com.universidad.vitaltech.dto.ResumenCitasPaciente;
 import com.universidad.vitaltech.model.Cita;
 import com.universidad.vitaltech.model.EstadoCita;
+import com.universidad.vitaltech.model.HorarioDisponible;
+import com.universidad.vitaltech.model.embedded.Horario;
 import com.universidad.vitaltech.repository.CitaRepository;
+import com.universidad.vitaltech.repository.HorarioDisponibleRepository;
 import com.universidad.vitaltech.service.CitaService;
+import com.universidad.vitaltech.service.ResumenDiarioService;
+import com.universidad.vitaltech.service.RetencionHorarioService;
+import com.universidad.vitaltech.service.SlotService;
+import com.universidad.vitaltech.service.cache.CalendarioFestivos;
+import com.universidad.vitaltech.service.cache.ContadoresVivos;
+import com.universidad.vitaltech.service.cache.IntervalosOcupados;
+import com.universidad.vitaltech.service.event.CitaCanceladaEvent;
+import com.universidad.vitaltech.service.concurrencia.VersionesAgenda;
 
 @Service
 public class CitaServiceImpl implements CitaService {
@@ -27,6 +57,10 @@ public class CitaServiceImpl implements CitaService {
     // Constantes configurables
     private static final int MINUTOS_ANTES_PERMITIDOS = 30;
     private static final int HORAS_DESPUES_PERMITIDAS = 2;
+    private static final int MAXIMO_CITAS_SERIE = 12;
+
+    // Veces que se reintenta una reserva cuando otra del mismo doctor y dia se confirma a la vez
+    private static final int INTENTOS_RESERVA = 3;
 
     // Zona horaria desde configuración
     @Value("${app.timezone:America/Bogota}")
@@ -35,6 +69,33 @@ public class CitaServiceImpl implements CitaService {
     @Autowired
     private CitaRepository citaRepository;
 
+    @Autowired
+    private HorarioDisponibleRepository horarioDisponibleRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private SlotService slotService;
+
+    @Autowired
+    private RetencionHorarioService retencionHorarioService;
+
+    @Autowired
+    private CalendarioFestivos calendarioFestivos;
+
+    @Autowired
+    private ContadoresVivos contadoresVivos;
+
+    @Autowired
+    private ResumenDiarioService resumenDiarioService;
+
+    @Autowired
+    private VersionesAgenda versionesAgenda;
+
     /**
      * Obtiene la hora actual en la zona horaria configurada
      */
@@ -45,22 +106,335 @@ public class CitaServiceImpl implements CitaService {
         return ahora;
     }
 
-    @Override
-    public Cita guardar(Cita cita) {
-        // Validar que la duración de la cita no exceda 30 minutos
+    /**
+     * Valida que la duración de la cita no exceda 30 minutos
+     */
+    private void validarDuracion(Cita cita) {
         if (!cita.getHorario().validarDuracion()) {
             throw new RuntimeException("La duración de la cita debe ser máximo 30 minutos");
         }
+    }
+
+    @Override
+    public Cita guardar(Cita cita) {
+        validarDuracion(cita);
 
         // Establecer fecha de creación si es nueva
+        Optional<Cita> anterior = Optional.empty();
         if (cita.getId() == null) {
             cita.setFechaCreacion(obtenerHoraActual());
             cita.setEstado(EstadoCita.PROGRAMADA);
         } else {
             cita.setFechaActualizacion(obtenerHoraActual());
+            anterior = citaRepository.findById(cita.getId());
+        }
+
+        Cita guardada = citaRepository.save(cita);
+        slotService.sincronizarCita(guardada);
+        versionesAgenda.registrarCambio(guardada.getDoctorId());
+        anterior.ifPresentOrElse(previa -> {
+            contadoresVivos.citaModificada(previa.getHorario().getFecha(), previa.getEstado(), guardada);
+            resumenDiarioService.citaModificada(previa, guardada);
+        }, () -> {
+            contadoresVivos.citaCreada(guardada);
+            resumenDiarioService.citasCreadas(List.of(guardada));
+        });
+        return guardada;
+    }
+
+    @Override
+    public Optional<Cita> reservar(Cita cita) {
+        return reservar(cita, false);
+    }
+
+    @Override
+    public Optional<Cita> reservar(Cita cita, boolean ignorarRetenciones) {
+        validarDuracion(cita);
+
+        // Mismas reglas del horario del doctor que cada fecha de una serie
+        Horario horario = cita.getHorario();
+        List<HorarioDisponible> plantillasDelDia = horarioDisponibleRepository
+                .findByDoctorIdAndActivoTrue(cita.getDoctorId()).stream()
+                .filter(plantilla -> plantilla.getDiaSemana() == horario.getFecha().getDayOfWeek())
+                .toList();
+        String rechazo = motivoRechazo(plantillasDelDia, horario.getFecha(), horario, obtenerHoraActual());
+        if (rechazo != null) {
+            throw new RuntimeException(rechazo);
+        }
+
+        // Horario apartado por otro paciente que aun esta llenando el formulario
+        if (!ignorarRetenciones && retencionHorarioService.estaRetenidoPorOtro(cita.getDoctorId(),
+                cita.getHorario().getFecha(), cita.getHorario().getHoraInicio(), cita.getHorario().getHoraFin(),
+                cita.getPacienteId())) {
+            log.info("Horario apartado por otro paciente: doctor {} el {}", cita.getDoctorId(), cita.getHorario());
+            return Optional.empty();
+        }
+
+        // El ID se asigna antes para marcar el slot con la cita (la lista de espera ya lo trae)
+        if (cita.getId() == null) {
+            cita.setId(new ObjectId().toHexString());
+        }
+        cita.setFechaCreacion(obtenerHoraActual());
+        cita.setEstado(EstadoCita.PROGRAMADA);
+
+        Optional<Cita> reservada = reservarEnAgenda(cita);
+        // Efectos de una reserva ya confirmada: ninguno la deshace si falla
+        reservada.ifPresent(confirmada -> {
+            versionesAgenda.registrarCambio(confirmada.getDoctorId());
+            contadoresVivos.citaCreada(confirmada);
+            resumenDiarioService.citasCreadas(List.of(confirmada));
+            retencionHorarioService.liberar(confirmada.getPacienteId());
+        });
+        return reservada;
+    }
+
+    /**
+     * Dentro de la ventana de slots la reserva son los pasos condicionales de LIBRE a
+     * RESERVADO y el insert. Los slots se toman en orden de hora, asi que de dos
+     * reservas que se cruzan solo una encuentra libre el primer slot comun, y el
+     * indice unico parcial de citas cubre las que empiezan a la misma hora.
+     * Fuera de la ventana no hay slots y se usa la version de la agenda del dia.
+     */
+    private Optional<Cita> reservarEnAgenda(Cita cita) {
+        if (cita.getHorario().getFecha().isAfter(slotService.obtenerFinVentana())) {
+            return reservarConVersion(cita);
+        }
+        if (!slotService.reservar(cita)) {
+            log.info("Slot ya reservado: doctor {} el {}", cita.getDoctorId(), cita.getHorario());
+            return Optional.empty();
+        }
+        return insertar(cita);
+    }
+
+    /**
+     * Revisa cruces, inserta la cita y la confirma avanzando la version de la agenda
+     * del dia. Si otra reserva del mismo dia se confirmo entre medio, deshace la cita
+     * y vuelve a intentar.
+     */
+    private Optional<Cita> reservarConVersion(Cita cita) {
+        String doctorId = cita.getDoctorId();
+        LocalDate fecha = cita.getHorario().getFecha();
+        for (int intento = 1; intento <= INTENTOS_RESERVA; intento++) {
+            long version = versionesAgenda.leer(doctorId, fecha);
+
+            // Citas de distinta duracion pueden cruzarse sin empezar a la misma hora
+            if (seCruzaConCitasGuardadas(cita)) {
+                log.info("Horario cruzado con otra cita: doctor {} el {}", doctorId, cita.getHorario());
+                return Optional.empty();
+            }
+
+            Optional<Cita> insertada = insertar(cita);
+            if (insertada.isEmpty() || versionesAgenda.avanzar(doctorId, fecha, version)) {
+                return insertada;
+            }
+            deshacer(insertada.get());
+            log.debug("Reserva concurrente en la agenda del doctor {} el {} (intento {})", doctorId, fecha, intento);
+        }
+        log.info("Agenda del doctor {} el {} muy disputada, no se reservo", doctorId, fecha);
+        return Optional.empty();
+    }
+
+    /**
+     * insert y no save: la escritura falla si el horario ya esta tomado. Los slots no
+     * pueden quedar reservados por una cita que no se guardo.
+     */
+    private Optional<Cita> insertar(Cita cita) {
+        try {
+            return Optional.of(citaRepository.insert(cita));
+        } catch (DuplicateKeyException e) {
+            log.info("Horario ocupado: doctor {} el {}", cita.getDoctorId(), cita.getHorario());
+            slotService.liberar(cita);
+            return Optional.empty();
+        } catch (RuntimeException e) {
+            slotService.liberar(cita);
+            throw e;
+        }
+    }
+
+    /**
+     * Quita una cita insertada que no se pudo confirmar y devuelve sus slots
+     */
+    private void deshacer(Cita cita) {
+        citaRepository.deleteById(cita.getId());
+        slotService.liberar(cita);
+    }
+
+    /**
+     * Cruce con las citas guardadas en Mongo: una consulta sobre el indice del horario
+     * que ve las reservas de todos los nodos
+     */
+    private boolean seCruzaConCitasGuardadas(Cita cita) {
+        Horario horario = cita.getHorario();
+        return citaRepository.existeCruce(cita.getDoctorId(), horario.getFecha(), horario.getHoraInicio(),
+                horario.getHoraFin(), cita.getId());
+    }
+
+    @Override
+    public ResultadoSerie reservarSerie(Cita cita, int repeticiones, int intervaloSemanas,
+            boolean ignorarRetenciones) {
+        validarDuracion(cita);
+        if (repeticiones < 1 || repeticiones > MAXIMO_CITAS_SERIE || intervaloSemanas < 1) {
+            throw new RuntimeException("La serie debe tener entre 1 y " + MAXIMO_CITAS_SERIE + " citas");
+        }
+
+        String doctorId = cita.getDoctorId();
+        Horario horario = cita.getHorario();
+        LocalDate primera = horario.getFecha();
+        LocalDate ultima = primera.plusWeeks((long) (repeticiones - 1) * intervaloSemanas);
+        List<LocalDate> fechas = new ArrayList<>();
+        for (int i = 0; i < repeticiones; i++) {
+            fechas.add(primera.plusWeeks((long) i * intervaloSemanas));
+        }
+
+        // Una consulta de plantillas, una de versiones y una de citas para toda la serie.
+        // Solo las fechas fuera de la ventana de slots usan version, y se leen antes que
+        // las citas, igual que en reservar.
+        Map<DayOfWeek, List<HorarioDisponible>> plantillas = new HashMap<>();
+        for (HorarioDisponible plantilla : horarioDisponibleRepository.findByDoctorIdAndActivoTrue(doctorId)) {
+            plantillas.computeIfAbsent(plantilla.getDiaSemana(), dia -> new ArrayList<>()).add(plantilla);
+        }
+        LocalDate finVentana = slotService.obtenerFinVentana();
+        List<LocalDate> fueraDeVentana = fechas.stream().filter(fecha -> fecha.isAfter(finVentana)).toList();
+        Map<LocalDate, Long> versiones = fueraDeVentana.isEmpty()
+                ? Map.of()
+                : versionesAgenda.leer(doctorId, fueraDeVentana);
+
+        Map<LocalDate, IntervalosOcupados> ocupados = new HashMap<>();
+        for (Cita existente : citaRepository.findCitasActivasByDoctoresAndRangoFechas(List.of(doctorId), primera,
+                ultima)) {
+            ocupados.computeIfAbsent(existente.getHorario().getFecha(), fecha -> new IntervalosOcupados())
+                    .agregar(existente.getId(), existente.getHorario().getHoraInicio(),
+                            existente.getHorario().getHoraFin());
+        }
+
+        List<Cita> validas = new ArrayList<>();
+        List<ResultadoSerie.Conflicto> conflictos = new ArrayList<>();
+        LocalDateTime ahora = obtenerHoraActual();
+
+        for (LocalDate fecha : fechas) {
+            String rechazo = motivoRechazo(plantillas.get(fecha.getDayOfWeek()), fecha, horario, ahora);
+            if (rechazo != null) {
+                conflictos.add(new ResultadoSerie.Conflicto(fecha, rechazo));
+                continue;
+            }
+            IntervalosOcupados delDia = ocupados.get(fecha);
+            if (delDia != null && delDia.seSolapa(horario.getHoraInicio(), horario.getHoraFin())) {
+                conflictos.add(new ResultadoSerie.Conflicto(fecha, "El horario ya está ocupado"));
+                continue;
+            }
+            if (!ignorarRetenciones && retencionHorarioService.estaRetenidoPorOtro(doctorId, fecha,
+                    horario.getHoraInicio(), horario.getHoraFin(), cita.getPacienteId())) {
+                conflictos.add(new ResultadoSerie.Conflicto(fecha, "Otro paciente tiene el horario apartado"));
+                continue;
+            }
+
+            Cita ocurrencia = new Cita();
+            ocurrencia.setId(new ObjectId().toHexString());
+            ocurrencia.setPacienteId(cita.getPacienteId());
+            ocurrencia.setDoctorId(doctorId);
+            ocurrencia.setMotivoConsulta(cita.getMotivoConsulta());
+            ocurrencia.setCreadaPor(cita.getCreadaPor());
+            ocurrencia.setHorario(new Horario(fecha, horario.getHoraInicio(), horario.getHoraFin()));
+            ocurrencia.setEstado(EstadoCita.PROGRAMADA);
+            ocurrencia.setFechaCreacion(ahora);
+
+            // Mismo paso condicional de los slots que en una reserva individual
+            if (!slotService.reservar(ocurrencia)) {
+                conflictos.add(new ResultadoSerie.Conflicto(fecha, "El horario fue reservado por otra persona"));
+                continue;
+            }
+            validas.add(ocurrencia);
+        }
+
+        List<Cita> creadas = new ArrayList<>();
+        for (Cita insertada : insertarEnLote(validas, conflictos)) {
+            LocalDate fecha = insertada.getHorario().getFecha();
+            if (!fecha.isAfter(finVentana)
+                    || versionesAgenda.avanzar(doctorId, fecha, versiones.getOrDefault(fecha, 0L))) {
+                creadas.add(insertada);
+                continue;
+            }
+            // Otra reserva del dia se confirmo mientras tanto: se revisa de nuevo como una reserva individual
+            deshacer(insertada);
+            reservarConVersion(insertada).ifPresentOrElse(creadas::add, () -> conflictos.add(
+                    new ResultadoSerie.Conflicto(fecha, "El horario fue reservado por otra persona")));
+        }
+
+        creadas.forEach(contadoresVivos::citaCreada);
+        resumenDiarioService.citasCreadas(creadas);
+        if (!creadas.isEmpty()) {
+            versionesAgenda.registrarCambio(doctorId);
+            retencionHorarioService.liberar(cita.getPacienteId());
         }
 
-        return citaRepository.save(cita);
+        creadas.sort((a, b) -> a.getHorario().getFecha().compareTo(b.getHorario().getFecha()));
+        conflictos.sort((a, b) -> a.fecha().compareTo(b.fecha()));
+        return new ResultadoSerie(creadas, conflictos);
+    }
+
+    /**
+     * Inserta las citas en una sola escritura no ordenada: si alguna choca con el
+     * indice unico (otra reserva concurrente) las demas se insertan igual y los
+     * slots de la que choco se devuelven
+     */
+    private List<Cita> insertarEnLote(List<Cita> citas, List<ResultadoSerie.Conflicto> conflictos) {
+        if (citas.isEmpty()) {
+            return citas;
+        }
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Cita.class).insert(citas).execute();
+            return citas;
+        } catch (BulkOperationException e) {
+            Set<Integer> fallidas = new HashSet<>();
+            e.getErrors().forEach(error -> fallidas.add(error.getIndex()));
+
+            List<Cita> creadas = new ArrayList<>();
+            for (int i = 0; i < citas.size(); i++) {
+                if (fallidas.contains(i)) {
+                    slotService.liberar(citas.get(i));
+                    conflictos.add(new ResultadoSerie.Conflicto(citas.get(i).getHorario().getFecha(),
+                            "El horario fue reservado por otra persona"));
+                } else {
+                    creadas.add(citas.get(i));
+                }
+            }
+            log.info("Serie del doctor {}: {} citas no se insertaron", citas.get(0).getDoctorId(), fallidas.size());
+            return creadas;
+        } catch (RuntimeException e) {
+            // Sin saber que se inserto, ninguna cita de la serie conserva sus slots
+            citas.forEach(slotService::liberar);
+            throw e;
+        }
+    }
+
+    /**
+     * Reglas del horario del doctor para una fecha: no puede haber pasado, no puede ser
+     * festivo ni estar en un rango no disponible de la plantilla y debe calzar en la grilla
+     *
+     * @return Motivo del rechazo, o null si la fecha es válida
+     */
+    private String motivoRechazo(List<HorarioDisponible> plantillasDelDia, LocalDate fecha, Horario horario,
+            LocalDateTime ahora) {
+        if (fecha.atTime(horario.getHoraInicio()).isBefore(ahora)) {
+            return "No se puede agendar en una fecha u hora que ya pasó";
+        }
+        if (calendarioFestivos.esFestivo(fecha) || !calzaEnPlantilla(plantillasDelDia, fecha, horario)) {
+            return "El doctor no atiende ese día u horario";
+        }
+        return null;
+    }
+
+    /**
+     * La hora de inicio es una de las horas de cita de la plantilla (la misma
+     * grilla con la que se generan los slots) y la cita termina dentro de ella
+     */
+    private static boolean calzaEnPlantilla(List<HorarioDisponible> plantillas, LocalDate fecha, Horario horario) {
+        if (plantillas == null) {
+            return false;
+        }
+        return plantillas.stream().anyMatch(plantilla -> plantilla.estaDisponibleEnFecha(fecha)
+                && plantilla.generarHorariosDisponibles().contains(horario.getHoraInicio())
+                && !horario.getHoraFin().isAfter(plantilla.getHoraFin()));
     }
 
     @Override
@@ -73,9 +447,42 @@ public class CitaServiceImpl implements CitaService {
         return citaRepository.findAll();
     }
 
+    @Override
+    public PaginaCitas listarPagina(LocalDate fecha, Collection<EstadoCita> estados, String cursor, int limite) {
+        // Se pide una cita de mas para saber si hay pagina siguiente sin contar
+        List<Cita> citas = citaRepository.buscarPagina(fecha, estados, CursorCita.decodificar(cursor), limite + 1);
+        if (citas.size() <= limite) {
+            return new PaginaCitas(citas, null);
+        }
+        List<Cita> pagina = citas.subList(0, limite);
+        return new PaginaCitas(pagina, CursorCita.de(pagina.get(limite - 1)).codificar());
+    }
+
+    @Override
+    public long contarPorEstados(Collection<EstadoCita> estados) {
+        return contadoresVivos.citasEnEstados(estados);
+    }
+
+    @Override
+    public long contarPorFecha(LocalDate fecha) {
+        return contadoresVivos.citasDeFecha(fecha);
+    }
+
+    @Override
+    public ResumenCitasPaciente obtenerResumenPaciente(String pacienteId, int limiteProximas) {
+        return citaRepository.resumirCitasDePaciente(pacienteId, LocalDate.now(), Math.max(limiteProximas, 1));
+    }
+
     @Override
     public void eliminar(String id) {
+        Optional<Cita> citaOpt = citaRepository.findById(id);
         citaRepository.deleteById(id);
+        citaOpt.ifPresent(cita -> {
+            slotService.liberar(cita);
+            versionesAgenda.registrarCambio(cita.getDoctorId());
+            contadoresVivos.citaEliminada(cita);
+            resumenDiarioService.citaEliminada(cita);
+        });
     }
 
     @Override
@@ -123,8 +530,12 @@ public class CitaServiceImpl implements CitaService {
         Optional<Cita> citaOpt = buscarPorId(citaId);
         if (citaOpt.isPresent()) {
             Cita cita = citaOpt.get();
+            EstadoCita estadoAnterior = cita.getEstado();
             cita.confirmar();
-            return citaRepository.save(cita);
+            Cita confirmada = citaRepository.save(cita);
+            contadoresVivos.citaModificada(confirmada.getHorario().getFecha(), estadoAnterior, confirmada);
+            resumenDiarioService.estadoCambiado(confirmada, estadoAnterior);
+            return confirmada;
         }
         throw new RuntimeException("Cita no encontrada");
     }
@@ -134,8 +545,12 @@ public class CitaServiceImpl implements CitaService {
         Optional<Cita> citaOpt = buscarPorId(citaId);
         if (citaOpt.isPresent()) {
             Cita cita = citaOpt.get();
+            EstadoCita estadoAnterior = cita.getEstado();
             cita.completar();
-            return citaRepository.save(cita);
+            Cita completada = citaRepository.save(cita);
+            contadoresVivos.citaModificada(completada.getHorario().getFecha(), estadoAnterior, completada);
+            resumenDiarioService.estadoCambiado(completada, estadoAnterior);
+            return completada;
         }
         throw new RuntimeException("Cita no encontrada");
     }
@@ -145,39 +560,49 @@ public class CitaServiceImpl implements CitaService {
         Optional<Cita> citaOpt = buscarPorId(citaId);
         if (citaOpt.isPresent()) {
             Cita cita = citaOpt.get();
+            EstadoCita estadoAnterior = cita.getEstado();
             cita.cancelar(usuarioId, motivo);
-            return citaRepository.save(cita);
+            Cita cancelada = citaRepository.save(cita);
+            slotService.liberar(cancelada);
+            versionesAgenda.registrarCambio(cancelada.getDoctorId());
+            contadoresVivos.citaModificada(cancelada.getHorario().getFecha(), estadoAnterior, cancelada);
+            resumenDiarioService.estadoCambiado(cancelada, estadoAnterior);
+
+            // La lista de espera intenta ocupar el horario liberado (asincrono)
+            eventPublisher.publishEvent(new CitaCanceladaEvent(cancelada));
+            return cancelada;
         }
         throw new RuntimeException("Cita no encontrada");
     }
 
     @Override
     public boolean existeDisponibilidad(String doctorId, LocalDate fecha, String horaInicio) {
-        List<Cita> citasExistentes = listarCitasProgramadasPorDoctorYFecha(doctorId, fecha);
+        LocalTime inicio = LocalTime.parse(horaInicio);
+        return existeDisponibilidad(doctorId, fecha, inicio, inicio.plusMinutes(1));
+    }
 
-        for (Cita cita : citasExistentes) {
-            String horaInicioCita = cita.getHorario().getHoraInicio().toString();
-            if (horaInicioCita.equals(horaInicio)) {
-                return false;
-            }
+    @Override
+    public boolean existeDisponibilidad(String doctorId, LocalDate fecha, LocalTime horaInicio, LocalTime horaFin) {
+        // Dentro de la ventana manda el estado de los slots; mas alla, las citas guardadas
+        if (!fecha.isAfter(slotService.obtenerFinVentana())) {
+            return slotService.estanLibres(doctorId, fecha, horaInicio, horaFin);
         }
-
-        return true;
+        return !citaRepository.existeCruce(doctorId, fecha, horaInicio, horaFin, null);
     }
 
     @Override
-    public List<Object> obtenerCitasConDetallesPorPaciente(String pacienteId) {
+    public List<CitaDetalle> obtenerCitasConDetallesPorPaciente(String pacienteId) {
         return citaRepository.findCitasConDetallesByPacienteId(pacienteId);
     }
 
     @Override
-    public List<Object> obtenerCitasConDetallesPorDoctor(String doctorId) {
+    public List<CitaDetalle> obtenerCitasConDetallesPorDoctor(String doctorId) {
         return citaRepository.findCitasConDetallesByDoctorId(doctorId);
     }
 
     @Override
-    public List<Object> obtenerCitasConDetallesPorFecha(LocalDate fecha) {
-        return citaRepository.findCitasConDetallesByFecha(fecha.toString());
+    public List<CitaDetalle> obtenerCitasConDetallesPorFecha(LocalDate fecha) {
+        return citaRepository.findCitasConDetallesByFecha(fecha);
     }
 
     @Override
@@ -5,8 +5,14 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.TextCriteria;
 import org.springframework.stereotype.Service;
 
+import com.universidad.vitaltech.dto.DiagnosticoDetalle;
 import com.universidad.vitaltech.model.Diagnostico;
 import com.universidad.vitaltech.repository.DiagnosticoRepository;
 import com.universidad.vitaltech.service.DiagnosticoService;
@@ -17,6 +23,8 @@ import com.universidad.vitaltech.service.DiagnosticoService;
 @Service
 public class DiagnosticoServiceImpl implements DiagnosticoService {
     
+    public static final int MAXIMO_POR_PAGINA = 50;
+    
     @Autowired
     private DiagnosticoRepository diagnosticoRepository;
     
@@ -67,28 +75,39 @@ public class DiagnosticoServiceImpl implements DiagnosticoService {
         return diagnosticoRepository.findUltimoDiagnosticoByPacienteId(pacienteId);
     }
     
+    @Override
+    public Slice<Diagnostico> buscarPorTextoDelDoctor(String doctorId, String termino, int pagina, int tamano) {
+        return diagnosticoRepository.findByDoctorId(doctorId, criterioTexto(termino), paginaPorRelevancia(pagina, tamano));
+    }
+    
+    @Override
+    public Slice<Diagnostico> buscarPorTextoDelPaciente(String pacienteId, String termino, int pagina, int tamano) {
+        return diagnosticoRepository.findByPacienteId(pacienteId, criterioTexto(termino),
+                paginaPorRelevancia(pagina, tamano));
+    }
+    
     @Override
     public boolean existeDiagnosticoParaCita(String citaId) {
         return diagnosticoRepository.existsByCitaId(citaId);
     }
     
     @Override
-    public Optional<Object> obtenerDiagnosticoConDetalles(String id) {
+    public Optional<DiagnosticoDetalle> obtenerDiagnosticoConDetalles(String id) {
         return diagnosticoRepository.findDiagnosticoConDetallesById(id);
     }
     
     @Override
-    public List<Object> obtenerDiagnosticosConDetallesPorPaciente(String pacienteId) {
+    public List<DiagnosticoDetalle> obtenerDiagnosticosConDetallesPorPaciente(String pacienteId) {
         return diagnosticoRepository.findDiagnosticosConDetallesByPacienteId(pacienteId);
     }
     
     @Override
-    public List<Object> obtenerDiagnosticosConDetallesPorDoctor(String doctorId) {
+    public List<DiagnosticoDetalle> obtenerDiagnosticosConDetallesPorDoctor(String doctorId) {
         return diagnosticoRepository.findDiagnosticosConDetallesByDoctorId(doctorId);
     }
     
     @Override
-    public Optional<Object> obtenerUltimoDiagnosticoConDetallesPorPaciente(String pacienteId) {
+    public Optional<DiagnosticoDetalle> obtenerUltimoDiagnosticoConDetallesPorPaciente(String pacienteId) {
         return diagnosticoRepository.findUltimoDiagnosticoConDetallesByPacienteId(pacienteId);
     }
     
@@ -101,4 +120,15 @@ public class DiagnosticoServiceImpl implements DiagnosticoService {
     public long contarDiagnosticosPorPaciente(String pacienteId) {
         return diagnosticoRepository.countByPacienteId(pacienteId);
     }
+    
+    // $text con el idioma del indice: las palabras se reducen a su raiz y se ignoran los acentos
+    private static TextCriteria criterioTexto(String termino) {
+        return TextCriteria.forLanguage("spanish").matching(termino.trim());
+    }
+    
+    // Mas relevantes primero; entre iguales, el mas reciente. Slice evita contar todas las coincidencias
+    private static Pageable paginaPorRelevancia(int pagina, int tamano) {
+        return PageRequest.of(Math.max(pagina, 0), Math.max(1, Math.min(tamano, MAXIMO_POR_PAGINA)),
+                Sort.by(Sort.Order.desc("puntaje"), Sort.Order.desc("fechaCreacion"), Sort.Order.desc("_id")));
+    }
 }
@@ -0,0 +1,348 @@
+package com.universidad.vitaltech.service.impl;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.universidad.vitaltech.dto.HorarioLibre;
+import com.universidad.vitaltech.model.Cita;
+import com.universidad.vitaltech.model.HorarioDisponible;
+import com.universidad.vitaltech.model.RetencionHorario;
+import com.universidad.vitaltech.model.Slot;
+import com.universidad.vitaltech.model.Usuario;
+import com.universidad.vitaltech.repository.CitaRepository;
+import com.universidad.vitaltech.repository.HorarioDisponibleRepository;
+import com.universidad.vitaltech.service.DisponibilidadService;
+import com.universidad.vitaltech.service.RetencionHorarioService;
+import com.universidad.vitaltech.service.SlotService;
+import com.universidad.vitaltech.service.cache.AgendaSemanalCache;
+import com.universidad.vitaltech.service.cache.CalendarioFestivos;
+import com.universidad.vitaltech.service.cache.DirectorioDoctores;
+import com.universidad.vitaltech.service.cache.IntervalosOcupados;
+import com.universidad.vitaltech.service.concurrencia.VersionesAgenda;
+
+/**
+ * Implementación del servicio de disponibilidad.
+ * Dentro de la ventana de slots generados se lee la coleccion slots; mas alla
+ * se expanden las plantillas semanales contra las citas del rango.
+ */
+@Service
+public class DisponibilidadServiceImpl implements DisponibilidadService {
+
+    private static final Comparator<HorarioLibre> ORDEN_CRONOLOGICO = Comparator
+            .comparing(HorarioLibre::fecha)
+            .thenComparing(HorarioLibre::horaInicio)
+            .thenComparing(HorarioLibre::nombreDoctor);
+
+    @Autowired
+    private DirectorioDoctores directorioDoctores;
+
+    @Autowired
+    private HorarioDisponibleRepository horarioDisponibleRepository;
+
+    @Autowired
+    private CitaRepository citaRepository;
+
+    @Autowired
+    private SlotService slotService;
+
+    @Autowired
+    private RetencionHorarioService retencionHorarioService;
+
+    @Autowired
+    private CalendarioFestivos calendarioFestivos;
+
+    @Autowired
+    private AgendaSemanalCache agendaSemanalCache;
+
+    @Autowired
+    private VersionesAgenda versionesAgenda;
+
+    @Override
+    public Map<LocalTime, Integer> obtenerHorariosLibres(String doctorId, LocalDate fecha, String pacienteId) {
+        Map<LocalTime, Integer> libres = new TreeMap<>();
+
+        if (!fecha.isAfter(slotService.obtenerFinVentana())) {
+            for (Slot slot : slotService.buscarLibres(List.of(doctorId), fecha, fecha, List.of(), 0)) {
+                libres.put(slot.getHoraInicio(), duracion(slot));
+            }
+        } else {
+            libres.putAll(horariosDePlantilla(doctorId, fecha));
+        }
+
+        // Los horarios apartados por otros pacientes se muestran como tomados
+        List<RetencionHorario> retenidos = retencionHorarioService.listarRetenidosPorOtros(doctorId, fecha, pacienteId);
+        if (!retenidos.isEmpty()) {
+            libres.entrySet().removeIf(libre -> {
+                LocalTime fin = libre.getKey().plusMinutes(libre.getValue());
+                return retenidos.stream().anyMatch(retencion -> retencion.getHoraInicio().isBefore(fin)
+                        && retencion.getHoraFin().isAfter(libre.getKey()));
+            });
+        }
+        return libres;
+    }
+
+    /**
+     * Horarios libres de un dia fuera de la ventana de slots: la plantilla del dia
+     * contra los intervalos de las citas de ese dia, leidas con una consulta
+     */
+    private Map<LocalTime, Integer> horariosDePlantilla(String doctorId, LocalDate fecha) {
+        Map<LocalTime, Integer> libres = new TreeMap<>();
+        if (calendarioFestivos.esFestivo(fecha)) {
+            return libres;
+        }
+
+        Map<LocalDate, IntervalosOcupados> ocupados = new HashMap<>();
+        citaRepository.findCitasActivasByDoctorAndFecha(doctorId, fecha).forEach(cita -> agregarOcupado(ocupados, cita));
+        IntervalosOcupados delDia = ocupados.getOrDefault(fecha, new IntervalosOcupados());
+
+        // Todos los turnos del dia, ya fusionados
+        agendaSemanalCache.obtener(doctorId, fecha.getDayOfWeek()).horasDelDia(fecha).forEach((hora, duracion) -> {
+            if (!delDia.seSolapa(hora, hora.plusMinutes(duracion))) {
+                libres.put(hora, duracion);
+            }
+        });
+        return libres;
+    }
+
+    @Override
+    public List<HorarioLibre> buscarPrimerosHorariosLibres(String especialidad, LocalDate desde, LocalDate hasta,
+            int limite, String pacienteId) {
+        List<Usuario> doctores = directorioDoctores.listarActivosPorEspecialidad(especialidad);
+        if (doctores.isEmpty() || limite <= 0 || hasta.isBefore(desde)) {
+            return List.of();
+        }
+
+        List<String> doctorIds = doctores.stream().map(Usuario::getId).toList();
+        List<HorarioLibre> resultado = new ArrayList<>(limite);
+
+        // Los horarios apartados por otros pacientes se tratan como tomados
+        List<RetencionHorario> retenidos = retencionHorarioService.listarRetenidosPorOtros(doctorIds, desde, hasta,
+                pacienteId);
+
+        // Dentro de la ventana: una sola consulta ordenada y limitada sobre slots
+        LocalDate finVentana = slotService.obtenerFinVentana();
+        if (!desde.isAfter(finVentana)) {
+            Map<String, Usuario> doctoresPorId = new HashMap<>();
+            doctores.forEach(doctor -> doctoresPorId.put(doctor.getId(), doctor));
+
+            LocalDate hastaVentana = hasta.isAfter(finVentana) ? finVentana : hasta;
+            for (Slot slot : slotService.buscarLibres(doctorIds, desde, hastaVentana, retenidos, limite)) {
+                Usuario doctor = doctoresPorId.get(slot.getDoctorId());
+                resultado.add(new HorarioLibre(doctor.getId(), doctor.getNombreCompleto(),
+                        doctor.getEspecialidad(), slot.getFecha(), slot.getHoraInicio(), slot.getHoraFin()));
+            }
+            if (resultado.size() >= limite || !hasta.isAfter(finVentana)) {
+                return resultado;
+            }
+            desde = finVentana.plusDays(1);
+        }
+
+        // Dos consultas en lote para todos los doctores: plantillas y citas del rango
+        Map<String, Map<DayOfWeek, List<HorarioDisponible>>> plantillasPorDoctor = new HashMap<>();
+        for (HorarioDisponible horario : horarioDisponibleRepository.findByDoctorIdInAndActivoTrue(doctorIds)) {
+            plantillasPorDoctor
+                    .computeIfAbsent(horario.getDoctorId(), id -> new HashMap<>())
+                    .computeIfAbsent(horario.getDiaSemana(), dia -> new ArrayList<>())
+                    .add(horario);
+        }
+
+        Map<String, Map<LocalDate, IntervalosOcupados>> ocupadosPorDoctor = new HashMap<>();
+        for (Cita cita : citaRepository.findCitasActivasByDoctoresAndRangoFechas(doctorIds, desde, hasta)) {
+            agregarOcupado(ocupadosPorDoctor.computeIfAbsent(cita.getDoctorId(), id -> new HashMap<>()), cita);
+        }
+        for (RetencionHorario retencion : retenidos) {
+            agregarRetenido(ocupadosPorDoctor.computeIfAbsent(retencion.getDoctorId(), id -> new HashMap<>()),
+                    retencion);
+        }
+
+        // Mezcla k-way: cada doctor entrega sus horarios libres en orden cronologico
+        PriorityQueue<CursorDoctor> cola = new PriorityQueue<>(
+                Comparator.comparing(CursorDoctor::actual, ORDEN_CRONOLOGICO));
+        for (Usuario doctor : doctores) {
+            Map<DayOfWeek, List<HorarioDisponible>> plantillas = plantillasPorDoctor.get(doctor.getId());
+            if (plantillas == null) {
+                continue;
+            }
+            CursorDoctor cursor = new CursorDoctor(doctor, plantillas,
+                    ocupadosPorDoctor.getOrDefault(doctor.getId(), Map.of()), desde, hasta);
+            if (cursor.avanzar()) {
+                cola.add(cursor);
+            }
+        }
+
+        while (!cola.isEmpty() && resultado.size() < limite) {
+            CursorDoctor cursor = cola.poll();
+            resultado.add(cursor.actual());
+            if (cursor.avanzar()) {
+                cola.add(cursor);
+            }
+        }
+
+        return resultado;
+    }
+
+    @Override
+    public Map<LocalDate, Integer> contarHorariosLibresPorDia(String doctorId, LocalDate desde, LocalDate hasta,
+            String pacienteId) {
+        Map<LocalDate, Integer> conteo = new TreeMap<>();
+        if (hasta.isBefore(desde)) {
+            return conteo;
+        }
+
+        // Los horarios apartados por otros pacientes se cuentan como tomados
+        List<RetencionHorario> retenidos = retencionHorarioService.listarRetenidosPorOtros(List.of(doctorId), desde,
+                hasta, pacienteId);
+
+        // Dentro de la ventana: un recorrido del indice de slots para todo el rango
+        LocalDate finVentana = slotService.obtenerFinVentana();
+        if (!desde.isAfter(finVentana)) {
+            LocalDate hastaVentana = hasta.isAfter(finVentana) ? finVentana : hasta;
+            for (LocalDate fecha = desde; !fecha.isAfter(hastaVentana); fecha = fecha.plusDays(1)) {
+                conteo.put(fecha, 0);
+            }
+            for (Slot slot : slotService.buscarLibres(List.of(doctorId), desde, hastaVentana, retenidos, 0)) {
+                conteo.merge(slot.getFecha(), 1, Integer::sum);
+            }
+            if (!hasta.isAfter(finVentana)) {
+                return conteo;
+            }
+            desde = finVentana.plusDays(1);
+        }
+
+        // Una consulta de plantillas y una consulta de citas para todo el rango
+        Map<DayOfWeek, List<HorarioDisponible>> plantillas = new HashMap<>();
+        for (HorarioDisponible horario : horarioDisponibleRepository.findByDoctorIdAndActivoTrue(doctorId)) {
+            plantillas.computeIfAbsent(horario.getDiaSemana(), dia -> new ArrayList<>()).add(horario);
+        }
+
+        Map<LocalDate, IntervalosOcupados> ocupados = new HashMap<>();
+        for (Cita cita : citaRepository.findCitasActivasByDoctoresAndRangoFechas(List.of(doctorId), desde, hasta)) {
+            agregarOcupado(ocupados, cita);
+        }
+        retenidos.forEach(retencion -> agregarRetenido(ocupados, retencion));
+
+        for (LocalDate fecha = desde; !fecha.isAfter(hasta); fecha = fecha.plusDays(1)) {
+            conteo.put(fecha, horasLibresDelDia(plantillas.get(fecha.getDayOfWeek()), fecha, ocupados.get(fecha)).size());
+        }
+        return conteo;
+    }
+
+    @Override
+    public String obtenerVersionAgenda(String doctorId, LocalDate desde, LocalDate hasta, String pacienteId) {
+        // Cada retención entra con su vencimiento: la etiqueta cambia al apartar, renovar,
+        // liberar o vencer un horario, aunque la agenda del doctor no cambie
+        int retenciones = retencionHorarioService.listarRetenidosPorOtros(List.of(doctorId), desde, hasta, pacienteId)
+                .stream()
+                .map(retencion -> retencion.getId() + "@" + retencion.getExpiraEn())
+                .sorted()
+                .toList()
+                .hashCode();
+        return versionesAgenda.etiqueta(doctorId) + "." + Integer.toHexString(retenciones);
+    }
+
+    private static int duracion(Slot slot) {
+        return (int) ChronoUnit.MINUTES.between(slot.getHoraInicio(), slot.getHoraFin());
+    }
+
+    private static void agregarOcupado(Map<LocalDate, IntervalosOcupados> ocupados, Cita cita) {
+        ocupados.computeIfAbsent(cita.getHorario().getFecha(), fecha -> new IntervalosOcupados())
+                .agregar(cita.getId(), cita.getHorario().getHoraInicio(), cita.getHorario().getHoraFin());
+    }
+
+    private static void agregarRetenido(Map<LocalDate, IntervalosOcupados> ocupados, RetencionHorario retencion) {
+        ocupados.computeIfAbsent(retencion.getFecha(), fecha -> new IntervalosOcupados())
+                .agregar(retencion.getId(), retencion.getHoraInicio(), retencion.getHoraFin());
+    }
+
+    /**
+     * Horas libres de un dia a partir de las plantillas de ese dia de la semana,
+     * con la duracion de cada cita. Omite las horas que se cruzan con una cita, las ya pasadas
+     * y los dias festivos.
+     */
+    private TreeMap<LocalTime, Integer> horasLibresDelDia(List<HorarioDisponible> delDia, LocalDate fecha,
+            IntervalosOcupados ocupados) {
+        // TreeMap: ordena por hora y descarta horas repetidas entre turnos
+        TreeMap<LocalTime, Integer> horas = new TreeMap<>();
+        if (delDia == null || fecha.isBefore(LocalDate.now()) || calendarioFestivos.esFestivo(fecha)) {
+            return horas;
+        }
+
+        LocalTime ahora = fecha.equals(LocalDate.now()) ? LocalTime.now() : LocalTime.MIN;
+
+        for (HorarioDisponible plantilla : delDia) {
+            if (!plantilla.estaDisponibleEnFecha(fecha)) {
+                continue;
+            }
+            for (LocalTime hora : plantilla.generarHorariosDisponibles()) {
+                LocalTime fin = hora.plusMinutes(plantilla.getDuracionCita());
+                if (!hora.isBefore(ahora) && (ocupados == null || !ocupados.seSolapa(hora, fin))) {
+                    horas.putIfAbsent(hora, plantilla.getDuracionCita());
+                }
+            }
+        }
+        return horas;
+    }
+
+    /**
+     * Recorre dia a dia los horarios libres de un doctor, generando cada dia
+     * solo cuando se agotan los horarios del anterior
+     */
+    private class CursorDoctor {
+
+        private final Usuario doctor;
+        private final Map<DayOfWeek, List<HorarioDisponible>> plantillas;
+        private final Map<LocalDate, IntervalosOcupados> ocupados;
+        private final LocalDate hasta;
+
+        private LocalDate siguienteFecha;
+        private List<HorarioLibre> horariosDelDia = List.of();
+        private int posicion = -1;
+
+        CursorDoctor(Usuario doctor, Map<DayOfWeek, List<HorarioDisponible>> plantillas,
+                Map<LocalDate, IntervalosOcupados> ocupados, LocalDate desde, LocalDate hasta) {
+            this.doctor = doctor;
+            this.plantillas = plantillas;
+            this.ocupados = ocupados;
+            this.siguienteFecha = desde;
+            this.hasta = hasta;
+        }
+
+        HorarioLibre actual() {
+            return horariosDelDia.get(posicion);
+        }
+
+        boolean avanzar() {
+            posicion++;
+            while (posicion >= horariosDelDia.size()) {
+                if (siguienteFecha.isAfter(hasta)) {
+                    return false;
+                }
+                horariosDelDia = generarDia(siguienteFecha);
+                siguienteFecha = siguienteFecha.plusDays(1);
+                posicion = 0;
+            }
+            return true;
+        }
+
+        private List<HorarioLibre> generarDia(LocalDate fecha) {
+            List<HorarioLibre> horarios = new ArrayList<>();
+            horasLibresDelDia(plantillas.get(fecha.getDayOfWeek()), fecha, ocupados.get(fecha))
+                    .forEach((hora, duracion) -> horarios.add(new HorarioLibre(doctor.getId(),
+                            doctor.getNombreCompleto(), doctor.getEspecialidad(), fecha, hora,
+                            hora.plusMinutes(duracion))));
+            return horarios;
+        }
+    }
+}
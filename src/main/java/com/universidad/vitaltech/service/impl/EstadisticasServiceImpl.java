@@ -0,0 +1,101 @@
+package com.universidad.vitaltech.service.impl;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.count;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.facet;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.stereotype.Service;
+
+import com.universidad.vitaltech.dto.EstadisticasCitas;
+import com.universidad.vitaltech.dto.EstadisticasUsuarios;
+import com.universidad.vitaltech.model.Cita;
+import com.universidad.vitaltech.model.EstadoCita;
+import com.universidad.vitaltech.model.Rol;
+import com.universidad.vitaltech.model.Usuario;
+import com.universidad.vitaltech.service.EstadisticasService;
+
+/**
+ * Implementación de las estadísticas del sistema.
+ * Cada colección se resume con un solo $facet: el servidor recorre los documentos
+ * una vez y devuelve unos pocos grupos, asi que la memoria de la aplicación y
+ * los viajes a la base no dependen de cuantos usuarios o citas haya.
+ */
+@Service
+public class EstadisticasServiceImpl implements EstadisticasService {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public EstadisticasUsuarios obtenerEstadisticasUsuarios() {
+        TypedAggregation<Usuario> agregacion = newAggregation(Usuario.class,
+                facet(group("rol", "activo").count().as("cantidad")).as("porRol")
+                        .and(match(Criteria.where("fechaRegistro").gte(LocalDateTime.now().minusDays(30))),
+                                count().as("cantidad")).as("recientes"));
+        Document resultado = mongoTemplate.aggregate(agregacion, Document.class).getUniqueMappedResult();
+
+        Map<Rol, Long> activos = new EnumMap<>(Rol.class);
+        Map<Rol, Long> inactivos = new EnumMap<>(Rol.class);
+        for (Document grupo : grupos(resultado, "porRol")) {
+            Document clave = grupo.get("_id", Document.class);
+            Rol rol = valorDe(Rol.class, clave.getString("rol"));
+            if (rol != null) {
+                (Boolean.TRUE.equals(clave.getBoolean("activo")) ? activos : inactivos).put(rol, cantidad(grupo));
+            }
+        }
+        return new EstadisticasUsuarios(activos, inactivos, primeraCantidad(resultado, "recientes"));
+    }
+
+    @Override
+    public EstadisticasCitas obtenerEstadisticasCitas() {
+        TypedAggregation<Cita> agregacion = newAggregation(Cita.class,
+                facet(group("estado").count().as("cantidad")).as("porEstado")
+                        .and(match(Criteria.where("horario.fecha").is(LocalDate.now())),
+                                count().as("cantidad")).as("hoy"));
+        Document resultado = mongoTemplate.aggregate(agregacion, Document.class).getUniqueMappedResult();
+
+        Map<EstadoCita, Long> porEstado = new EnumMap<>(EstadoCita.class);
+        for (Document grupo : grupos(resultado, "porEstado")) {
+            EstadoCita estado = valorDe(EstadoCita.class, grupo.getString("_id"));
+            if (estado != null) {
+                porEstado.put(estado, cantidad(grupo));
+            }
+        }
+        return new EstadisticasCitas(porEstado, primeraCantidad(resultado, "hoy"));
+    }
+
+    private static List<Document> grupos(Document resultado, String faceta) {
+        return resultado == null ? List.of() : resultado.getList(faceta, Document.class, List.of());
+    }
+
+    // $count no devuelve documento cuando no hay coincidencias
+    private static long primeraCantidad(Document resultado, String faceta) {
+        List<Document> grupos = grupos(resultado, faceta);
+        return grupos.isEmpty() ? 0 : cantidad(grupos.get(0));
+    }
+
+    private static long cantidad(Document grupo) {
+        return grupo.get("cantidad", Number.class).longValue();
+    }
+
+    private static <E extends Enum<E>> E valorDe(Class<E> tipo, String nombre) {
+        try {
+            return nombre == null ? null : Enum.valueOf(tipo, nombre);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.universidad.vitaltech.service.impl;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.universidad.vitaltech.model.DiaFestivo;
+import com.universidad.vitaltech.repository.DiaFestivoRepository;
+import com.universidad.vitaltech.service.FestivoService;
+import com.universidad.vitaltech.service.SlotService;
+import com.universidad.vitaltech.service.cache.CalendarioFestivos;
+import com.universidad.vitaltech.service.concurrencia.VersionesAgenda;
+
+/**
+ * Implementación de los días festivos.
+ * Un festivo es un solo documento que se consulta al expandir los horarios de
+ * cualquier doctor, en lugar de copiarse en cada HorarioDisponible.
+ */
+@Service
+public class FestivoServiceImpl implements FestivoService {
+
+    @Autowired
+    private DiaFestivoRepository diaFestivoRepository;
+
+    @Autowired
+    private CalendarioFestivos calendarioFestivos;
+
+    @Autowired
+    private VersionesAgenda versionesAgenda;
+
+    @Autowired
+    private SlotService slotService;
+
+    @Override
+    public List<DiaFestivo> listarProximos() {
+        return diaFestivoRepository.findByFechaGreaterThanEqualOrderByFechaAsc(LocalDate.now());
+    }
+
+    @Override
+    public DiaFestivo agregar(DiaFestivo festivo) {
+        if (festivo.getFecha() == null) {
+            throw new RuntimeException("La fecha es obligatoria");
+        }
+        if (diaFestivoRepository.existsByFecha(festivo.getFecha())) {
+            throw new RuntimeException("Ya existe un festivo registrado en esa fecha");
+        }
+        festivo.setId(null);
+        festivo.setFechaCreacion(LocalDateTime.now());
+        DiaFestivo guardado = diaFestivoRepository.save(festivo);
+
+        calendarioFestivos.invalidar();
+        slotService.descartarLibres(guardado.getFecha());
+        versionesAgenda.registrarCambioGeneral();
+        return guardado;
+    }
+
+    @Override
+    public void eliminar(String id) {
+        diaFestivoRepository.findById(id).ifPresent(festivo -> {
+            diaFestivoRepository.delete(festivo);
+            calendarioFestivos.invalidar();
+            if (!festivo.getFecha().isBefore(LocalDate.now())
+                    && !festivo.getFecha().isAfter(slotService.obtenerFinVentana())) {
+                slotService.regenerarVentana();
+            }
+            versionesAgenda.registrarCambioGeneral();
+        });
+    }
+
+    @Override
+    public boolean esFestivo(LocalDate fecha) {
+        return calendarioFestivos.esFestivo(fecha);
+    }
+}
@@ -4,22 +4,59 @@ import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import com.universidad.vitaltech.dto.HorarioDetalle;
 import com.universidad.vitaltech.model.HorarioDisponible;
 import com.universidad.vitaltech.repository.HorarioDisponibleRepository;
 import com.universidad.vitaltech.service.HorarioDisponibleService;
+import com.universidad.vitaltech.service.SlotService;
+import com.universidad.vitaltech.service.cache.AgendaDia;
+import com.universidad.vitaltech.service.cache.AgendaSemanalCache;
+import com.universidad.vitaltech.service.cache.CalendarioFestivos;
+import com.universidad.vitaltech.service.concurrencia.VersionesAgenda;
 
 @Service
 public class HorarioDisponibleServiceImpl implements HorarioDisponibleService {
 
+    private static final Logger log = LoggerFactory.getLogger(HorarioDisponibleServiceImpl.class);
+
     @Autowired
     private HorarioDisponibleRepository horarioDisponibleRepository;
 
+    @Autowired
+    private VersionesAgenda versionesAgenda;
+
+    @Autowired
+    private SlotService slotService;
+
+    @Autowired
+    private CalendarioFestivos calendarioFestivos;
+
+    @Autowired
+    private AgendaSemanalCache agendaSemanalCache;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
     // CRUD
 
     @Override
@@ -32,7 +69,9 @@ public class HorarioDisponibleServiceImpl implements HorarioDisponibleService {
             throw new RuntimeException("La duración de la cita debe ser máximo 30 minutos");
         }
 
-        return horarioDisponibleRepository.save(horario);
+        HorarioDisponible guardado = horarioDisponibleRepository.save(horario);
+        agendaModificada(guardado.getDoctorId());
+        return guardado;
     }
 
     @Override
@@ -47,7 +86,11 @@ public class HorarioDisponibleServiceImpl implements HorarioDisponibleService {
 
     @Override
     public void eliminar(String id) {
+        Optional<HorarioDisponible> horarioOpt = buscarPorId(id);
         horarioDisponibleRepository.deleteById(id);
+        horarioOpt.ifPresent(horario -> {
+            agendaModificada(horario.getDoctorId());
+        });
     }
 
     // CONSULTAS POR DOCTOR Y DÍA
@@ -71,9 +114,9 @@ public class HorarioDisponibleServiceImpl implements HorarioDisponibleService {
 
     @Override
     public Optional<HorarioDisponible> buscarPorDoctorYDia(String doctorId, DayOfWeek diaSemana) {
-        List<HorarioDisponible> horarios = horarioDisponibleRepository.findByDoctorIdAndDiaSemanaAndActivoTrue(doctorId,
-                diaSemana);
-        return horarios.isEmpty() ? Optional.empty() : Optional.of(horarios.get(0));
+        // Primer turno del dia; la agenda completa del dia esta en AgendaSemanalCache
+        return horarioDisponibleRepository.findByDoctorIdAndDiaSemanaAndActivoTrue(doctorId, diaSemana).stream()
+                .min(Comparator.comparing(HorarioDisponible::getHoraInicio));
     }
 
     @Override
@@ -100,6 +143,7 @@ public class HorarioDisponibleServiceImpl implements HorarioDisponibleService {
         buscarPorId(id).ifPresent(horario -> {
             horario.setActivo(activo);
             horarioDisponibleRepository.save(horario);
+            agendaModificada(horario.getDoctorId());
         });
     }
 
@@ -108,9 +152,72 @@ public class HorarioDisponibleServiceImpl implements HorarioDisponibleService {
         buscarPorId(id).ifPresent(horario -> {
             horario.agregarFechaNoDisponible(fecha);
             horarioDisponibleRepository.save(horario);
+            agendaModificada(horario.getDoctorId());
         });
     }
 
+    @Override
+    public int bloquearRango(String doctorId, LocalDate desde, LocalDate hasta) {
+        if (desde == null || hasta == null || hasta.isBefore(desde)) {
+            throw new RuntimeException("La fecha final debe ser posterior a la inicial");
+        }
+        List<HorarioDisponible> horarios = horarioDisponibleRepository.findByDoctorId(doctorId);
+        if (horarios.isEmpty()) {
+            return 0;
+        }
+
+        // Los rangos se fusionan en memoria y se escriben todos en un solo bulk
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, HorarioDisponible.class);
+        LocalDate hoy = LocalDate.now();
+        for (HorarioDisponible horario : horarios) {
+            // Los rangos ya vencidos no vuelven a consultarse
+            if (horario.getRangosNoDisponibles() != null) {
+                horario.getRangosNoDisponibles().removeIf(rango -> rango.getHasta().isBefore(hoy));
+            }
+            horario.agregarRangoNoDisponible(desde, hasta);
+            bulk.updateOne(new Query(Criteria.where("_id").is(horario.getId())),
+                    Update.update("rangosNoDisponibles", horario.getRangosNoDisponibles()));
+        }
+        bulk.execute();
+
+        agendaModificada(doctorId);
+        return horarios.size();
+    }
+
+    /**
+     * Convierte las fechasNoDisponibles de versiones anteriores en rangos.
+     * Corre antes de generar los slots para que la ventana ya respete las excepciones.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void migrarFechasNoDisponibles() {
+        try {
+            Query anteriores = new Query(Criteria.where("fechasNoDisponibles").exists(true));
+            anteriores.fields().include("fechasNoDisponibles", "rangosNoDisponibles");
+            List<Document> documentos = mongoTemplate.find(anteriores, Document.class,
+                    mongoTemplate.getCollectionName(HorarioDisponible.class));
+            if (documentos.isEmpty()) {
+                return;
+            }
+
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, HorarioDisponible.class);
+            for (Document documento : documentos) {
+                HorarioDisponible horario = mongoTemplate.getConverter().read(HorarioDisponible.class, documento);
+                for (Date fecha : documento.getList("fechasNoDisponibles", Date.class, List.of())) {
+                    LocalDate dia = mongoTemplate.getConverter().getConversionService().convert(fecha, LocalDate.class);
+                    horario.agregarFechaNoDisponible(dia);
+                }
+                bulk.updateOne(new Query(Criteria.where("_id").is(documento.get("_id"))),
+                        new Update().set("rangosNoDisponibles", horario.getRangosNoDisponibles())
+                                .unset("fechasNoDisponibles"));
+            }
+            bulk.execute();
+            log.info("{} horarios migrados a rangos de fechas no disponibles", documentos.size());
+        } catch (Exception e) {
+            log.warn("No se pudieron migrar las fechas no disponibles: {}", e.getMessage());
+        }
+    }
+
     // --------------------------------------------------
     // HORARIOS GENERADOS
     // --------------------------------------------------
@@ -130,18 +237,18 @@ public class HorarioDisponibleServiceImpl implements HorarioDisponibleService {
     // CONSULTAS CON DETALLES
 
     @Override
-    public List<Object> obtenerHorariosActivosConDetalles() {
+    public List<HorarioDetalle> obtenerHorariosActivosConDetalles() {
         return horarioDisponibleRepository.findHorariosActivosConDetallesDoctor();
     }
 
     @Override
-    public List<Object> obtenerHorariosPorDoctorConDetalles(String doctorId) {
+    public List<HorarioDetalle> obtenerHorariosPorDoctorConDetalles(String doctorId) {
         return horarioDisponibleRepository.findHorariosConDetallesByDoctorId(doctorId);
     }
 
     @Override
-    public List<Object> obtenerHorariosPorDiaConDetalles(DayOfWeek diaSemana) {
-        return horarioDisponibleRepository.findHorariosConDetallesByDiaSemana(diaSemana.toString());
+    public List<HorarioDetalle> obtenerHorariosPorDiaConDetalles(DayOfWeek diaSemana) {
+        return horarioDisponibleRepository.findHorariosConDetallesByDiaSemana(diaSemana);
     }
 
     @Override
@@ -153,44 +260,16 @@ public class HorarioDisponibleServiceImpl implements HorarioDisponibleService {
 
     @Override
     public List<LocalTime> obtenerHorariosDisponibles(String doctorId, LocalDate fecha) {
-        List<LocalTime> horariosDisponibles = new ArrayList<>();
-        DayOfWeek diaSemana = fecha.getDayOfWeek();
-
-        Optional<HorarioDisponible> horarioOpt = buscarPorDoctorYDia(doctorId, diaSemana);
-
-        if (horarioOpt.isEmpty()) {
-            return horariosDisponibles;
-        }
-
-        HorarioDisponible horario = horarioOpt.get();
-
-        if (!horario.estaDisponibleEnFecha(fecha)) {
-            return horariosDisponibles;
+        if (calendarioFestivos.esFestivo(fecha)) {
+            return new ArrayList<>();
         }
-
-        return horario.generarHorariosDisponibles();
+        return new ArrayList<>(agendaSemanalCache.obtener(doctorId, fecha.getDayOfWeek()).horasDelDia(fecha).keySet());
     }
 
     @Override
     public boolean existeHorarioDisponible(String doctorId, LocalDate fecha, LocalTime horaInicio) {
-        DayOfWeek diaSemana = fecha.getDayOfWeek();
-        Optional<HorarioDisponible> horarioOpt = buscarPorDoctorYDia(doctorId, diaSemana);
-
-        if (horarioOpt.isEmpty()) {
-            return false;
-        }
-
-        HorarioDisponible horario = horarioOpt.get();
-
-        if (!horario.estaDisponibleEnFecha(fecha)) {
-            return false;
-        }
-
-        if (horaInicio.isBefore(horario.getHoraInicio()) || horaInicio.isAfter(horario.getHoraFin())) {
-            return false;
-        }
-
-        return horario.generarHorariosDisponibles().contains(horaInicio);
+        return !calendarioFestivos.esFestivo(fecha)
+                && agendaSemanalCache.obtener(doctorId, fecha.getDayOfWeek()).ofreceHora(fecha, horaInicio);
     }
 
     @Override
@@ -205,24 +284,19 @@ public class HorarioDisponibleServiceImpl implements HorarioDisponibleService {
     public boolean validarHorarioCita(
             String doctorId, LocalDate fecha, LocalTime horaInicio, LocalTime horaFin) {
 
-        if (!existeHorarioDisponible(doctorId, fecha, horaInicio)) {
-            return false;
-        }
-
         long duracion = java.time.Duration.between(horaInicio, horaFin).toMinutes();
-        if (duracion <= 0 || duracion > 30) {
-            return false;
-        }
-
-        DayOfWeek diaSemana = fecha.getDayOfWeek();
-        Optional<HorarioDisponible> horarioOpt = buscarPorDoctorYDia(doctorId, diaSemana);
-
-        if (horarioOpt.isEmpty()) {
+        if (duracion <= 0 || duracion > 30 || calendarioFestivos.esFestivo(fecha)) {
             return false;
         }
 
-        HorarioDisponible horario = horarioOpt.get();
+        // Una sola consulta a la agenda del dia (todos los turnos)
+        AgendaDia agenda = agendaSemanalCache.obtener(doctorId, fecha.getDayOfWeek());
+        return agenda.ofreceHora(fecha, horaInicio) && agenda.cubre(fecha, horaInicio, horaFin);
+    }
 
-        return !horaFin.isAfter(horario.getHoraFin());
+    private void agendaModificada(String doctorId) {
+        agendaSemanalCache.invalidar(doctorId);
+        slotService.regenerarAgenda(doctorId);
+        versionesAgenda.registrarCambio(doctorId);
     }
 }
@@ -0,0 +1,173 @@
+package com.universidad.vitaltech.service.impl;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.universidad.vitaltech.model.Cita;
+import com.universidad.vitaltech.model.EntradaListaEspera;
+import com.universidad.vitaltech.model.EstadoListaEspera;
+import com.universidad.vitaltech.model.Usuario;
+import com.universidad.vitaltech.model.embedded.Horario;
+import com.universidad.vitaltech.repository.ListaEsperaRepository;
+import com.universidad.vitaltech.repository.UsuarioRepository;
+import com.universidad.vitaltech.service.CitaService;
+import com.universidad.vitaltech.service.ListaEsperaService;
+
+/**
+ * Implementación de la lista de espera.
+ * La busqueda del paciente a asignar es una sola consulta sobre los indices
+ * (doctorId | especialidad, estado, fechaDesde), y la entrada se toma con
+ * findAndModify para que dos cancelaciones simultaneas no asignen la misma. La
+ * misma escritura deja en la entrada el ID de la cita que se va a crear.
+ */
+@Service
+public class ListaEsperaServiceImpl implements ListaEsperaService {
+
+    private static final Logger log = LoggerFactory.getLogger(ListaEsperaServiceImpl.class);
+
+    // Entradas que se prueban para un mismo horario liberado antes de dejarlo libre
+    private static final int ENTRADAS_POR_HORARIO = 3;
+
+    @Autowired
+    private ListaEsperaRepository listaEsperaRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private CitaService citaService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public EntradaListaEspera inscribir(EntradaListaEspera entrada) {
+        if (entrada.getFechaHasta().isBefore(entrada.getFechaDesde())) {
+            throw new RuntimeException("La fecha final debe ser posterior a la inicial");
+        }
+        if (entrada.getDoctorId() == null && entrada.getEspecialidad() == null) {
+            throw new RuntimeException("Debe indicar un doctor o una especialidad");
+        }
+        entrada.setId(null);
+        entrada.setEstado(EstadoListaEspera.ESPERANDO);
+        entrada.setFechaCreacion(LocalDateTime.now());
+        return listaEsperaRepository.save(entrada);
+    }
+
+    @Override
+    public List<EntradaListaEspera> listarPorPaciente(String pacienteId) {
+        return listaEsperaRepository.findByPacienteIdOrderByFechaCreacionDesc(pacienteId);
+    }
+
+    @Override
+    public void cancelar(String entradaId, String pacienteId) {
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(entradaId)
+                .and("pacienteId").is(pacienteId)
+                .and("estado").is(EstadoListaEspera.ESPERANDO)),
+                Update.update("estado", EstadoListaEspera.CANCELADA), EntradaListaEspera.class);
+    }
+
+    @Override
+    public Optional<Cita> asignarHorarioLiberado(Cita cancelada) {
+        Horario horario = cancelada.getHorario();
+        if (horario == null || horario.getFecha() == null || yaPaso(horario)) {
+            return Optional.empty();
+        }
+
+        String especialidad = usuarioRepository.findById(cancelada.getDoctorId())
+                .map(Usuario::getEspecialidad)
+                .orElse(null);
+
+        // Si una entrada no consigue el horario se prueba con la siguiente, sin repetir entradas
+        List<String> probadas = new ArrayList<>();
+        for (int i = 0; i < ENTRADAS_POR_HORARIO; i++) {
+            // La cita lleva su ID desde antes para dejarlo en la entrada con la misma escritura
+            String citaId = new ObjectId().toHexString();
+            EntradaListaEspera entrada = mongoTemplate.findAndModify(
+                    coincidentes(cancelada, especialidad, probadas),
+                    new Update().set("estado", EstadoListaEspera.ASIGNADA)
+                            .set("citaId", citaId)
+                            .set("fechaAsignacion", LocalDateTime.now()),
+                    FindAndModifyOptions.options().returnNew(true), EntradaListaEspera.class);
+            if (entrada == null) {
+                return Optional.empty();
+            }
+            probadas.add(entrada.getId());
+
+            Cita cita = new Cita();
+            cita.setId(citaId);
+            cita.setPacienteId(entrada.getPacienteId());
+            cita.setDoctorId(cancelada.getDoctorId());
+            cita.setHorario(new Horario(horario.getFecha(), horario.getHoraInicio(), horario.getHoraFin()));
+            cita.setMotivoConsulta(entrada.getMotivoConsulta() != null
+                    ? entrada.getMotivoConsulta()
+                    : "Asignada desde la lista de espera");
+            cita.setCreadaPor(entrada.getPacienteId());
+
+            Optional<Cita> reservada = Optional.empty();
+            try {
+                reservada = citaService.reservar(cita);
+            } finally {
+                // Rechazada o con error, la entrada vuelve a la lista
+                if (reservada.isEmpty()) {
+                    devolverALaLista(entrada.getId(), citaId);
+                }
+            }
+            if (reservada.isPresent()) {
+                log.info("Horario {} del doctor {} asignado al paciente {} desde la lista de espera",
+                        horario, cancelada.getDoctorId(), entrada.getPacienteId());
+                return reservada;
+            }
+            log.debug("El horario {} del doctor {} no se pudo asignar a la entrada {}", horario,
+                    cancelada.getDoctorId(), entrada.getId());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Primero en la lista (por antiguedad) que espere a ese doctor o a su especialidad
+     * en esa fecha, sin las entradas ya probadas
+     */
+    private static Query coincidentes(Cita cancelada, String especialidad, List<String> probadas) {
+        LocalDate fecha = cancelada.getHorario().getFecha();
+        return new Query(Criteria.where("estado").is(EstadoListaEspera.ESPERANDO)
+                .and("fechaDesde").lte(fecha)
+                .and("fechaHasta").gte(fecha)
+                .and("pacienteId").ne(cancelada.getPacienteId())
+                .and("_id").nin(probadas)
+                .orOperator(Criteria.where("doctorId").is(cancelada.getDoctorId()),
+                        Criteria.where("doctorId").is(null).and("especialidad").is(especialidad)))
+                .with(Sort.by("fechaCreacion"));
+    }
+
+    /**
+     * Deshace la asignacion solo si la entrada sigue marcada con la cita que no se creo
+     */
+    private void devolverALaLista(String entradaId, String citaId) {
+        mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(entradaId).and("citaId").is(citaId)),
+                new Update().set("estado", EstadoListaEspera.ESPERANDO).unset("citaId").unset("fechaAsignacion"),
+                EntradaListaEspera.class);
+    }
+
+    private static boolean yaPaso(Horario horario) {
+        LocalDate hoy = LocalDate.now();
+        return horario.getFecha().isBefore(hoy)
+                || (horario.getFecha().equals(hoy) && horario.getHoraInicio().isBefore(LocalTime.now()));
+    }
+}
@@ -0,0 +1,310 @@
+package com.universidad.vitaltech.service.impl;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.match;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.universidad.vitaltech.model.Cita;
+import com.universidad.vitaltech.model.EstadoCita;
+import com.universidad.vitaltech.model.ResumenDiarioCitas;
+import com.universidad.vitaltech.model.embedded.Horario;
+import com.universidad.vitaltech.repository.ResumenDiarioCitasRepository;
+import com.universidad.vitaltech.service.ResumenDiarioService;
+import com.universidad.vitaltech.service.concurrencia.TurnosTareas;
+
+@Service
+public class ResumenDiarioServiceImpl implements ResumenDiarioService {
+
+    private static final Logger log = LoggerFactory.getLogger(ResumenDiarioServiceImpl.class);
+
+    private static final String COLECCION = "citas_daily_rollup";
+
+    // Turno de la reconstruccion: un solo nodo la corre cada noche o al arrancar
+    private static final String TAREA_RECONSTRUCCION = "resumen-diario";
+    private static final Duration TURNO_RECONSTRUCCION = Duration.ofHours(1);
+
+    @Autowired
+    private ResumenDiarioCitasRepository resumenDiarioCitasRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private TurnosTareas turnosTareas;
+
+    // Dias hacia atras que se recalculan cada noche (citas guardadas sin pasar por el servicio)
+    @Value("${app.resumen-diario.dias-reconciliar:7}")
+    private int diasReconciliar;
+
+    // Cambios pendientes de escribir en un resumen: campo -> incremento
+    private record Ajuste(String doctorId, LocalDate fecha, Map<String, Long> incrementos) {
+    }
+
+    @Override
+    public void citasCreadas(List<Cita> citas) {
+        Map<String, Ajuste> ajustes = new LinkedHashMap<>();
+        citas.forEach(cita -> sumar(ajustes, cita, cita.getEstado(), 1));
+        escribir(ajustes);
+    }
+
+    @Override
+    public void citaEliminada(Cita cita) {
+        Map<String, Ajuste> ajustes = new LinkedHashMap<>();
+        sumar(ajustes, cita, cita.getEstado(), -1);
+        escribir(ajustes);
+    }
+
+    @Override
+    public void citaModificada(Cita anterior, Cita actual) {
+        Map<String, Ajuste> ajustes = new LinkedHashMap<>();
+        sumar(ajustes, anterior, anterior.getEstado(), -1);
+        sumar(ajustes, actual, actual.getEstado(), 1);
+        escribir(ajustes);
+    }
+
+    @Override
+    public void estadoCambiado(Cita cita, EstadoCita estadoAnterior) {
+        Map<String, Ajuste> ajustes = new LinkedHashMap<>();
+        sumar(ajustes, cita, estadoAnterior, -1);
+        sumar(ajustes, cita, cita.getEstado(), 1);
+        escribir(ajustes);
+    }
+
+    @Override
+    public List<ResumenDiarioCitas> listarPorDoctor(String doctorId, LocalDate desde, LocalDate hasta) {
+        return resumenDiarioCitasRepository.findByRangoDeClaves(ResumenDiarioCitas.clave(doctorId, desde),
+                ResumenDiarioCitas.clave(doctorId, hasta));
+    }
+
+    @Override
+    public List<ResumenDiarioCitas> listarPorRango(LocalDate desde, LocalDate hasta) {
+        return resumenDiarioCitasRepository.findByRangoFechas(desde, hasta);
+    }
+
+    /**
+     * Agrupa las citas por doctor y dia en Mongo y escribe los resumenes con $merge,
+     * sin traer citas a la aplicacion. Los resumenes no se borran antes, asi los
+     * reportes nunca ven el rango vacio: cada resumen se reemplaza en su lugar y al
+     * final se borran solo los del rango que la agregacion no reescribio (dias que
+     * ya no tienen citas).
+     * Un resumen que recibio un $inc despues de empezar la reconstruccion se deja
+     * como esta: la agregacion pudo leer las citas antes de ese cambio y reemplazarlo
+     * lo perderia. Queda corregido en la siguiente reconstruccion.
+     */
+    @Override
+    public void reconstruir(LocalDate desde, LocalDate hasta) {
+        LocalDateTime inicio = LocalDateTime.now();
+
+        TypedAggregation<Cita> agregacion = newAggregation(Cita.class,
+                match(rangoDeFechas("horario.fecha", desde, hasta).and("doctorId").ne(null)),
+                contexto -> new Document("$group", agrupacionPorDoctorYDia()),
+                contexto -> new Document("$project", proyeccionDelResumen(inicio)),
+                contexto -> new Document("$merge", fusionConResumenes(inicio)));
+        mongoTemplate.aggregate(agregacion, Document.class);
+
+        long descartados = mongoTemplate.remove(sinReconstruir(desde, hasta, inicio), ResumenDiarioCitas.class)
+                .getDeletedCount();
+
+        log.info("Resúmenes diarios de citas reconstruidos desde {} hasta {} ({} días sin citas descartados)",
+                desde != null ? desde : "el inicio", hasta != null ? hasta : "el final", descartados);
+    }
+
+    /**
+     * Recalcula los ultimos dias y los futuros cada noche, en un solo nodo
+     */
+    @Scheduled(cron = "${app.resumen-diario.cron:0 45 0 * * *}")
+    public void reconciliarRecientes() {
+        if (!turnosTareas.tomar(TAREA_RECONSTRUCCION, TURNO_RECONSTRUCCION)) {
+            log.debug("Otro nodo reconstruye los resúmenes diarios de citas");
+            return;
+        }
+        reconstruir(LocalDate.now().minusDays(diasReconciliar), null);
+    }
+
+    /**
+     * Carga la historia completa la primera vez (la coleccion esta vacia) y si no,
+     * solo los dias recientes (despues de DataLoader, que guarda directamente).
+     * Si varios nodos arrancan juntos, solo uno la corre.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarAlIniciar() {
+        try {
+            if (mongoTemplate.estimatedCount(ResumenDiarioCitas.class) > 0) {
+                reconciliarRecientes();
+            } else if (turnosTareas.tomar(TAREA_RECONSTRUCCION, TURNO_RECONSTRUCCION)) {
+                reconstruir(null, null);
+            }
+        } catch (Exception e) {
+            log.warn("No se pudieron reconstruir los resúmenes diarios de citas: {}", e.getMessage());
+        }
+    }
+
+    private static void sumar(Map<String, Ajuste> ajustes, Cita cita, EstadoCita estado, long signo) {
+        Horario horario = cita.getHorario();
+        if (cita.getDoctorId() == null || horario == null || horario.getFecha() == null || estado == null) {
+            return;
+        }
+        Ajuste ajuste = ajustes.computeIfAbsent(ResumenDiarioCitas.clave(cita.getDoctorId(), horario.getFecha()),
+                clave -> new Ajuste(cita.getDoctorId(), horario.getFecha(), new LinkedHashMap<>()));
+        ajuste.incrementos().merge("estados." + estado.name(), signo, Long::sum);
+        ajuste.incrementos().merge("total", signo, Long::sum);
+        ajuste.incrementos().merge("minutosReservados", signo * minutosReservados(horario, estado), Long::sum);
+    }
+
+    /**
+     * Un $inc con upsert por resumen afectado, todos en una sola escritura. Si falla
+     * no se interrumpe la operacion de la cita: la reconstruccion nocturna lo corrige.
+     */
+    private void escribir(Map<String, Ajuste> ajustes) {
+        BulkOperations bulk = null;
+        for (Map.Entry<String, Ajuste> entrada : ajustes.entrySet()) {
+            Ajuste ajuste = entrada.getValue();
+            Update update = new Update()
+                    .setOnInsert("doctorId", ajuste.doctorId())
+                    .setOnInsert("fecha", ajuste.fecha())
+                    .set("actualizadoEn", LocalDateTime.now());
+            boolean cambia = false;
+            for (Map.Entry<String, Long> incremento : ajuste.incrementos().entrySet()) {
+                if (incremento.getValue() != 0) {
+                    update.inc(incremento.getKey(), incremento.getValue());
+                    cambia = true;
+                }
+            }
+            if (!cambia) {
+                continue;
+            }
+            if (bulk == null) {
+                bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ResumenDiarioCitas.class);
+            }
+            bulk.upsert(new Query(Criteria.where("_id").is(entrada.getKey())), update);
+        }
+
+        if (bulk == null) {
+            return;
+        }
+        try {
+            bulk.execute();
+        } catch (RuntimeException e) {
+            log.warn("No se pudo actualizar el resumen diario de citas: {}", e.getMessage());
+        }
+    }
+
+    private static long minutosReservados(Horario horario, EstadoCita estado) {
+        if (estado == EstadoCita.CANCELADA || horario.getHoraInicio() == null || horario.getHoraFin() == null) {
+            return 0;
+        }
+        return Duration.between(horario.getHoraInicio(), horario.getHoraFin()).toMinutes();
+    }
+
+    private static Criteria rangoDeFechas(String campo, LocalDate desde, LocalDate hasta) {
+        Criteria criterio = Criteria.where(campo);
+        if (desde == null && hasta == null) {
+            return criterio.ne(null);
+        }
+        if (desde != null) {
+            criterio = criterio.gte(desde);
+        }
+        if (hasta != null) {
+            criterio = criterio.lte(hasta);
+        }
+        return criterio;
+    }
+
+    /**
+     * Un grupo por doctor y dia con el mismo _id que usan los $inc. LocalDate se guarda
+     * como medianoche de la zona del servidor, por eso el dia se formatea en esa zona;
+     * las horas se guardan como texto "HH:mm" y se leen como fechas del mismo dia para restarlas.
+     */
+    private static Document agrupacionPorDoctorYDia() {
+        Document dia = new Document("$dateToString", new Document("format", "%Y-%m-%d")
+                .append("date", "$horario.fecha")
+                .append("timezone", ZoneId.systemDefault().getId()));
+        Document duracion = new Document("$toLong", new Document("$divide", List.of(
+                new Document("$subtract", List.of(comoFecha("$horario.horaFin"), comoFecha("$horario.horaInicio"))),
+                60000)));
+
+        Document grupo = new Document("_id", new Document("$concat", List.of("$doctorId", "|", dia)))
+                .append("doctorId", new Document("$first", "$doctorId"))
+                .append("fecha", new Document("$first", "$horario.fecha"))
+                .append("total", new Document("$sum", 1))
+                .append("minutosReservados", new Document("$sum", new Document("$cond", List.of(
+                        new Document("$eq", List.of("$estado", EstadoCita.CANCELADA.name())), 0, duracion))));
+        for (EstadoCita estado : EstadoCita.values()) {
+            grupo.append(estado.name(), new Document("$sum", new Document("$cond", List.of(
+                    new Document("$eq", List.of("$estado", estado.name())), 1, 0))));
+        }
+        return grupo;
+    }
+
+    private static Document comoFecha(String hora) {
+        return new Document("$dateFromString", new Document("dateString", hora)
+                .append("format", "%H:%M")
+                .append("onNull", null));
+    }
+
+    private static Document proyeccionDelResumen(LocalDateTime inicio) {
+        Document estados = new Document();
+        for (EstadoCita estado : EstadoCita.values()) {
+            estados.append(estado.name(), "$" + estado.name());
+        }
+        return new Document("doctorId", 1)
+                .append("fecha", 1)
+                .append("estados", estados)
+                .append("total", 1)
+                .append("minutosReservados", 1)
+                .append("reconstruidoEn", new Document("$literal", comoDate(inicio)));
+    }
+
+    /**
+     * Reemplaza el resumen guardado salvo que un $inc lo haya tocado despues de inicio
+     */
+    static Document fusionConResumenes(LocalDateTime inicio) {
+        Document tocadoDespues = new Document("$gt", List.of("$actualizadoEn", comoDate(inicio)));
+        Document reemplazo = new Document("$cond", List.of(tocadoDespues, "$$ROOT", "$$new"));
+        return new Document("into", COLECCION)
+                .append("on", "_id")
+                .append("whenMatched", List.of(new Document("$replaceWith", reemplazo)))
+                .append("whenNotMatched", "insert");
+    }
+
+    /**
+     * Resumenes del rango que la agregacion no escribio y que ningun $inc toco durante ella
+     */
+    static Query sinReconstruir(LocalDate desde, LocalDate hasta, LocalDateTime inicio) {
+        return new Query(rangoDeFechas("fecha", desde, hasta)
+                .andOperator(
+                        new Criteria().orOperator(Criteria.where("reconstruidoEn").exists(false),
+                                Criteria.where("reconstruidoEn").lt(inicio)),
+                        new Criteria().orOperator(Criteria.where("actualizadoEn").exists(false),
+                                Criteria.where("actualizadoEn").lt(inicio))));
+    }
+
+    // LocalDateTime se guarda como fecha en la zona del servidor; en las etapas escritas a mano se convierte igual
+    private static Date comoDate(LocalDateTime momento) {
+        return Date.from(momento.atZone(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -0,0 +1,118 @@
+package com.universidad.vitaltech.service.impl;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.universidad.vitaltech.model.RetencionHorario;
+import com.universidad.vitaltech.repository.RetencionHorarioRepository;
+import com.universidad.vitaltech.service.RetencionHorarioService;
+
+/**
+ * Implementación de las retenciones de horarios.
+ * El indice unico (doctorId, fecha, horaInicio) hace que solo un paciente pueda
+ * apartar un horario y el indice TTL sobre expiraEn las borra sin intervención
+ * de la aplicación.
+ */
+@Service
+public class RetencionHorarioServiceImpl implements RetencionHorarioService {
+
+    private static final Logger log = LoggerFactory.getLogger(RetencionHorarioServiceImpl.class);
+
+    // Minutos que dura una retención
+    @Value("${app.retenciones.minutos:5}")
+    private long minutosRetencion = 5;
+
+    @Autowired
+    private RetencionHorarioRepository retencionHorarioRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public Optional<RetencionHorario> retener(String doctorId, LocalDate fecha, LocalTime horaInicio,
+            LocalTime horaFin, String pacienteId) {
+        LocalDateTime ahora = LocalDateTime.now();
+
+        // Un paciente tiene a lo sumo un horario apartado
+        mongoTemplate.remove(new Query(Criteria.where("pacienteId").is(pacienteId)
+                .orOperator(Criteria.where("doctorId").ne(doctorId),
+                        Criteria.where("fecha").ne(fecha),
+                        Criteria.where("horaInicio").ne(horaInicio))),
+                RetencionHorario.class);
+
+        // Horario de otra duracion que se cruza con uno ya apartado
+        if (estaRetenidoPorOtro(doctorId, fecha, horaInicio, horaFin, pacienteId)) {
+            return Optional.empty();
+        }
+
+        // Se toma el horario si no existe retención, si es del mismo paciente o si ya vencio
+        // (el TTL puede tardar hasta un minuto en borrarla). Si otro la tiene vigente,
+        // el upsert intenta insertar y choca con el indice unico.
+        Query disponible = new Query(Criteria.where("doctorId").is(doctorId)
+                .and("fecha").is(fecha)
+                .and("horaInicio").is(horaInicio)
+                .orOperator(Criteria.where("pacienteId").is(pacienteId),
+                        Criteria.where("expiraEn").lte(ahora)));
+        Update update = new Update()
+                .set("pacienteId", pacienteId)
+                .set("horaFin", horaFin)
+                .set("expiraEn", ahora.plusMinutes(minutosRetencion));
+
+        try {
+            return Optional.of(mongoTemplate.findAndModify(disponible, update,
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), RetencionHorario.class));
+        } catch (DuplicateKeyException e) {
+            log.debug("Horario ya apartado: doctor {} el {} a las {}", doctorId, fecha, horaInicio);
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void liberar(String pacienteId) {
+        if (pacienteId != null) {
+            retencionHorarioRepository.deleteByPacienteId(pacienteId);
+        }
+    }
+
+    @Override
+    public List<RetencionHorario> listarRetenidosPorOtros(String doctorId, LocalDate fecha, String pacienteId) {
+        return retencionHorarioRepository.findVigentesByDoctorAndFecha(doctorId, fecha, LocalDateTime.now())
+                .stream()
+                .filter(retencion -> !retencion.getPacienteId().equals(pacienteId))
+                .toList();
+    }
+
+    @Override
+    public List<RetencionHorario> listarRetenidosPorOtros(Collection<String> doctorIds, LocalDate desde,
+            LocalDate hasta, String pacienteId) {
+        return retencionHorarioRepository
+                .findVigentesByDoctoresAndRangoFechas(doctorIds, desde, hasta, LocalDateTime.now())
+                .stream()
+                .filter(retencion -> !retencion.getPacienteId().equals(pacienteId))
+                .toList();
+    }
+
+    @Override
+    public boolean estaRetenidoPorOtro(String doctorId, LocalDate fecha, LocalTime horaInicio, LocalTime horaFin,
+            String pacienteId) {
+        return listarRetenidosPorOtros(doctorId, fecha, pacienteId).stream()
+                .anyMatch(retencion -> retencion.getHoraInicio().isBefore(horaFin)
+                        && retencion.getHoraFin().isAfter(horaInicio));
+    }
+}
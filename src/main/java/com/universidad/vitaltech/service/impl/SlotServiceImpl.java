@@ -0,0 +1,377 @@
+package com.universidad.vitaltech.service.impl;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.universidad.vitaltech.model.Cita;
+import com.universidad.vitaltech.model.EstadoSlot;
+import com.universidad.vitaltech.model.HorarioDisponible;
+import com.universidad.vitaltech.model.RetencionHorario;
+import com.universidad.vitaltech.model.Slot;
+import com.universidad.vitaltech.repository.CitaRepository;
+import com.universidad.vitaltech.repository.HorarioDisponibleRepository;
+import com.universidad.vitaltech.repository.SlotRepository;
+import com.universidad.vitaltech.service.SlotService;
+import com.universidad.vitaltech.service.cache.CalendarioFestivos;
+import com.universidad.vitaltech.service.concurrencia.TurnosTareas;
+
+/**
+ * Implementación del inventario de slots.
+ * Los slots se generan por adelantado para una ventana de semanas y se mantienen
+ * al dia desde los servicios de horarios y de citas, de modo que consultar la
+ * disponibilidad es un recorrido del indice (doctorId, fecha, horaInicio).
+ */
+@Service
+public class SlotServiceImpl implements SlotService {
+
+    private static final Logger log = LoggerFactory.getLogger(SlotServiceImpl.class);
+
+    // Cantidad de semanas hacia adelante con slots generados
+    @Value("${app.slots.semanas:8}")
+    private int semanasVentana = 8;
+
+    // Turno de la generacion de la ventana: un solo nodo la corre cada noche o al arrancar
+    private static final String TAREA_VENTANA = "slots-ventana";
+    private static final Duration TURNO_VENTANA = Duration.ofHours(1);
+
+    @Autowired
+    private SlotRepository slotRepository;
+
+    @Autowired
+    private HorarioDisponibleRepository horarioDisponibleRepository;
+
+    @Autowired
+    private CitaRepository citaRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CalendarioFestivos calendarioFestivos;
+
+    @Autowired
+    private TurnosTareas turnosTareas;
+
+    @Override
+    public void regenerarAgenda(String doctorId) {
+        LocalDate hoy = LocalDate.now();
+        LocalDate finVentana = obtenerFinVentana();
+
+        Map<DayOfWeek, List<HorarioDisponible>> plantillas = new HashMap<>();
+        for (HorarioDisponible horario : horarioDisponibleRepository.findByDoctorIdAndActivoTrue(doctorId)) {
+            plantillas.computeIfAbsent(horario.getDiaSemana(), dia -> new ArrayList<>()).add(horario);
+        }
+
+        // Las reservas posteriores a este momento no estan en la lista de citas que sigue
+        LocalDateTime ahora = LocalDateTime.now();
+        Map<LocalDate, List<Cita>> citasPorFecha = new HashMap<>();
+        Set<String> citasActivas = new HashSet<>();
+        for (Cita cita : citaRepository.findCitasActivasByDoctoresAndRangoFechas(List.of(doctorId), hoy, finVentana)) {
+            citasPorFecha.computeIfAbsent(cita.getHorario().getFecha(), fecha -> new ArrayList<>()).add(cita);
+            citasActivas.add(cita.getId());
+        }
+
+        // Slots que siguen reservados por citas canceladas, borradas o movidas fuera de la ventana
+        mongoTemplate.updateMulti(new Query(Criteria.where("doctorId").is(doctorId)
+                .and("fecha").gte(hoy).lte(finVentana)
+                .and("estado").is(EstadoSlot.RESERVADO)
+                .and("citaId").nin(citasActivas)
+                .and("fechaActualizacion").lt(ahora)),
+                new Update().set("estado", EstadoSlot.LIBRE).unset("citaId").set("fechaActualizacion", ahora),
+                Slot.class);
+
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Slot.class);
+        Set<String> generados = new HashSet<>();
+        int operaciones = 0;
+
+        for (LocalDate fecha = hoy; !fecha.isAfter(finVentana); fecha = fecha.plusDays(1)) {
+            if (calendarioFestivos.esFestivo(fecha)) {
+                continue;
+            }
+            List<Cita> citasDelDia = citasPorFecha.getOrDefault(fecha, List.of());
+
+            for (Map.Entry<LocalTime, LocalTime> hora : expandir(plantillas.get(fecha.getDayOfWeek()), fecha)
+                    .entrySet()) {
+                generados.add(clave(fecha, hora.getKey()));
+
+                Update update = new Update().set("horaFin", hora.getValue());
+                Cita ocupante = buscarCitaQueSeCruza(citasDelDia, hora.getKey(), hora.getValue());
+                if (ocupante != null) {
+                    // $max: una regeneracion mas lenta no atrasa la marca de una reserva posterior
+                    update.set("estado", EstadoSlot.RESERVADO).set("citaId", ocupante.getId())
+                            .max("fechaActualizacion", ahora);
+                } else {
+                    // Un slot existente conserva su estado y su marca (puede haberse reservado
+                    // mientras tanto, y la marca es la que protege esa reserva al liberar huerfanos)
+                    update.setOnInsert("estado", EstadoSlot.LIBRE).setOnInsert("fechaActualizacion", ahora);
+                }
+                bulk.upsert(porHora(doctorId, fecha, hora.getKey()), update);
+                operaciones++;
+            }
+        }
+
+        // Los slots libres que ya no salen de ningun horario se eliminan
+        for (Slot slot : slotRepository.findByDoctorAndRangoFechas(doctorId, hoy, finVentana)) {
+            if (slot.estaLibre() && !generados.contains(clave(slot.getFecha(), slot.getHoraInicio()))) {
+                bulk.remove(new Query(Criteria.where("_id").is(slot.getId())));
+                operaciones++;
+            }
+        }
+
+        if (operaciones > 0) {
+            bulk.execute();
+        }
+        log.debug("Slots del doctor {} regenerados hasta {} ({} operaciones)", doctorId, finVentana, operaciones);
+    }
+
+    @Override
+    public void regenerarVentana() {
+        slotRepository.deleteByFechaBefore(LocalDate.now());
+
+        Set<String> doctores = new HashSet<>();
+        horarioDisponibleRepository.findByActivoTrue().forEach(horario -> doctores.add(horario.getDoctorId()));
+        doctores.forEach(this::regenerarAgenda);
+
+        log.info("Ventana de slots generada para {} doctores hasta {}", doctores.size(), obtenerFinVentana());
+    }
+
+    /**
+     * Corre la ventana un dia mas cada noche, en un solo nodo
+     */
+    @Scheduled(cron = "${app.slots.cron:0 30 0 * * *}")
+    public void regenerarCadaNoche() {
+        regenerarEnTurno();
+    }
+
+    /**
+     * Genera la ventana al arrancar (despues de DataLoader, que guarda citas directamente).
+     * Sin slots no se puede reservar nada dentro de la ventana, asi que si falla el
+     * arranque se detiene en lugar de seguir sin agenda.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void generarAlIniciar() {
+        regenerarEnTurno();
+    }
+
+    /**
+     * Regenera la ventana si este nodo toma el turno. Si falla, suelta el turno para
+     * que otro nodo (o este mismo al reiniciar) la pueda generar sin esperar a que venza.
+     */
+    private void regenerarEnTurno() {
+        if (!turnosTareas.tomar(TAREA_VENTANA, TURNO_VENTANA)) {
+            log.debug("Otro nodo genera la ventana de slots");
+            return;
+        }
+        try {
+            regenerarVentana();
+        } catch (RuntimeException e) {
+            log.error("No se pudo generar la ventana de slots: {}", e.getMessage());
+            turnosTareas.soltar(TAREA_VENTANA);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean reservar(Cita cita) {
+        if (cita.getHorario().getFecha().isAfter(obtenerFinVentana())) {
+            return true;
+        }
+
+        // Todos los slots que toca la cita, de cualquier duracion
+        List<Slot> cruzados = mongoTemplate.find(queSeCruzan(cita.getDoctorId(), cita.getHorario().getFecha(),
+                cita.getHorario().getHoraInicio(), cita.getHorario().getHoraFin()).with(Sort.by("horaInicio")),
+                Slot.class);
+        if (!cubreLaCita(cruzados, cita.getHorario().getHoraInicio(), cita.getHorario().getHoraFin())) {
+            return false;
+        }
+        for (Slot slot : cruzados) {
+            if (!slot.estaLibre() && !cita.getId().equals(slot.getCitaId())) {
+                return false;
+            }
+        }
+
+        // Actualizaciones condicionales en orden de hora: dos reservas que se cruzan
+        // compiten por el primer slot comun y solo una lo encuentra LIBRE
+        for (Slot slot : cruzados) {
+            if (slot.estaLibre() && mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(slot.getId())
+                    .and("estado").is(EstadoSlot.LIBRE)), reservadoPor(cita), Slot.class).getModifiedCount() == 0) {
+                liberar(cita);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean estanLibres(String doctorId, LocalDate fecha, LocalTime horaInicio, LocalTime horaFin) {
+        List<Slot> cruzados = mongoTemplate.find(queSeCruzan(doctorId, fecha, horaInicio, horaFin)
+                .with(Sort.by("horaInicio")), Slot.class);
+        return cubreLaCita(cruzados, horaInicio, horaFin) && cruzados.stream().allMatch(Slot::estaLibre);
+    }
+
+    @Override
+    public void liberar(Cita cita) {
+        if (cita == null || cita.getId() == null) {
+            return;
+        }
+        Update update = new Update()
+                .set("estado", EstadoSlot.LIBRE)
+                .unset("citaId")
+                .set("fechaActualizacion", LocalDateTime.now());
+        mongoTemplate.updateMulti(new Query(Criteria.where("citaId").is(cita.getId())), update, Slot.class);
+    }
+
+    @Override
+    public void sincronizarCita(Cita cita) {
+        if (cita == null || cita.getHorario() == null) {
+            return;
+        }
+        liberar(cita);
+        if (!cita.estaCancelada() && !reservar(cita)) {
+            log.warn("La cita {} quedo en un slot que ya estaba reservado: {}", cita.getId(), cita.getHorario());
+        }
+    }
+
+    @Override
+    public List<Slot> buscarLibres(Collection<String> doctorIds, LocalDate desde, LocalDate hasta,
+            Collection<RetencionHorario> retenidos, int limite) {
+        LocalDate hoy = LocalDate.now();
+        if (desde.isBefore(hoy)) {
+            desde = hoy;
+        }
+
+        Criteria criteria = Criteria.where("doctorId").in(doctorIds)
+                .and("estado").is(EstadoSlot.LIBRE)
+                .and("fecha").gte(desde).lte(hasta);
+        if (desde.equals(hoy)) {
+            // Hoy solo cuentan las horas que no han pasado
+            criteria.orOperator(Criteria.where("fecha").gt(hoy), Criteria.where("horaInicio").gte(LocalTime.now()));
+        }
+        if (!retenidos.isEmpty()) {
+            // Se excluyen en la consulta para que el limite cuente solo horarios que se pueden tomar
+            criteria.norOperator(retenidos.stream()
+                    .map(retencion -> seCruzanCon(retencion.getDoctorId(), retencion.getFecha(),
+                            retencion.getHoraInicio(), retencion.getHoraFin()))
+                    .toArray(Criteria[]::new));
+        }
+
+        Query query = new Query(criteria).with(Sort.by("fecha", "horaInicio"));
+        if (limite > 0) {
+            query.limit(limite);
+        }
+        return mongoTemplate.find(query, Slot.class);
+    }
+
+    @Override
+    public void descartarLibres(LocalDate fecha) {
+        mongoTemplate.remove(new Query(Criteria.where("fecha").is(fecha).and("estado").is(EstadoSlot.LIBRE)),
+                Slot.class);
+    }
+
+    @Override
+    public LocalDate obtenerFinVentana() {
+        return LocalDate.now().plusWeeks(semanasVentana);
+    }
+
+    /**
+     * Horas de inicio y fin de los slots de un dia segun las plantillas de ese dia de la semana
+     */
+    private static TreeMap<LocalTime, LocalTime> expandir(List<HorarioDisponible> delDia, LocalDate fecha) {
+        TreeMap<LocalTime, LocalTime> horas = new TreeMap<>();
+        if (delDia == null) {
+            return horas;
+        }
+        for (HorarioDisponible plantilla : delDia) {
+            if (!plantilla.estaDisponibleEnFecha(fecha)) {
+                continue;
+            }
+            for (LocalTime hora : plantilla.generarHorariosDisponibles()) {
+                horas.putIfAbsent(hora, hora.plusMinutes(plantilla.getDuracionCita()));
+            }
+        }
+        return horas;
+    }
+
+    private static Cita buscarCitaQueSeCruza(List<Cita> citas, LocalTime inicio, LocalTime fin) {
+        for (Cita cita : citas) {
+            LocalTime inicioCita = cita.getHorario().getHoraInicio();
+            LocalTime finCita = cita.getHorario().getHoraFin() != null
+                    ? cita.getHorario().getHoraFin()
+                    : inicioCita.plusMinutes(1);
+            if (inicioCita.isBefore(fin) && finCita.isAfter(inicio)) {
+                return cita;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Hay un slot que empieza a la hora de la cita y los slots cubren, sin huecos, hasta su fin
+     */
+    private static boolean cubreLaCita(List<Slot> ordenados, LocalTime inicio, LocalTime fin) {
+        if (ordenados.isEmpty() || !ordenados.get(0).getHoraInicio().equals(inicio)) {
+            return false;
+        }
+        LocalTime cubierto = inicio;
+        for (Slot slot : ordenados) {
+            if (!slot.getHoraInicio().isAfter(cubierto) && slot.getHoraFin().isAfter(cubierto)) {
+                cubierto = slot.getHoraFin();
+            }
+        }
+        return !cubierto.isBefore(fin);
+    }
+
+    static Query porHora(String doctorId, LocalDate fecha, LocalTime horaInicio) {
+        return new Query(Criteria.where("doctorId").is(doctorId)
+                .and("fecha").is(fecha)
+                .and("horaInicio").is(horaInicio));
+    }
+
+    private static Query queSeCruzan(String doctorId, LocalDate fecha, LocalTime inicio, LocalTime fin) {
+        return new Query(seCruzanCon(doctorId, fecha, inicio, fin));
+    }
+
+    private static Criteria seCruzanCon(String doctorId, LocalDate fecha, LocalTime inicio, LocalTime fin) {
+        return Criteria.where("doctorId").is(doctorId)
+                .and("fecha").is(fecha)
+                .and("horaInicio").lt(fin)
+                .and("horaFin").gt(inicio);
+    }
+
+    private static Update reservadoPor(Cita cita) {
+        return new Update()
+                .set("estado", EstadoSlot.RESERVADO)
+                .set("citaId", cita.getId())
+                .set("fechaActualizacion", LocalDateTime.now());
+    }
+
+    private static String clave(LocalDate fecha, LocalTime hora) {
+        return fecha + "|" + hora;
+    }
+}
@@ -1,17 +1,45 @@
 package com.universidad.vitaltech.service.impl;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestContextHolder;
 
+import com.universidad.vitaltech.dto.FiltroUsuarios;
+import com.universidad.vitaltech.dto.UsuarioBasico;
+import com.universidad.vitaltech.dto.UsuarioResumen;
+import com.universidad.vitaltech.model.ClavesBusqueda;
 import com.universidad.vitaltech.model.Rol;
 import com.universidad.vitaltech.model.Usuario;
 import com.universidad.vitaltech.repository.UsuarioRepository;
 import com.universidad.vitaltech.service.UsuarioService;
+import com.universidad.vitaltech.service.cache.CargadorUsuarios;
+import com.universidad.vitaltech.service.cache.ContadoresVivos;
+import com.universidad.vitaltech.service.cache.DirectorioDoctores;
+import com.universidad.vitaltech.service.cache.SugerenciasPacientes;
 
 /**
  * Implementación del servicio de Usuario
@@ -19,9 +47,32 @@ import com.universidad.vitaltech.service.UsuarioService;
 @Service
 public class UsuarioServiceImpl implements UsuarioService {
 
+    private static final Logger log = LoggerFactory.getLogger(UsuarioServiceImpl.class);
+
+    private static final int MAXIMO_POR_PAGINA = 100;
+
+    // Caracteres necesarios para sugerir pacientes
+    private static final int MINIMO_SUGERENCIA = 2;
+
+    // Usuarios por escritura al generar las claves de búsqueda
+    private static final int LOTE_CLAVES = 1000;
+
     @Override
     public List<Usuario> buscarPorTermino(String termino) {
-        return usuarioRepository.buscarPorNombreCorreoODocumento(termino);
+        return usuarioRepository.buscarPorTermino(termino);
+    }
+    
+    @Override
+    public List<UsuarioResumen> buscarResumenesPorTermino(String termino, Rol rol) {
+        return usuarioRepository.buscarResumenesPorTermino(termino, rol);
+    }
+    
+    @Override
+    public List<UsuarioResumen> sugerirPacientes(String termino, int limite) {
+        if (String.join("", ClavesBusqueda.terminos(termino)).length() < MINIMO_SUGERENCIA) {
+            return List.of();
+        }
+        return sugerenciasPacientes.buscar(termino, limite);
     }
     
     @Autowired
@@ -30,6 +81,21 @@ public class UsuarioServiceImpl implements UsuarioService {
     @Autowired
     private PasswordEncoder passwordEncoder;
     
+    @Autowired
+    private DirectorioDoctores directorioDoctores;
+    
+    @Autowired
+    private CargadorUsuarios cargadorUsuarios;
+    
+    @Autowired
+    private SugerenciasPacientes sugerenciasPacientes;
+    
+    @Autowired
+    private ContadoresVivos contadoresVivos;
+    
+    @Autowired
+    private MongoTemplate mongoTemplate;
+    
     @Override
     public Usuario guardar(Usuario usuario) {
         // Encriptar contraseña si es nueva o cambió
@@ -38,13 +104,20 @@ public class UsuarioServiceImpl implements UsuarioService {
         }
         
         // Establecer fecha de registro si es nuevo
+        boolean eraPacienteActivo = false;
         if (usuario.getId() == null) {
             usuario.setFechaRegistro(LocalDateTime.now());
         } else {
             usuario.setUltimaActualizacion(LocalDateTime.now());
+            eraPacienteActivo = ContadoresVivos.esPacienteActivo(
+                    usuarioRepository.findById(usuario.getId()).orElse(null));
         }
         
-        return usuarioRepository.save(usuario);
+        Usuario guardado = usuarioRepository.save(usuario);
+        directorioDoctores.invalidar();
+        sugerenciasPacientes.invalidar();
+        contadoresVivos.pacienteModificado(eraPacienteActivo, ContadoresVivos.esPacienteActivo(guardado));
+        return guardado;
     }
     
     @Override
@@ -57,9 +130,43 @@ public class UsuarioServiceImpl implements UsuarioService {
         return usuarioRepository.findAll();
     }
     
+    @Override
+    public Page<UsuarioResumen> listarResumenes(FiltroUsuarios filtro, int pagina, int tamano, String orden,
+            boolean ascendente) {
+        Pageable pageable = PageRequest.of(Math.max(pagina, 0), Math.max(1, Math.min(tamano, MAXIMO_POR_PAGINA)),
+                ordenUsuarios(orden, ascendente ? Sort.Direction.ASC : Sort.Direction.DESC));
+        return usuarioRepository.buscarResumenes(filtro, pageable);
+    }
+    
+    @Override
+    public long contarUsuarios(FiltroUsuarios filtro) {
+        return usuarioRepository.contar(filtro);
+    }
+    
+    @Override
+    public long contarPacientesActivos() {
+        return contadoresVivos.pacientesActivos();
+    }
+    
+    // Cada orden coincide con un indice de Usuario; _id desempata los campos no unicos
+    private static Sort ordenUsuarios(String orden, Sort.Direction direccion) {
+        String[] campos = switch (orden == null ? "" : orden) {
+            case "documento" -> new String[] { "numeroDocumento" };
+            case "email" -> new String[] { "email" };
+            case "rol" -> new String[] { "rol", "activo", "apellido", "nombre", "_id" };
+            case "registro" -> new String[] { "fechaRegistro", "_id" };
+            default -> new String[] { "apellido", "nombre", "_id" };
+        };
+        return Sort.by(direccion, campos);
+    }
+    
     @Override
     public void eliminar(String id) {
+        boolean eraPacienteActivo = ContadoresVivos.esPacienteActivo(usuarioRepository.findById(id).orElse(null));
         usuarioRepository.deleteById(id);
+        directorioDoctores.invalidar();
+        sugerenciasPacientes.invalidar();
+        contadoresVivos.pacienteModificado(eraPacienteActivo, false);
     }
     
     @Override
@@ -83,18 +190,39 @@ public class UsuarioServiceImpl implements UsuarioService {
     }
     
     @Override
-    public List<Usuario> listarDoctoresActivos() {
-        return usuarioRepository.findDoctoresActivos();
+    public List<UsuarioResumen> listarDoctoresActivos() {
+        return directorioDoctores.listarActivos().stream().map(UsuarioResumen::de).toList();
     }
     
     @Override
-    public List<Usuario> listarPacientesActivos() {
-        return usuarioRepository.findPacientesActivos();
+    public Optional<Usuario> buscarDoctor(String doctorId) {
+        return directorioDoctores.buscar(doctorId);
+    }
+    
+    @Override
+    public Map<String, String> obtenerNombresDoctores(Collection<String> doctorIds) {
+        return directorioDoctores.nombres(doctorIds);
+    }
+    
+    @Override
+    public Map<String, UsuarioBasico> cargarBasicos(Collection<String> ids) {
+        if (RequestContextHolder.getRequestAttributes() != null) {
+            return cargadorUsuarios.obtener(ids);
+        }
+        // Fuera de una petición (tareas asíncronas) no hay cargador
+        Map<String, UsuarioBasico> resultado = new HashMap<>();
+        usuarioRepository.findBasicosByIdIn(ids).forEach(usuario -> resultado.put(usuario.id(), usuario));
+        return resultado;
+    }
+    
+    @Override
+    public List<UsuarioResumen> listarPacientesActivos() {
+        return usuarioRepository.findResumenesActivosByRol(Rol.PACIENTE);
     }
     
     @Override
     public List<Usuario> listarDoctoresPorEspecialidad(String especialidad) {
-        return usuarioRepository.findDoctoresByEspecialidad(especialidad);
+        return directorioDoctores.listarActivosPorEspecialidad(especialidad);
     }
     
     @Override
@@ -138,7 +266,10 @@ public class UsuarioServiceImpl implements UsuarioService {
                 usuarioActual.setInformacionMedica(usuario.getInformacionMedica());
             }
             
-            return usuarioRepository.save(usuarioActual);
+            Usuario guardado = usuarioRepository.save(usuarioActual);
+            directorioDoctores.invalidar();
+            sugerenciasPacientes.invalidar();
+            return guardado;
         }
         
         throw new RuntimeException("Usuario no encontrado");
@@ -149,15 +280,60 @@ public class UsuarioServiceImpl implements UsuarioService {
         Optional<Usuario> usuario = buscarPorId(id);
         if (usuario.isPresent()) {
             Usuario user = usuario.get();
+            boolean eraPacienteActivo = ContadoresVivos.esPacienteActivo(user);
             user.setActivo(activo);
             user.setUltimaActualizacion(LocalDateTime.now());
             usuarioRepository.save(user);
+            directorioDoctores.invalidar();
+            sugerenciasPacientes.invalidar();
+            contadoresVivos.pacienteModificado(eraPacienteActivo, ContadoresVivos.esPacienteActivo(user));
         }
     }
     
     @Override
     public List<Usuario> buscarPorNombre(String termino) {
-        return usuarioRepository.buscarPorNombreCorreoODocumento(termino);
+        return usuarioRepository.buscarPorTermino(termino);
+    }
+    
+    /**
+     * Calcula las claves de búsqueda de los usuarios guardados antes de que existieran
+     * (los nuevos las reciben al guardarse)
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void generarClavesBusqueda() {
+        try {
+            Query sinClaves = new Query(Criteria.where("clavesBusqueda").exists(false));
+            sinClaves.fields().include("nombre", "apellido", "email", "numeroDocumento");
+
+            List<Usuario> lote = new ArrayList<>();
+            int total = 0;
+            try (Stream<Usuario> usuarios = mongoTemplate.stream(sinClaves, Usuario.class)) {
+                Iterator<Usuario> iterador = usuarios.iterator();
+                while (iterador.hasNext()) {
+                    lote.add(iterador.next());
+                    if (lote.size() == LOTE_CLAVES || !iterador.hasNext()) {
+                        guardarClavesBusqueda(lote);
+                        total += lote.size();
+                        lote.clear();
+                    }
+                }
+            }
+            if (total > 0) {
+                log.info("Claves de búsqueda generadas para {} usuarios", total);
+            }
+        } catch (Exception e) {
+            log.warn("No se pudieron generar las claves de búsqueda: {}", e.getMessage());
+        }
+    }
+    
+    private void guardarClavesBusqueda(List<Usuario> lote) {
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Usuario.class);
+        for (Usuario usuario : lote) {
+            usuario.actualizarClavesBusqueda();
+            bulk.updateOne(new Query(Criteria.where("_id").is(usuario.getId())),
+                    Update.update("clavesBusqueda", usuario.getClavesBusqueda()));
+        }
+        bulk.execute();
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,113 @@
+package com.universidad.vitaltech.service.paralelo;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Ejecuta consultas independientes a la vez, cada una en su propio hilo virtual.
+ * Se usa dentro de un try-with-resources: ninguna consulta sobrevive al bloque,
+ * si una falla se cancelan las demas y el error llega a quien espera. Las tareas
+ * ven la petición y el usuario autenticado del hilo que las inicia, asi que los
+ * beans de petición (CargadorUsuarios) siguen funcionando.
+ *
+ * <pre>
+ * try (ConsultasParalelas consultas = new ConsultasParalelas()) {
+ *     Supplier&lt;List&lt;Cita&gt;&gt; citas = consultas.iniciar(() -&gt; citaService.listarPorDoctor(id));
+ *     Supplier&lt;Long&gt; total = consultas.iniciar(() -&gt; diagnosticoService.contarDiagnosticosPorDoctor(id));
+ *     consultas.esperar();
+ *     ...
+ * }
+ * </pre>
+ */
+public class ConsultasParalelas implements AutoCloseable {
+
+    private final ExecutorService hilos = Executors.newVirtualThreadPerTaskExecutor();
+    private final List<Future<?>> tareas = new CopyOnWriteArrayList<>();
+
+    // La primera falla es la que se informa; las demas suelen ser cancelaciones que ella provoco
+    private final AtomicReference<RuntimeException> primerError = new AtomicReference<>();
+
+    private final RequestAttributes peticion = RequestContextHolder.getRequestAttributes();
+    private final SecurityContext seguridad = SecurityContextHolder.getContext();
+
+    /**
+     * Inicia una consulta y devuelve cómo obtener su resultado (espera si aún no termina)
+     */
+    public <T> Supplier<T> iniciar(Callable<T> consulta) {
+        Future<T> tarea = hilos.submit(() -> conContexto(consulta));
+        tareas.add(tarea);
+        return () -> resultado(tarea);
+    }
+
+    /**
+     * Espera a que terminen todas las consultas y relanza la primera que fallo
+     */
+    public void esperar() {
+        try {
+            for (Future<?> tarea : tareas) {
+                resultado(tarea);
+            }
+        } catch (RuntimeException e) {
+            cancelarPendientes();
+            RuntimeException primero = primerError.get();
+            throw primero != null ? primero : e;
+        }
+    }
+
+    @Override
+    public void close() {
+        cancelarPendientes();
+        hilos.close();
+    }
+
+    private <T> T conContexto(Callable<T> consulta) throws Exception {
+        RequestContextHolder.setRequestAttributes(peticion);
+        SecurityContextHolder.setContext(seguridad);
+        try {
+            return consulta.call();
+        } catch (Exception e) {
+            // Las demas se cancelan en cuanto una falla, sin esperar a que alguien la consulte
+            primerError.compareAndSet(null, e instanceof RuntimeException runtime
+                    ? runtime
+                    : new RuntimeException("Error en una consulta paralela: " + e.getMessage(), e));
+            cancelarPendientes();
+            throw e;
+        } finally {
+            SecurityContextHolder.clearContext();
+            RequestContextHolder.resetRequestAttributes();
+        }
+    }
+
+    private void cancelarPendientes() {
+        tareas.forEach(tarea -> tarea.cancel(true));
+    }
+
+    private static <T> T resultado(Future<T> tarea) {
+        try {
+            return tarea.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new RuntimeException("Error en una consulta paralela: " + e.getCause().getMessage(), e.getCause());
+        } catch (CancellationException e) {
+            throw new RuntimeException("La consulta fue cancelada", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Se interrumpió la espera de las consultas", e);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.universidad.vitaltech.config;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.UncategorizedMongoDbException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class IndicesMongoConfigTest {
+
+    private IndicesMongoConfig config;
+    private IndexOperations indexOps;
+
+    @BeforeEach
+    public void setUp() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        indexOps = mock(IndexOperations.class);
+        MongoMappingContext contexto = new MongoMappingContext();
+        contexto.setSimpleTypeHolder(ConversionesMongoConfig.conversiones().getSimpleTypeHolder());
+        when(mongoTemplate.getConverter()).thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, contexto));
+        when(mongoTemplate.indexOps(any(Class.class))).thenReturn(indexOps);
+
+        config = new IndicesMongoConfig();
+        ReflectionTestUtils.setField(config, "mongoTemplate", mongoTemplate);
+    }
+
+    @Test
+    public void testIndiceUnicoQueFallaDetieneElArranque() {
+        when(indexOps.createIndex(argThat(indice -> nombre(indice).equals(IndicesMongoConfig.INDICE_HORARIO_CITA))))
+                .thenThrow(new UncategorizedMongoDbException("E11000 duplicate key", null));
+
+        RuntimeException error = assertThrows(RuntimeException.class, config::crearIndices);
+        assertTrue(error.getMessage().contains(IndicesMongoConfig.INDICE_HORARIO_CITA));
+    }
+
+    @Test
+    public void testIndiceNoUnicoQueFallaSoloSeRegistra() {
+        when(indexOps.createIndex(argThat(indice -> !indice.getIndexOptions().getBoolean("unique", false))))
+                .thenThrow(new UncategorizedMongoDbException("sin espacio", null));
+
+        assertDoesNotThrow(config::crearIndices);
+    }
+
+    private static String nombre(IndexDefinition indice) {
+        return String.valueOf(indice.getIndexOptions().get("name"));
+    }
+}
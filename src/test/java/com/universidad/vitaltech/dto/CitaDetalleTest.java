@@ -0,0 +1,53 @@
+package com.universidad.vitaltech.dto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import com.universidad.vitaltech.config.ConversionesMongoConfig;
+import com.universidad.vitaltech.model.EstadoCita;
+
+public class CitaDetalleTest {
+
+    private MappingMongoConverter converter;
+
+    @BeforeEach
+    public void setUp() {
+        MongoCustomConversions conversiones = ConversionesMongoConfig.conversiones();
+        MongoMappingContext contexto = new MongoMappingContext();
+        contexto.setSimpleTypeHolder(conversiones.getSimpleTypeHolder());
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, contexto);
+        converter.setCustomConversions(conversiones);
+        converter.afterPropertiesSet();
+    }
+
+    @Test
+    public void testLeeElResultadoProyectadoDelLookup() {
+        ObjectId citaId = new ObjectId();
+        ObjectId pacienteId = new ObjectId();
+        Document resultado = new Document("_id", citaId)
+                .append("estado", "PROGRAMADA")
+                .append("motivoConsulta", "Control")
+                .append("paciente", new Document("_id", pacienteId)
+                        .append("nombre", "Ana")
+                        .append("apellido", "Gomez")
+                        .append("numeroDocumento", "123"));
+
+        CitaDetalle detalle = converter.read(CitaDetalle.class, resultado);
+
+        assertEquals(citaId.toHexString(), detalle.id());
+        assertEquals(EstadoCita.PROGRAMADA, detalle.estado());
+        assertEquals(pacienteId.toHexString(), detalle.paciente().id());
+        assertEquals("Ana Gomez", detalle.paciente().nombreCompleto());
+        // Usuario eliminado: el $unwind conserva la cita sin doctor
+        assertNull(detalle.doctor());
+    }
+}
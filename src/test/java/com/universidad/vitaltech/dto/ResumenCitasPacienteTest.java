@@ -0,0 +1,69 @@
+package com.universidad.vitaltech.dto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalTime;
+import java.util.Date;
+import java.util.List;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import com.universidad.vitaltech.config.ConversionesMongoConfig;
+import com.universidad.vitaltech.model.EstadoCita;
+
+public class ResumenCitasPacienteTest {
+
+    private MappingMongoConverter converter;
+
+    @BeforeEach
+    public void setUp() {
+        MongoCustomConversions conversiones = ConversionesMongoConfig.conversiones();
+        MongoMappingContext contexto = new MongoMappingContext();
+        contexto.setSimpleTypeHolder(conversiones.getSimpleTypeHolder());
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, contexto);
+        converter.setCustomConversions(conversiones);
+        converter.afterPropertiesSet();
+    }
+
+    @Test
+    public void testLeeElResultadoDelFacet() {
+        ObjectId citaId = new ObjectId();
+        Document resultado = new Document("proximas", List.of(new Document("_id", citaId)
+                .append("pacienteId", "p1")
+                .append("estado", "CONFIRMADA")
+                .append("horario", new Document("fecha", new Date(0))
+                        .append("horaInicio", "09:00")
+                        .append("horaFin", "09:30"))))
+                .append("porEstado", List.of(
+                        new Document("_id", "PROGRAMADA").append("cantidad", 2),
+                        new Document("_id", "CONFIRMADA").append("cantidad", 1),
+                        new Document("_id", "CANCELADA").append("cantidad", 4)));
+
+        ResumenCitasPaciente resumen = converter.read(ResumenCitasPaciente.class, resultado);
+
+        assertEquals(citaId.toHexString(), resumen.proximas().get(0).getId());
+        assertEquals(EstadoCita.CONFIRMADA, resumen.proximas().get(0).getEstado());
+        // La hora se guarda como "HH:mm", que el $sort de proximas ordena como hora del dia
+        assertEquals(LocalTime.of(9, 0), resumen.proximas().get(0).getHorario().getHoraInicio());
+        assertEquals(7, resumen.total());
+        assertEquals(3, resumen.pendientes());
+        assertEquals(0, resumen.cantidad(EstadoCita.COMPLETADA));
+    }
+
+    @Test
+    public void testPacienteSinCitas() {
+        ResumenCitasPaciente resumen = converter.read(ResumenCitasPaciente.class,
+                new Document("proximas", List.of()).append("porEstado", List.of()));
+
+        assertTrue(resumen.proximas().isEmpty());
+        assertEquals(0, resumen.total());
+    }
+}
@@ -0,0 +1,35 @@
+package com.universidad.vitaltech.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class ClavesBusquedaTest {
+
+    @Test
+    public void testGeneraClavesSinTildesNiSeparadores() {
+        List<String> claves = ClavesBusqueda.generar("María-José", "Peña Ruiz", "MJ.Pena@Correo.com", "1.023.456");
+
+        assertEquals(List.of("1023456", "jose", "maria", "mariajose", "mj.pena@correo.com", "pena", "ruiz"), claves);
+    }
+
+    @Test
+    public void testLosTerminosCoincidenPorPrefijoConLasClaves() {
+        List<String> claves = ClavesBusqueda.generar("María-José", "Peña Ruiz", "mj.pena@correo.com", "1.023.456");
+        List<String> terminos = ClavesBusqueda.terminos("  PEÑ  marí 1.023 ");
+
+        // El más largo primero: es el que recorre el indice
+        assertEquals(List.of("1023", "mari", "pen"), terminos);
+        assertTrue(terminos.stream().allMatch(termino -> claves.stream()
+                .anyMatch(clave -> ClavesBusqueda.prefijo(termino).matcher(clave).find())));
+
+        // Anclado al inicio: "uiz" no es prefijo de ninguna clave
+        assertFalse(claves.stream().anyMatch(clave -> ClavesBusqueda.prefijo("uiz").matcher(clave).find()));
+        assertTrue(ClavesBusqueda.prefijo("mj.pena@").matcher("mj.pena@correo.com").find());
+        assertFalse(ClavesBusqueda.prefijo("mj.pena").matcher("mjxpena@correo.com").find());
+    }
+}
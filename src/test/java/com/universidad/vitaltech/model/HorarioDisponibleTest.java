@@ -0,0 +1,50 @@
+package com.universidad.vitaltech.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.Test;
+
+import com.universidad.vitaltech.model.embedded.RangoFechas;
+
+public class HorarioDisponibleTest {
+
+    private static final LocalDate BASE = LocalDate.of(2025, 7, 1);
+
+    @Test
+    public void testRangosQueSeCruzanOSeTocanSeFusionan() {
+        HorarioDisponible horario = new HorarioDisponible();
+        horario.agregarRangoNoDisponible(BASE.plusDays(10), BASE.plusDays(12));
+        horario.agregarRangoNoDisponible(BASE, BASE.plusDays(2));
+        horario.agregarFechaNoDisponible(BASE.plusDays(3));        // contiguo al primero
+        horario.agregarRangoNoDisponible(BASE.plusDays(11), BASE.plusDays(20));
+
+        assertEquals(2, horario.getRangosNoDisponibles().size());
+        assertEquals(new RangoFechas(BASE, BASE.plusDays(3)), horario.getRangosNoDisponibles().get(0));
+        assertEquals(new RangoFechas(BASE.plusDays(10), BASE.plusDays(20)), horario.getRangosNoDisponibles().get(1));
+
+        // Un rango que abarca a ambos deja uno solo
+        horario.agregarRangoNoDisponible(BASE.minusDays(1), BASE.plusDays(30));
+        assertEquals(1, horario.getRangosNoDisponibles().size());
+    }
+
+    @Test
+    public void testDisponibilidadEnFecha() {
+        HorarioDisponible horario = new HorarioDisponible();
+        assertTrue(horario.estaDisponibleEnFecha(BASE));
+
+        horario.agregarRangoNoDisponible(BASE.plusDays(5), BASE.plusDays(18));
+        horario.agregarFechaNoDisponible(BASE.plusDays(25));
+
+        assertTrue(horario.estaDisponibleEnFecha(BASE.plusDays(4)));
+        assertFalse(horario.estaDisponibleEnFecha(BASE.plusDays(5)));
+        assertFalse(horario.estaDisponibleEnFecha(BASE.plusDays(12)));
+        assertFalse(horario.estaDisponibleEnFecha(BASE.plusDays(18)));
+        assertTrue(horario.estaDisponibleEnFecha(BASE.plusDays(19)));
+        assertFalse(horario.estaDisponibleEnFecha(BASE.plusDays(25)));
+        assertTrue(horario.estaDisponibleEnFecha(BASE.plusDays(26)));
+    }
+}
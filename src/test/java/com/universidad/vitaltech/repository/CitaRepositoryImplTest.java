@@ -0,0 +1,125 @@
+package com.universidad.vitaltech.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.universidad.vitaltech.config.ConversionesMongoConfig;
+import com.universidad.vitaltech.dto.CursorCita;
+import com.universidad.vitaltech.model.Cita;
+import com.universidad.vitaltech.model.embedded.Horario;
+
+public class CitaRepositoryImplTest {
+
+    private CitaRepositoryImpl repository;
+    private MongoTemplate mongoTemplate;
+    private MappingMongoConverter converter;
+
+    @BeforeEach
+    public void setUp() {
+        MongoCustomConversions conversiones = ConversionesMongoConfig.conversiones();
+        MongoMappingContext contexto = new MongoMappingContext();
+        contexto.setSimpleTypeHolder(conversiones.getSimpleTypeHolder());
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, contexto);
+        converter.setCustomConversions(conversiones);
+        converter.afterPropertiesSet();
+
+        mongoTemplate = mock(MongoTemplate.class);
+        repository = new CitaRepositoryImpl();
+        ReflectionTestUtils.setField(repository, "mongoTemplate", mongoTemplate);
+    }
+
+    @Test
+    public void testPaginaSiguienteConCitasReservadasEnDiasDistintos() {
+        LocalDate fecha = LocalDate.of(2030, 3, 4);
+        // La cita de las 9:00 se reservo una semana antes que la de las 8:30
+        Document primera = guardada("a", fecha, LocalTime.of(8, 30), LocalDateTime.of(2030, 2, 25, 10, 0));
+        Document segunda = guardada("b", fecha, LocalTime.of(9, 0), LocalDateTime.of(2030, 2, 18, 16, 0));
+
+        repository.buscarPagina(null, null, new CursorCita(fecha, LocalTime.of(8, 30), "a"), 10);
+
+        ArgumentCaptor<Query> consulta = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(consulta.capture(), eq(Cita.class));
+        QueryMapper mapper = new QueryMapper(converter);
+        Document filtro = mapper.getMappedObject(consulta.getValue().getQueryObject(), entidad());
+        Document orden = mapper.getMappedSort(consulta.getValue().getSortObject(), entidad());
+
+        // Se ordena por la hora del dia, que no depende de cuando se reservo la cita
+        assertEquals(List.of("horario.fecha", "horario.horaInicio", "_id"), List.copyOf(orden.keySet()));
+        assertTrue(hora(primera).compareTo(hora(segunda)) < 0);
+
+        // El cursor se compara con el mismo valor guardado: la 8:30 no se repite y la 9:00 no se salta
+        List<?> alternativas = filtro.getList("$or", Document.class);
+        Object despuesDe = ((Document) ((Document) alternativas.get(1)).get("horario.horaInicio")).get("$gt");
+        assertEquals(hora(primera), despuesDe);
+        assertTrue(hora(segunda).compareTo((String) despuesDe) > 0);
+    }
+
+    @Test
+    public void testExisteCruceSoloRecorreCitasQuePuedenCruzarse() {
+        LocalDate fecha = LocalDate.of(2030, 3, 4);
+
+        repository.existeCruce("doc1", fecha, LocalTime.of(9, 20), LocalTime.of(9, 40), "c1");
+
+        ArgumentCaptor<Query> consulta = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).exists(consulta.capture(), eq(Cita.class));
+        Document filtro = new QueryMapper(converter).getMappedObject(consulta.getValue().getQueryObject(), entidad());
+
+        // Las citas duran a lo sumo 30 minutos: solo las que empiezan entre 8:50 y 9:40
+        assertEquals(new Document("$lt", "09:40").append("$gt", "08:50"), filtro.get("horario.horaInicio"));
+        assertEquals(new Document("$gt", "09:20"), filtro.get("horario.horaFin"));
+        assertEquals(List.of("PROGRAMADA", "CONFIRMADA"), ((Document) filtro.get("estado")).get("$in"));
+        assertEquals(new Document("$ne", "c1"), filtro.get("_id"));
+    }
+
+    @Test
+    public void testExisteCruceCercaDeMedianocheNoDaLaVuelta() {
+        repository.existeCruce("doc1", LocalDate.of(2030, 3, 4), LocalTime.of(0, 10), LocalTime.of(0, 30), null);
+
+        ArgumentCaptor<Query> consulta = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).exists(consulta.capture(), eq(Cita.class));
+        Document filtro = new QueryMapper(converter).getMappedObject(consulta.getValue().getQueryObject(), entidad());
+
+        assertEquals(new Document("$lt", "00:30"), filtro.get("horario.horaInicio"));
+    }
+
+    private Document guardada(String id, LocalDate fecha, LocalTime hora, LocalDateTime reservadaEn) {
+        Cita cita = new Cita();
+        cita.setId(id);
+        cita.setDoctorId("doc1");
+        cita.setFechaCreacion(reservadaEn);
+        cita.setHorario(new Horario(fecha, hora, hora.plusMinutes(30)));
+        Document documento = new Document();
+        converter.write(cita, documento);
+        return documento;
+    }
+
+    private static String hora(Document cita) {
+        return (String) ((Document) cita.get("horario")).get("horaInicio");
+    }
+
+    private MongoPersistentEntity<?> entidad() {
+        return converter.getMappingContext().getRequiredPersistentEntity(Cita.class);
+    }
+}
@@ -0,0 +1,66 @@
+package com.universidad.vitaltech.service.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.universidad.vitaltech.model.HorarioDisponible;
+
+public class AgendaDiaTest {
+
+    private static final LocalDate LUNES = LocalDate.of(2025, 7, 7);
+
+    private static HorarioDisponible turno(String inicio, String fin, int duracion) {
+        HorarioDisponible horario = new HorarioDisponible();
+        horario.setDiaSemana(DayOfWeek.MONDAY);
+        horario.setHoraInicio(LocalTime.parse(inicio));
+        horario.setHoraFin(LocalTime.parse(fin));
+        horario.setDuracionCita(duracion);
+        return horario;
+    }
+
+    @Test
+    public void testTurnosDeMananaYTardeSeConsideranAmbos() {
+        AgendaDia agenda = new AgendaDia(List.of(turno("14:00", "16:00", 20), turno("08:00", "10:00", 30)));
+
+        assertTrue(agenda.ofreceHora(LUNES, LocalTime.of(8, 30)));
+        assertTrue(agenda.ofreceHora(LUNES, LocalTime.of(14, 40)));
+        assertFalse(agenda.ofreceHora(LUNES, LocalTime.of(9, 45)));    // no alineada
+        assertFalse(agenda.ofreceHora(LUNES, LocalTime.of(12, 0)));    // entre turnos
+        assertEquals(4 + 6, agenda.horasDelDia(LUNES).size());
+        assertEquals(20, agenda.horasDelDia(LUNES).get(LocalTime.of(15, 40)));
+
+        assertTrue(agenda.cubre(LUNES, LocalTime.of(9, 30), LocalTime.of(10, 0)));
+        assertFalse(agenda.cubre(LUNES, LocalTime.of(9, 45), LocalTime.of(10, 15)));
+    }
+
+    @Test
+    public void testTurnosContiguosFormanUnSoloTramo() {
+        AgendaDia agenda = new AgendaDia(List.of(turno("08:00", "10:00", 30), turno("10:00", "12:00", 30)));
+
+        assertTrue(agenda.cubre(LUNES, LocalTime.of(9, 50), LocalTime.of(10, 10)));
+    }
+
+    @Test
+    public void testTurnoBloqueadoEnUnaFecha() {
+        HorarioDisponible tarde = turno("14:00", "16:00", 30);
+        tarde.agregarFechaNoDisponible(LUNES);
+        AgendaDia agenda = new AgendaDia(List.of(turno("08:00", "10:00", 30), tarde));
+
+        assertFalse(agenda.ofreceHora(LUNES, LocalTime.of(14, 0)));
+        assertTrue(agenda.ofreceHora(LUNES, LocalTime.of(8, 0)));
+        assertFalse(agenda.cubre(LUNES, LocalTime.of(14, 0), LocalTime.of(14, 30)));
+        assertEquals(4, agenda.horasDelDia(LUNES).size());
+
+        // La semana siguiente el turno de la tarde vuelve a estar disponible
+        assertTrue(agenda.ofreceHora(LUNES.plusWeeks(1), LocalTime.of(14, 0)));
+        assertEquals(8, agenda.horasDelDia(LUNES.plusWeeks(1)).size());
+    }
+}
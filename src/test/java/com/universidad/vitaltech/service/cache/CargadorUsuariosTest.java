@@ -0,0 +1,51 @@
+package com.universidad.vitaltech.service.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.universidad.vitaltech.dto.UsuarioBasico;
+import com.universidad.vitaltech.repository.UsuarioRepository;
+
+public class CargadorUsuariosTest {
+
+    private CargadorUsuarios cargador;
+    private UsuarioRepository usuarioRepository;
+
+    @BeforeEach
+    public void setUp() {
+        usuarioRepository = mock(UsuarioRepository.class);
+        cargador = new CargadorUsuarios();
+        ReflectionTestUtils.setField(cargador, "usuarioRepository", usuarioRepository);
+    }
+
+    @Test
+    public void testIdsSolicitadosSeResuelvenEnUnaConsulta() {
+        when(usuarioRepository.findBasicosByIdIn(anyCollection())).thenReturn(List.of(
+                new UsuarioBasico("p1", "Ana", "Gomez", "100"),
+                new UsuarioBasico("p2", "Luis", "Diaz", "200")));
+
+        cargador.solicitar(Set.of("p1"));
+        Map<String, UsuarioBasico> usuarios = cargador.obtener(Set.of("p2", "p3"));
+
+        assertEquals(1, usuarios.size());
+        assertEquals("Luis Diaz", usuarios.get("p2").nombreCompleto());
+        assertFalse(usuarios.containsKey("p3"));
+
+        // Lo ya cargado en la petición no vuelve a consultarse
+        assertEquals("100", cargador.obtener(Set.of("p1")).get("p1").numeroDocumento());
+        verify(usuarioRepository, times(1)).findBasicosByIdIn(anyCollection());
+    }
+}
@@ -0,0 +1,129 @@
+package com.universidad.vitaltech.service.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.universidad.vitaltech.model.Cita;
+import com.universidad.vitaltech.model.EstadoCita;
+import com.universidad.vitaltech.model.Usuario;
+import com.universidad.vitaltech.model.embedded.Horario;
+
+public class ContadoresVivosTest {
+
+    private static final List<EstadoCita> PENDIENTES = List.of(EstadoCita.PROGRAMADA, EstadoCita.CONFIRMADA);
+
+    private ContadoresVivos contadores;
+    private MongoTemplate mongoTemplate;
+    private LocalDate hoy;
+
+    @BeforeEach
+    public void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        contadores = new ContadoresVivos();
+        ReflectionTestUtils.setField(contadores, "mongoTemplate", mongoTemplate);
+        hoy = LocalDate.now(ZoneId.of("America/Bogota"));
+    }
+
+    @Test
+    public void testTransicionesDeCitas() {
+        Cita cita = cita(hoy, EstadoCita.PROGRAMADA);
+        contadores.citaCreada(cita);
+        contadores.citaCreada(cita(hoy.plusDays(1), EstadoCita.PROGRAMADA));
+
+        cita.setEstado(EstadoCita.CANCELADA);
+        contadores.citaModificada(hoy, EstadoCita.PROGRAMADA, cita);
+
+        assertEquals(1, contadores.citasEnEstados(PENDIENTES));
+        assertEquals(1, contadores.citasEnEstados(List.of(EstadoCita.CANCELADA)));
+        assertEquals(1, contadores.citasDeFecha(hoy));
+
+        contadores.citaEliminada(cita);
+        assertEquals(0, contadores.citasDeFecha(hoy));
+        assertEquals(1, contadores.citasDeFecha(hoy.plusDays(1)));
+    }
+
+    @Test
+    public void testReconciliarIgualaConMongo() {
+        contadores.citaCreada(cita(hoy, EstadoCita.PROGRAMADA));
+        contadores.pacienteModificado(false, true);
+
+        when(mongoTemplate.count(argThat((Query query) -> query != null && "PROGRAMADA".equals(
+                String.valueOf(query.getQueryObject().get("estado")))), eq(Cita.class))).thenReturn(5L);
+        when(mongoTemplate.count(any(Query.class), eq(Usuario.class))).thenReturn(40L);
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+
+        contadores.reconciliar();
+
+        assertEquals(5, contadores.citasEnEstados(PENDIENTES));
+        assertEquals(0, contadores.citasDeFecha(hoy));
+        assertEquals(40, contadores.pacientesActivos());
+    }
+
+    @Test
+    public void testReconciliarVuelveAContarSiHuboCambiosDuranteElConteo() {
+        // Una cita que se registra mientras se hace el primer conteo
+        AtomicInteger conteos = new AtomicInteger();
+        when(mongoTemplate.count(any(Query.class), eq(Cita.class))).thenAnswer(invocacion -> {
+            if (conteos.getAndIncrement() == 0) {
+                contadores.citaCreada(cita(hoy, EstadoCita.PROGRAMADA));
+                return 0L;
+            }
+            Query query = invocacion.getArgument(0);
+            return "PROGRAMADA".equals(String.valueOf(query.getQueryObject().get("estado"))) ? 1L : 0L;
+        });
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+
+        contadores.reconciliar();
+
+        // El segundo conteo ya incluye la cita y se iguala con el
+        verify(mongoTemplate, times(2)).aggregate(any(TypedAggregation.class), eq(Document.class));
+        assertEquals(1, contadores.citasEnEstados(PENDIENTES));
+    }
+
+    @Test
+    public void testReconciliarIgualaAunqueLasCitasCambienEnCadaConteo() {
+        // Escrituras continuas: cada conteo ve una cita nueva
+        when(mongoTemplate.count(any(Query.class), eq(Cita.class))).thenAnswer(invocacion -> {
+            contadores.citaCreada(cita(hoy, EstadoCita.PROGRAMADA));
+            return 0L;
+        });
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(), new Document()));
+
+        contadores.reconciliar();
+
+        // Tras el ultimo intento se iguala igual, en lugar de saltarse la vuelta
+        verify(mongoTemplate, times(3)).aggregate(any(TypedAggregation.class), eq(Document.class));
+        assertEquals(0, contadores.citasEnEstados(PENDIENTES));
+    }
+
+    private static Cita cita(LocalDate fecha, EstadoCita estado) {
+        Cita cita = new Cita();
+        cita.setHorario(new Horario(fecha, LocalTime.of(9, 0), LocalTime.of(9, 30)));
+        cita.setEstado(estado);
+        return cita;
+    }
+}
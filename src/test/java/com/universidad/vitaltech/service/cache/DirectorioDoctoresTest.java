@@ -0,0 +1,70 @@
+package com.universidad.vitaltech.service.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.universidad.vitaltech.model.Rol;
+import com.universidad.vitaltech.model.Usuario;
+import com.universidad.vitaltech.repository.UsuarioRepository;
+
+public class DirectorioDoctoresTest {
+
+    private DirectorioDoctores directorio;
+    private UsuarioRepository usuarioRepository;
+
+    private static Usuario doctor(String id, String nombre, String especialidad, boolean activo) {
+        Usuario doctor = new Usuario();
+        doctor.setId(id);
+        doctor.setNombre(nombre);
+        doctor.setApellido("Perez");
+        doctor.setRol(Rol.DOCTOR);
+        doctor.setEspecialidad(especialidad);
+        doctor.setActivo(activo);
+        return doctor;
+    }
+
+    @BeforeEach
+    public void setUp() {
+        usuarioRepository = mock(UsuarioRepository.class);
+        directorio = new DirectorioDoctores();
+        ReflectionTestUtils.setField(directorio, "usuarioRepository", usuarioRepository);
+        when(usuarioRepository.findDoctoresParaDirectorio()).thenReturn(List.of(
+                doctor("d1", "Ana", "Cardiología", true),
+                doctor("d2", "Luis", "Cardiología", false),
+                doctor("d3", "Eva", "Pediatría", true)));
+    }
+
+    @Test
+    public void testUnaSolaConsultaParaVariasBusquedas() {
+        Map<String, String> nombres = directorio.nombres(Set.of("d1", "d2", "x"));
+        assertEquals(2, nombres.size());
+        assertEquals("Ana Perez", nombres.get("d1"));
+
+        assertTrue(directorio.buscar("d3").isPresent());
+        assertEquals(2, directorio.listarActivos().size());
+        assertEquals(1, directorio.listarActivosPorEspecialidad("Cardiología").size());
+
+        verify(usuarioRepository, times(1)).findDoctoresParaDirectorio();
+    }
+
+    @Test
+    public void testInvalidarVuelveACargar() {
+        directorio.listarActivos();
+        directorio.invalidar();
+        directorio.listarActivos();
+
+        verify(usuarioRepository, times(2)).findDoctoresParaDirectorio();
+    }
+}
@@ -0,0 +1,40 @@
+package com.universidad.vitaltech.service.cache;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalTime;
+
+import org.junit.jupiter.api.Test;
+
+public class IntervalosOcupadosTest {
+
+    @Test
+    public void testSolapamientoConDuracionesDistintas() {
+        IntervalosOcupados intervalos = new IntervalosOcupados();
+        intervalos.agregar("c1", LocalTime.of(9, 0), LocalTime.of(9, 30));
+        intervalos.agregar("c2", LocalTime.of(10, 0), LocalTime.of(10, 20));
+
+        // 09:20-09:40 empieza dentro de la cita de 09:00-09:30
+        assertTrue(intervalos.seSolapa(LocalTime.of(9, 20), LocalTime.of(9, 40)));
+        // 08:45-09:05 termina dentro de ella
+        assertTrue(intervalos.seSolapa(LocalTime.of(8, 45), LocalTime.of(9, 5)));
+        // Los extremos no se cruzan: [inicio, fin)
+        assertFalse(intervalos.seSolapa(LocalTime.of(9, 30), LocalTime.of(10, 0)));
+        assertFalse(intervalos.seSolapa(LocalTime.of(10, 20), LocalTime.of(10, 40)));
+        // Un intervalo que cubre por completo a otra cita
+        assertTrue(intervalos.seSolapa(LocalTime.of(9, 55), LocalTime.of(10, 25)));
+    }
+
+    @Test
+    public void testDosCitasMismoMinuto() {
+        IntervalosOcupados intervalos = new IntervalosOcupados();
+        intervalos.agregar("c3", LocalTime.of(11, 0), LocalTime.of(11, 30));
+        intervalos.agregar("c4", LocalTime.of(11, 0), LocalTime.of(11, 30));
+
+        intervalos.quitar("c3");
+
+        // c4 sigue ocupando ese minuto
+        assertTrue(intervalos.seSolapa(LocalTime.of(11, 0), LocalTime.of(11, 1)));
+    }
+}
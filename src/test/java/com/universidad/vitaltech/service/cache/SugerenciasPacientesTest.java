@@ -0,0 +1,64 @@
+package com.universidad.vitaltech.service.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.universidad.vitaltech.dto.UsuarioResumen;
+import com.universidad.vitaltech.model.Rol;
+import com.universidad.vitaltech.repository.UsuarioRepository;
+
+public class SugerenciasPacientesTest {
+
+    private SugerenciasPacientes sugerencias;
+    private UsuarioRepository usuarioRepository;
+
+    @BeforeEach
+    public void setUp() {
+        usuarioRepository = mock(UsuarioRepository.class);
+        UsuarioResumen paciente = new UsuarioResumen("p1", "ana", "Ana", "Peña", "123", null, null, null,
+                Rol.PACIENTE, null, null, true);
+        when(usuarioRepository.sugerirResumenes(anyString(), eq(Rol.PACIENTE), anyInt()))
+                .thenReturn(List.of(paciente));
+
+        sugerencias = new SugerenciasPacientes();
+        ReflectionTestUtils.setField(sugerencias, "usuarioRepository", usuarioRepository);
+        ReflectionTestUtils.setField(sugerencias, "maximoConsultas", 2);
+    }
+
+    @Test
+    public void testReutilizaLaConsultaNormalizadaHastaQueSeInvalida() {
+        assertEquals("p1", sugerencias.buscar("Peña ana", 10).get(0).id());
+        sugerencias.buscar("ANA pena", 10);
+        verify(usuarioRepository, times(1)).sugerirResumenes(anyString(), eq(Rol.PACIENTE), eq(10));
+
+        sugerencias.invalidar();
+        sugerencias.buscar("ana pena", 10);
+        verify(usuarioRepository, times(2)).sugerirResumenes(anyString(), eq(Rol.PACIENTE), eq(10));
+    }
+
+    @Test
+    public void testDescartaLaConsultaMenosUsada() {
+        sugerencias.buscar("ana", 10);
+        sugerencias.buscar("luis", 10);
+        sugerencias.buscar("ana", 10);
+        sugerencias.buscar("marta", 10);
+
+        // "luis" era la menos usada y salio al entrar "marta"
+        sugerencias.buscar("ana", 10);
+        sugerencias.buscar("luis", 10);
+        verify(usuarioRepository, times(1)).sugerirResumenes(eq("ana"), eq(Rol.PACIENTE), eq(10));
+        verify(usuarioRepository, times(2)).sugerirResumenes(eq("luis"), eq(Rol.PACIENTE), eq(10));
+    }
+}
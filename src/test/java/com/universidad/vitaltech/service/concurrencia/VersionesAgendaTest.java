@@ -0,0 +1,32 @@
+package com.universidad.vitaltech.service.concurrencia;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.universidad.vitaltech.model.VersionAgenda;
+
+public class VersionesAgendaTest {
+
+    @Test
+    public void testRegistrarCambioNoFallaSiMongoNoResponde() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(VersionAgenda.class)))
+                .thenThrow(new DataAccessResourceFailureException("Mongo no responde"));
+        VersionesAgenda versionesAgenda = new VersionesAgenda();
+        ReflectionTestUtils.setField(versionesAgenda, "mongoTemplate", mongoTemplate);
+
+        // La cita ya se guardo: el contador de la etiqueta no puede devolver un error
+        assertDoesNotThrow(() -> versionesAgenda.registrarCambio("doc1"));
+        assertDoesNotThrow(versionesAgenda::registrarCambioGeneral);
+    }
+}
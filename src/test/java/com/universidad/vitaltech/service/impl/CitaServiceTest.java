@@ -1,34 +1,75 @@
 package com.universidad.vitaltech.service.impl;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import com.universidad.vitaltech.dto.CursorCita;
+import com.universidad.vitaltech.dto.PaginaCitas;
+import com.universidad.vitaltech.dto.ResultadoSerie;
 import com.universidad.vitaltech.model.Cita;
 import com.universidad.vitaltech.model.EstadoCita;
+import com.universidad.vitaltech.model.HorarioDisponible;
 import com.universidad.vitaltech.model.embedded.Horario;
 import com.universidad.vitaltech.repository.CitaRepository;
+import com.universidad.vitaltech.repository.HorarioDisponibleRepository;
+import com.universidad.vitaltech.service.ResumenDiarioService;
+import com.universidad.vitaltech.service.RetencionHorarioService;
+import com.universidad.vitaltech.service.SlotService;
+import com.universidad.vitaltech.service.cache.CalendarioFestivos;
+import com.universidad.vitaltech.service.cache.ContadoresVivos;
+import com.universidad.vitaltech.service.concurrencia.VersionesAgenda;
 
 public class CitaServiceTest {
 
     private CitaServiceImpl citaService;
     private CitaRepository citaRepository;
+    private SlotService slotService;
+    private RetencionHorarioService retencionHorarioService;
+    private VersionesAgenda versionesAgenda;
 
     @BeforeEach
     public void setUp() {
         citaRepository = mock(CitaRepository.class);
+        slotService = mock(SlotService.class);
+        retencionHorarioService = mock(RetencionHorarioService.class);
+        versionesAgenda = mock(VersionesAgenda.class);
+        when(versionesAgenda.avanzar(any(), any(), any(Long.class))).thenReturn(true);
+        when(slotService.obtenerFinVentana()).thenReturn(LocalDate.now().plusWeeks(8));
         citaService = new CitaServiceImpl();
         ReflectionTestUtils.setField(citaService, "citaRepository", citaRepository);
+        ReflectionTestUtils.setField(citaService, "horarioDisponibleRepository", plantillasTodosLosDias());
+        ReflectionTestUtils.setField(citaService, "slotService", slotService);
+        ReflectionTestUtils.setField(citaService, "retencionHorarioService", retencionHorarioService);
+        ReflectionTestUtils.setField(citaService, "calendarioFestivos", mock(CalendarioFestivos.class));
+        ReflectionTestUtils.setField(citaService, "contadoresVivos", new ContadoresVivos());
+        ReflectionTestUtils.setField(citaService, "resumenDiarioService", mock(ResumenDiarioService.class));
+        ReflectionTestUtils.setField(citaService, "versionesAgenda", versionesAgenda);
         ReflectionTestUtils.setField(citaService, "appTimezone", "America/Bogota");
     }
 
@@ -99,4 +140,262 @@ public class CitaServiceTest {
         // Should be false (window is +2 hours after end)
         assertFalse(citaService.puedeSerAtendida(cita), "Should NOT be attendable (past)");
     }
+
+    @Test
+    public void testReservarHorarioTomado() {
+        Cita cita = new Cita();
+        cita.setDoctorId("doc1");
+        cita.setHorario(new Horario(LocalDate.now().plusDays(1), LocalTime.of(9, 0), LocalTime.of(9, 30)));
+
+        when(slotService.reservar(any(Cita.class))).thenReturn(true);
+        when(citaRepository.insert(any(Cita.class))).thenThrow(new DuplicateKeyException("E11000"));
+
+        // El error de clave duplicada se traduce en "horario tomado" y se devuelve el slot
+        assertTrue(citaService.reservar(cita).isEmpty(), "Should report the slot as taken");
+        verify(slotService).liberar(cita);
+    }
+
+    @Test
+    public void testReservarSlotYaReservado() {
+        Cita cita = new Cita();
+        cita.setDoctorId("doc1");
+        cita.setHorario(new Horario(LocalDate.now().plusDays(1), LocalTime.of(10, 0), LocalTime.of(10, 30)));
+
+        when(slotService.reservar(any(Cita.class))).thenReturn(false);
+
+        // Si el paso de LIBRE a RESERVADO no se aplica, la cita no se inserta
+        assertTrue(citaService.reservar(cita).isEmpty(), "Should report the slot as taken");
+        verify(citaRepository, never()).insert(any(Cita.class));
+    }
+
+    @Test
+    public void testReservarHorarioApartadoPorOtroPaciente() {
+        Cita cita = new Cita();
+        cita.setDoctorId("doc1");
+        cita.setPacienteId("pac1");
+        cita.setHorario(new Horario(LocalDate.now().plusDays(1), LocalTime.of(11, 0), LocalTime.of(11, 30)));
+
+        when(retencionHorarioService.estaRetenidoPorOtro("doc1", cita.getHorario().getFecha(),
+                LocalTime.of(11, 0), LocalTime.of(11, 30), "pac1")).thenReturn(true);
+
+        // Mientras otro paciente tenga el horario apartado no se reserva
+        assertTrue(citaService.reservar(cita).isEmpty(), "Should report the slot as held");
+        verify(slotService, never()).reservar(any(Cita.class));
+        verify(citaRepository, never()).insert(any(Cita.class));
+    }
+
+    @Test
+    public void testRecepcionistaReservaHorarioApartado() {
+        Cita cita = new Cita();
+        cita.setDoctorId("doc1");
+        cita.setPacienteId("pac1");
+        cita.setHorario(new Horario(LocalDate.now().plusDays(1), LocalTime.of(11, 0), LocalTime.of(11, 30)));
+
+        when(retencionHorarioService.estaRetenidoPorOtro(any(), any(), any(), any(), any())).thenReturn(true);
+        when(slotService.reservar(any(Cita.class))).thenReturn(true);
+        when(citaRepository.insert(any(Cita.class))).thenAnswer(invocacion -> invocacion.getArgument(0));
+
+        // El personal puede pasar por encima de la retencion de otro paciente
+        assertTrue(citaService.reservar(cita, true).isPresent(), "Staff should override the hold");
+        // El cambio se cuenta para las etiquetas ETag despues de confirmar la reserva
+        verify(versionesAgenda).registrarCambio("doc1");
+    }
+
+    @Test
+    public void testReservarDentroDeLaVentanaSoloTomaSlots() {
+        Cita cita = new Cita();
+        cita.setDoctorId("doc1");
+        cita.setHorario(new Horario(LocalDate.now().plusDays(1), LocalTime.of(9, 0), LocalTime.of(9, 30)));
+
+        when(slotService.reservar(any(Cita.class))).thenReturn(true);
+        when(citaRepository.insert(any(Cita.class))).thenAnswer(invocacion -> invocacion.getArgument(0));
+
+        // Los pasos condicionales de los slots ya ordenan las reservas: sin version ni lectura de citas
+        assertTrue(citaService.reservar(cita).isPresent());
+        verify(versionesAgenda, never()).leer(any(), any(LocalDate.class));
+        verify(versionesAgenda, never()).avanzar(any(), any(), any(Long.class));
+        verify(citaRepository, never()).existeCruce(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    public void testReservarCruceConCitaGuardadaEnOtroNodo() {
+        // Fuera de la ventana de slots
+        Cita cita = new Cita();
+        cita.setDoctorId("doc1");
+        cita.setHorario(new Horario(LocalDate.now().plusWeeks(10), LocalTime.of(9, 0), LocalTime.of(9, 30)));
+
+        // Cita de 20 minutos que empieza a otra hora, guardada por otro nodo
+        when(citaRepository.existeCruce(eq("doc1"), eq(cita.getHorario().getFecha()), eq(LocalTime.of(9, 0)),
+                eq(LocalTime.of(9, 30)), any())).thenReturn(true);
+
+        assertTrue(citaService.reservar(cita).isEmpty(), "Should report the overlap");
+        verify(citaRepository, never()).insert(any(Cita.class));
+    }
+
+    @Test
+    public void testReservarDeshaceSiOtraReservaAvanzoLaVersion() {
+        Cita cita = new Cita();
+        cita.setDoctorId("doc1");
+        cita.setHorario(new Horario(LocalDate.now().plusWeeks(10), LocalTime.of(9, 0), LocalTime.of(9, 30)));
+        LocalDate fecha = cita.getHorario().getFecha();
+
+        when(citaRepository.insert(any(Cita.class))).thenAnswer(invocacion -> invocacion.getArgument(0));
+        when(versionesAgenda.avanzar("doc1", fecha, 0L)).thenReturn(false);
+
+        // Cada intento pierde contra otra reserva del mismo dia: la cita se borra y los slots se devuelven
+        assertTrue(citaService.reservar(cita).isEmpty(), "Should give up after losing every attempt");
+        verify(citaRepository, times(3)).deleteById(cita.getId());
+        verify(slotService, times(3)).liberar(cita);
+    }
+
+    @Test
+    public void testReservarFechaPasadaSeRechaza() {
+        Cita cita = new Cita();
+        cita.setDoctorId("doc1");
+        cita.setPacienteId("pac1");
+        cita.setHorario(new Horario(LocalDate.now().minusDays(1), LocalTime.of(9, 0), LocalTime.of(9, 30)));
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> citaService.reservar(cita, true));
+        assertTrue(error.getMessage().contains("ya pasó"));
+        verify(slotService, never()).reservar(any(Cita.class));
+    }
+
+    @Test
+    public void testReservarFueraDeLaPlantillaSeRechaza() {
+        // Fuera de la ventana no hay slots que rechacen la hora: la plantilla es la que manda
+        Cita cita = new Cita();
+        cita.setDoctorId("doc1");
+        cita.setPacienteId("pac1");
+        cita.setHorario(new Horario(LocalDate.now().plusWeeks(10).plusDays(1), LocalTime.of(14, 0),
+                LocalTime.of(14, 30)));
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> citaService.reservar(cita, true));
+        assertEquals("El doctor no atiende ese día u horario", error.getMessage());
+        verify(citaRepository, never()).insert(any(Cita.class));
+    }
+
+    @Test
+    public void testReservarSerieReportaConflictos() {
+        HorarioDisponibleRepository horarioDisponibleRepository = mock(HorarioDisponibleRepository.class);
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        BulkOperations bulk = mock(BulkOperations.class);
+        ReflectionTestUtils.setField(citaService, "horarioDisponibleRepository", horarioDisponibleRepository);
+        ReflectionTestUtils.setField(citaService, "mongoTemplate", mongoTemplate);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Cita.class)).thenReturn(bulk);
+        when(bulk.insert(anyList())).thenReturn(bulk);
+
+        LocalDate lunes = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+        HorarioDisponible plantilla = new HorarioDisponible();
+        plantilla.setDoctorId("doc1");
+        plantilla.setDiaSemana(DayOfWeek.MONDAY);
+        plantilla.setHoraInicio(LocalTime.of(8, 0));
+        plantilla.setHoraFin(LocalTime.of(12, 0));
+        when(horarioDisponibleRepository.findByDoctorIdAndActivoTrue("doc1")).thenReturn(List.of(plantilla));
+
+        // La segunda semana ya tiene una cita de 20 minutos que se cruza
+        Cita existente = new Cita();
+        existente.setId("c1");
+        existente.setDoctorId("doc1");
+        existente.setHorario(new Horario(lunes.plusWeeks(1), LocalTime.of(9, 20), LocalTime.of(9, 40)));
+        when(citaRepository.findCitasActivasByDoctoresAndRangoFechas(List.of("doc1"), lunes, lunes.plusWeeks(3)))
+                .thenReturn(List.of(existente));
+
+        // La tercera semana otro paciente tiene el horario apartado
+        when(retencionHorarioService.estaRetenidoPorOtro("doc1", lunes.plusWeeks(2), LocalTime.of(9, 0),
+                LocalTime.of(9, 30), "pac1")).thenReturn(true);
+        when(slotService.reservar(any(Cita.class))).thenReturn(true);
+        // La cuarta semana queda fuera de la ventana de slots
+        when(slotService.obtenerFinVentana()).thenReturn(lunes.plusWeeks(2));
+
+        Cita cita = new Cita();
+        cita.setDoctorId("doc1");
+        cita.setPacienteId("pac1");
+        cita.setHorario(new Horario(lunes, LocalTime.of(9, 0), LocalTime.of(9, 30)));
+
+        ResultadoSerie resultado = citaService.reservarSerie(cita, 4, 1, false);
+
+        assertEquals(2, resultado.creadas().size());
+        assertEquals(2, resultado.conflictos().size());
+        assertEquals(lunes.plusWeeks(1), resultado.conflictos().get(0).fecha());
+        assertEquals(lunes.plusWeeks(2), resultado.conflictos().get(1).fecha());
+        verify(bulk).insert(eq(resultado.creadas()));
+        // Cada fecha valida toma sus slots de forma condicional; solo la de fuera de la
+        // ventana avanza la version de su dia
+        verify(slotService, times(2)).reservar(any(Cita.class));
+        verify(versionesAgenda).leer("doc1", List.of(lunes.plusWeeks(3)));
+        verify(versionesAgenda, never()).avanzar("doc1", lunes, 0L);
+        verify(versionesAgenda).avanzar("doc1", lunes.plusWeeks(3), 0L);
+    }
+
+    @Test
+    public void testReservarSerieFueraDeLaGrillaDeSlots() {
+        HorarioDisponibleRepository horarioDisponibleRepository = mock(HorarioDisponibleRepository.class);
+        ReflectionTestUtils.setField(citaService, "horarioDisponibleRepository", horarioDisponibleRepository);
+
+        LocalDate lunes = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+        HorarioDisponible plantilla = new HorarioDisponible();
+        plantilla.setDoctorId("doc1");
+        plantilla.setDiaSemana(DayOfWeek.MONDAY);
+        plantilla.setHoraInicio(LocalTime.of(8, 0));
+        plantilla.setHoraFin(LocalTime.of(12, 0));
+        plantilla.setDuracionCita(30);
+        when(horarioDisponibleRepository.findByDoctorIdAndActivoTrue("doc1")).thenReturn(List.of(plantilla));
+
+        // 9:10 esta dentro del horario del doctor pero no es el inicio de ningun slot
+        Cita cita = new Cita();
+        cita.setDoctorId("doc1");
+        cita.setPacienteId("pac1");
+        cita.setHorario(new Horario(lunes, LocalTime.of(9, 10), LocalTime.of(9, 40)));
+
+        ResultadoSerie resultado = citaService.reservarSerie(cita, 2, 1, false);
+
+        assertTrue(resultado.creadas().isEmpty());
+        assertEquals(2, resultado.conflictos().size());
+        verify(slotService, never()).reservar(any(Cita.class));
+    }
+
+    @Test
+    public void testListarPaginaDevuelveCursorDeLaUltimaCita() {
+        LocalDate fecha = LocalDate.of(2030, 3, 4);
+        List<Cita> encontradas = List.of(
+                citaPaginada("a", fecha, LocalTime.of(8, 0)),
+                citaPaginada("b", fecha, LocalTime.of(8, 30)),
+                citaPaginada("c", fecha, LocalTime.of(9, 0)));
+        when(citaRepository.buscarPagina(null, null, null, 3)).thenReturn(encontradas);
+
+        PaginaCitas pagina = citaService.listarPagina(null, null, null, 2);
+
+        assertEquals(2, pagina.citas().size());
+        assertEquals("2030-03-04_08:30_b", pagina.siguiente());
+
+        // El cursor lleva a la pagina siguiente; si no sobra ninguna cita es la ultima
+        CursorCita cursor = CursorCita.decodificar(pagina.siguiente());
+        when(citaRepository.buscarPagina(null, null, cursor, 3)).thenReturn(List.of(encontradas.get(2)));
+        assertFalse(citaService.listarPagina(null, null, pagina.siguiente(), 2).hayMas());
+    }
+
+    /**
+     * El doctor atiende todos los dias de 8:00 a 12:00 en citas de 30 minutos
+     */
+    private static HorarioDisponibleRepository plantillasTodosLosDias() {
+        HorarioDisponibleRepository repositorio = mock(HorarioDisponibleRepository.class);
+        List<HorarioDisponible> plantillas = new ArrayList<>();
+        for (DayOfWeek dia : DayOfWeek.values()) {
+            HorarioDisponible plantilla = new HorarioDisponible();
+            plantilla.setDoctorId("doc1");
+            plantilla.setDiaSemana(dia);
+            plantilla.setHoraInicio(LocalTime.of(8, 0));
+            plantilla.setHoraFin(LocalTime.of(12, 0));
+            plantillas.add(plantilla);
+        }
+        when(repositorio.findByDoctorIdAndActivoTrue("doc1")).thenReturn(plantillas);
+        return repositorio;
+    }
+
+    private static Cita citaPaginada(String id, LocalDate fecha, LocalTime hora) {
+        Cita cita = new Cita();
+        cita.setId(id);
+        cita.setHorario(new Horario(fecha, hora, hora.plusMinutes(30)));
+        return cita;
+    }
 }
@@ -0,0 +1,57 @@
+package com.universidad.vitaltech.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.universidad.vitaltech.repository.DiagnosticoRepository;
+
+public class DiagnosticoServiceTest {
+
+    private DiagnosticoServiceImpl diagnosticoService;
+    private DiagnosticoRepository diagnosticoRepository;
+
+    @BeforeEach
+    public void setUp() {
+        diagnosticoRepository = mock(DiagnosticoRepository.class);
+        diagnosticoService = new DiagnosticoServiceImpl();
+        ReflectionTestUtils.setField(diagnosticoService, "diagnosticoRepository", diagnosticoRepository);
+    }
+
+    @Test
+    public void testBusquedaEnEspanolOrdenadaPorRelevancia() {
+        diagnosticoService.buscarPorTextoDelDoctor("doc1", "  migraña crónica ", 2, 20);
+
+        ArgumentCaptor<TextCriteria> texto = ArgumentCaptor.forClass(TextCriteria.class);
+        ArgumentCaptor<Pageable> pagina = ArgumentCaptor.forClass(Pageable.class);
+        verify(diagnosticoRepository).findByDoctorId(eq("doc1"), texto.capture(), pagina.capture());
+
+        Document busqueda = texto.getValue().getCriteriaObject().get("$text", Document.class);
+        assertEquals("migraña crónica", busqueda.get("$search"));
+        assertEquals("spanish", busqueda.get("$language"));
+        assertEquals(2, pagina.getValue().getPageNumber());
+        assertEquals(Sort.Direction.DESC, pagina.getValue().getSort().getOrderFor("puntaje").getDirection());
+    }
+
+    @Test
+    public void testTamanoDePaginaAcotado() {
+        diagnosticoService.buscarPorTextoDelPaciente("pac1", "gripe", -1, 10_000);
+
+        ArgumentCaptor<Pageable> pagina = ArgumentCaptor.forClass(Pageable.class);
+        verify(diagnosticoRepository).findByPacienteId(eq("pac1"), any(TextCriteria.class), pagina.capture());
+
+        assertEquals(0, pagina.getValue().getPageNumber());
+        assertEquals(DiagnosticoServiceImpl.MAXIMO_POR_PAGINA, pagina.getValue().getPageSize());
+    }
+}
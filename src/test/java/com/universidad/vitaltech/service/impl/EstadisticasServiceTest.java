@@ -0,0 +1,80 @@
+package com.universidad.vitaltech.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.universidad.vitaltech.dto.EstadisticasCitas;
+import com.universidad.vitaltech.dto.EstadisticasUsuarios;
+import com.universidad.vitaltech.model.EstadoCita;
+import com.universidad.vitaltech.model.Rol;
+
+public class EstadisticasServiceTest {
+
+    private EstadisticasServiceImpl estadisticasService;
+    private MongoTemplate mongoTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        estadisticasService = new EstadisticasServiceImpl();
+        ReflectionTestUtils.setField(estadisticasService, "mongoTemplate", mongoTemplate);
+    }
+
+    @Test
+    public void testUsuariosPorRolYEstado() {
+        Document resultado = new Document("porRol", List.of(
+                grupo(new Document("rol", "DOCTOR").append("activo", true), 4),
+                grupo(new Document("rol", "DOCTOR").append("activo", false), 1),
+                grupo(new Document("rol", "PACIENTE").append("activo", true), 120L)))
+                .append("recientes", List.of(new Document("cantidad", 7)));
+        responder(resultado);
+
+        EstadisticasUsuarios estadisticas = estadisticasService.obtenerEstadisticasUsuarios();
+
+        assertEquals(4, estadisticas.activos(Rol.DOCTOR));
+        assertEquals(1, estadisticas.inactivos(Rol.DOCTOR));
+        assertEquals(120, estadisticas.activos(Rol.PACIENTE));
+        assertEquals(0, estadisticas.activos(Rol.ADMIN));
+        assertEquals(125, estadisticas.total());
+        assertEquals(7, estadisticas.registradosUltimoMes());
+    }
+
+    @Test
+    public void testCitasSinCoincidenciasHoy() {
+        Document resultado = new Document("porEstado", List.of(
+                grupo("PROGRAMADA", 3),
+                grupo("CANCELADA", 2),
+                grupo("DESCONOCIDO", 9)))
+                .append("hoy", List.of());
+        responder(resultado);
+
+        EstadisticasCitas estadisticas = estadisticasService.obtenerEstadisticasCitas();
+
+        assertEquals(3, estadisticas.cantidad(EstadoCita.PROGRAMADA));
+        assertEquals(0, estadisticas.cantidad(EstadoCita.COMPLETADA));
+        assertEquals(5, estadisticas.total());
+        assertEquals(0, estadisticas.deHoy());
+    }
+
+    private void responder(Document resultado) {
+        when(mongoTemplate.aggregate(any(TypedAggregation.class), eq(Document.class)))
+                .thenReturn(new AggregationResults<>(List.of(resultado), new Document()));
+    }
+
+    private static Document grupo(Object clave, Number cantidad) {
+        return new Document("_id", clave).append("cantidad", cantidad);
+    }
+}
@@ -0,0 +1,132 @@
+package com.universidad.vitaltech.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Optional;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.universidad.vitaltech.model.Cita;
+import com.universidad.vitaltech.model.EntradaListaEspera;
+import com.universidad.vitaltech.model.embedded.Horario;
+import com.universidad.vitaltech.repository.ListaEsperaRepository;
+import com.universidad.vitaltech.repository.UsuarioRepository;
+import com.universidad.vitaltech.service.CitaService;
+
+public class ListaEsperaServiceTest {
+
+    private ListaEsperaServiceImpl listaEsperaService;
+    private ListaEsperaRepository listaEsperaRepository;
+    private CitaService citaService;
+    private MongoTemplate mongoTemplate;
+    private Cita cancelada;
+
+    @BeforeEach
+    public void setUp() {
+        listaEsperaRepository = mock(ListaEsperaRepository.class);
+        citaService = mock(CitaService.class);
+        mongoTemplate = mock(MongoTemplate.class);
+        UsuarioRepository usuarioRepository = mock(UsuarioRepository.class);
+        when(usuarioRepository.findById("doc1")).thenReturn(Optional.empty());
+
+        listaEsperaService = new ListaEsperaServiceImpl();
+        ReflectionTestUtils.setField(listaEsperaService, "listaEsperaRepository", listaEsperaRepository);
+        ReflectionTestUtils.setField(listaEsperaService, "usuarioRepository", usuarioRepository);
+        ReflectionTestUtils.setField(listaEsperaService, "citaService", citaService);
+        ReflectionTestUtils.setField(listaEsperaService, "mongoTemplate", mongoTemplate);
+
+        cancelada = new Cita();
+        cancelada.setId("c1");
+        cancelada.setDoctorId("doc1");
+        cancelada.setPacienteId("pac1");
+        cancelada.setHorario(new Horario(LocalDate.now().plusDays(2), LocalTime.of(9, 0), LocalTime.of(9, 30)));
+    }
+
+    @Test
+    public void testAsignaHorarioAlPrimeroEnEspera() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(EntradaListaEspera.class))).thenReturn(entrada("e1", "pac2"));
+        when(citaService.reservar(any(Cita.class))).thenAnswer(invocacion -> Optional.of(invocacion.getArgument(0)));
+
+        Optional<Cita> asignada = listaEsperaService.asignarHorarioLiberado(cancelada);
+
+        // La entrada queda con la cita en la misma escritura que la asigna
+        ArgumentCaptor<Update> asignacion = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), asignacion.capture(), any(FindAndModifyOptions.class),
+                eq(EntradaListaEspera.class));
+        assertTrue(asignada.isPresent());
+        assertEquals(asignada.get().getId(), asignacion.getValue().getUpdateObject().get("$set", Document.class)
+                .get("citaId"));
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(EntradaListaEspera.class));
+        verify(listaEsperaRepository, never()).save(any(EntradaListaEspera.class));
+    }
+
+    @Test
+    public void testHorarioRechazadoPasaALaSiguienteEntrada() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(EntradaListaEspera.class))).thenReturn(entrada("e1", "pac2"), entrada("e2", "pac3"));
+        when(citaService.reservar(any(Cita.class)))
+                .thenReturn(Optional.empty())
+                .thenAnswer(invocacion -> Optional.of(invocacion.getArgument(0)));
+
+        Optional<Cita> asignada = listaEsperaService.asignarHorarioLiberado(cancelada);
+
+        assertTrue(asignada.isPresent());
+        assertEquals("pac3", asignada.get().getPacienteId());
+        // Solo la primera entrada vuelve a ESPERANDO
+        verify(mongoTemplate).updateFirst(any(Query.class), any(Update.class), eq(EntradaListaEspera.class));
+    }
+
+    @Test
+    public void testHorarioTomadoDevuelveEntradasALaLista() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(EntradaListaEspera.class))).thenReturn(entrada("e1", "pac2"), (EntradaListaEspera) null);
+        when(citaService.reservar(any(Cita.class))).thenReturn(Optional.empty());
+
+        assertTrue(listaEsperaService.asignarHorarioLiberado(cancelada).isEmpty());
+
+        // La entrada vuelve a ESPERANDO y sin cita
+        ArgumentCaptor<Update> devolucion = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), devolucion.capture(), eq(EntradaListaEspera.class));
+        assertTrue(devolucion.getValue().getUpdateObject().get("$unset", Document.class).containsKey("citaId"));
+        verify(mongoTemplate, times(2)).findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(EntradaListaEspera.class));
+    }
+
+    @Test
+    public void testErrorAlReservarDevuelveEntradaALaLista() {
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(EntradaListaEspera.class))).thenReturn(entrada("e1", "pac2"));
+        when(citaService.reservar(any(Cita.class))).thenThrow(new RuntimeException("Mongo no responde"));
+
+        assertThrows(RuntimeException.class, () -> listaEsperaService.asignarHorarioLiberado(cancelada));
+
+        verify(mongoTemplate).updateFirst(any(Query.class), any(Update.class), eq(EntradaListaEspera.class));
+    }
+
+    private static EntradaListaEspera entrada(String id, String pacienteId) {
+        EntradaListaEspera entrada = new EntradaListaEspera();
+        entrada.setId(id);
+        entrada.setPacienteId(pacienteId);
+        return entrada;
+    }
+}
@@ -0,0 +1,149 @@
+package com.universidad.vitaltech.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.mongodb.client.result.DeleteResult;
+
+import com.universidad.vitaltech.model.Cita;
+import com.universidad.vitaltech.model.EstadoCita;
+import com.universidad.vitaltech.model.ResumenDiarioCitas;
+import com.universidad.vitaltech.model.embedded.Horario;
+import com.universidad.vitaltech.service.concurrencia.TurnosTareas;
+
+public class ResumenDiarioServiceTest {
+
+    private static final LocalDate FECHA = LocalDate.of(2026, 3, 10);
+
+    private ResumenDiarioServiceImpl resumenDiarioService;
+    private MongoTemplate mongoTemplate;
+    private BulkOperations bulk;
+    private TurnosTareas turnosTareas;
+
+    @BeforeEach
+    public void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        bulk = mock(BulkOperations.class);
+        turnosTareas = mock(TurnosTareas.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ResumenDiarioCitas.class)).thenReturn(bulk);
+
+        resumenDiarioService = new ResumenDiarioServiceImpl();
+        ReflectionTestUtils.setField(resumenDiarioService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(resumenDiarioService, "turnosTareas", turnosTareas);
+    }
+
+    @Test
+    public void testCitasDelMismoDiaSeSumanEnUnaEscritura() {
+        resumenDiarioService.citasCreadas(List.of(
+                cita("d1", FECHA, EstadoCita.PROGRAMADA),
+                cita("d1", FECHA, EstadoCita.PROGRAMADA),
+                cita("d1", FECHA.plusWeeks(1), EstadoCita.PROGRAMADA)));
+
+        ArgumentCaptor<Query> consultas = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulk, times(2)).upsert(consultas.capture(), updates.capture());
+        verify(bulk).execute();
+
+        assertEquals("d1|2026-03-10", consultas.getAllValues().get(0).getQueryObject().get("_id"));
+        Document incrementos = updates.getAllValues().get(0).getUpdateObject().get("$inc", Document.class);
+        assertEquals(2L, incrementos.get("estados.PROGRAMADA"));
+        assertEquals(2L, incrementos.get("total"));
+        assertEquals(60L, incrementos.get("minutosReservados"));
+        assertEquals(FECHA, updates.getAllValues().get(0).getUpdateObject()
+                .get("$setOnInsert", Document.class).get("fecha"));
+    }
+
+    @Test
+    public void testCancelarMueveElEstadoYLiberaMinutos() {
+        Cita cita = cita("d1", FECHA, EstadoCita.CANCELADA);
+
+        resumenDiarioService.estadoCambiado(cita, EstadoCita.CONFIRMADA);
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulk).upsert(any(Query.class), update.capture());
+        Document incrementos = update.getValue().getUpdateObject().get("$inc", Document.class);
+        assertEquals(-1L, incrementos.get("estados.CONFIRMADA"));
+        assertEquals(1L, incrementos.get("estados.CANCELADA"));
+        assertEquals(-30L, incrementos.get("minutosReservados"));
+        // El total no cambia y no se escribe
+        assertFalse(incrementos.containsKey("total"));
+    }
+
+    @Test
+    public void testGuardarSinCambiosNoEscribe() {
+        Cita cita = cita("d1", FECHA, EstadoCita.PROGRAMADA);
+
+        resumenDiarioService.citaModificada(cita, cita);
+
+        verify(bulk, times(0)).upsert(any(Query.class), any(Update.class));
+        verify(bulk, times(0)).execute();
+    }
+
+    @Test
+    public void testReconstruirNoVaciaElRangoNiPisaCambiosRecientes() {
+        when(mongoTemplate.remove(any(Query.class), eq(ResumenDiarioCitas.class))).thenReturn(DeleteResult.acknowledged(0));
+
+        resumenDiarioService.reconstruir(FECHA, null);
+
+        // Primero se reescriben los resumenes y solo despues se borran los que sobran
+        InOrder orden = inOrder(mongoTemplate);
+        orden.verify(mongoTemplate).aggregate(any(TypedAggregation.class), eq(Document.class));
+        ArgumentCaptor<Query> descarte = ArgumentCaptor.forClass(Query.class);
+        orden.verify(mongoTemplate).remove(descarte.capture(), eq(ResumenDiarioCitas.class));
+
+        // El descarte no toca resumenes con un $inc posterior al inicio de la reconstruccion
+        String filtro = descarte.getValue().getQueryObject().toString();
+        assertTrue(filtro.contains("actualizadoEn") && filtro.contains("reconstruidoEn"), filtro);
+
+        // El $merge conserva el resumen guardado si lo toco un $inc durante la reconstruccion
+        Document fusion = ResumenDiarioServiceImpl.fusionConResumenes(LocalDateTime.of(2026, 3, 11, 0, 45));
+        assertEquals("insert", fusion.get("whenNotMatched"));
+        String reemplazo = fusion.getList("whenMatched", Document.class).get(0).toJson();
+        assertTrue(reemplazo.contains("$actualizadoEn") && reemplazo.contains("$$ROOT")
+                && reemplazo.contains("$$new"), reemplazo);
+    }
+
+    @Test
+    public void testReconciliacionNocturnaCorreEnUnSoloNodo() {
+        when(turnosTareas.tomar(eq("resumen-diario"), any(Duration.class))).thenReturn(false);
+
+        resumenDiarioService.reconciliarRecientes();
+
+        verify(mongoTemplate, never()).aggregate(any(TypedAggregation.class), eq(Document.class));
+    }
+
+    private static Cita cita(String doctorId, LocalDate fecha, EstadoCita estado) {
+        Cita cita = new Cita();
+        cita.setDoctorId(doctorId);
+        cita.setHorario(new Horario(fecha, LocalTime.of(9, 0), LocalTime.of(9, 30)));
+        cita.setEstado(estado);
+        return cita;
+    }
+}
@@ -0,0 +1,240 @@
+package com.universidad.vitaltech.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.universidad.vitaltech.config.ConversionesMongoConfig;
+import com.universidad.vitaltech.model.Cita;
+import com.universidad.vitaltech.model.EstadoSlot;
+import com.universidad.vitaltech.model.HorarioDisponible;
+import com.universidad.vitaltech.model.RetencionHorario;
+import com.universidad.vitaltech.model.Slot;
+import com.universidad.vitaltech.model.embedded.Horario;
+import com.universidad.vitaltech.repository.CitaRepository;
+import com.universidad.vitaltech.repository.HorarioDisponibleRepository;
+import com.universidad.vitaltech.repository.SlotRepository;
+import com.universidad.vitaltech.service.cache.CalendarioFestivos;
+import com.universidad.vitaltech.service.concurrencia.TurnosTareas;
+
+public class SlotServiceTest {
+
+    private SlotServiceImpl slotService;
+    private MongoTemplate mongoTemplate;
+    private MappingMongoConverter converter;
+    private SlotRepository slotRepository;
+    private HorarioDisponibleRepository horarioDisponibleRepository;
+    private CitaRepository citaRepository;
+    private TurnosTareas turnosTareas;
+
+    @BeforeEach
+    public void setUp() {
+        MongoCustomConversions conversiones = ConversionesMongoConfig.conversiones();
+        MongoMappingContext contexto = new MongoMappingContext();
+        contexto.setSimpleTypeHolder(conversiones.getSimpleTypeHolder());
+        converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, contexto);
+        converter.setCustomConversions(conversiones);
+        converter.afterPropertiesSet();
+
+        mongoTemplate = mock(MongoTemplate.class);
+        slotRepository = mock(SlotRepository.class);
+        horarioDisponibleRepository = mock(HorarioDisponibleRepository.class);
+        citaRepository = mock(CitaRepository.class);
+        turnosTareas = mock(TurnosTareas.class);
+
+        slotService = new SlotServiceImpl();
+        ReflectionTestUtils.setField(slotService, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(slotService, "slotRepository", slotRepository);
+        ReflectionTestUtils.setField(slotService, "horarioDisponibleRepository", horarioDisponibleRepository);
+        ReflectionTestUtils.setField(slotService, "citaRepository", citaRepository);
+        ReflectionTestUtils.setField(slotService, "calendarioFestivos", mock(CalendarioFestivos.class));
+        ReflectionTestUtils.setField(slotService, "turnosTareas", turnosTareas);
+    }
+
+    @Test
+    public void testSlotGuardadoUnDiaSeEncuentraOtroDia() {
+        LocalDate fecha = LocalDate.now().plusDays(3);
+        Slot slot = new Slot();
+        slot.setDoctorId("doc1");
+        slot.setFecha(fecha);
+        slot.setHoraInicio(LocalTime.of(9, 30));
+        slot.setHoraFin(LocalTime.of(10, 0));
+
+        // La hora guardada no lleva el dia en que se escribio
+        Document guardado = new Document();
+        converter.write(slot, guardado);
+        assertEquals("09:30", guardado.get("horaInicio"));
+
+        // La consulta de cualquier otro dia usa el mismo valor
+        Document consulta = new QueryMapper(converter).getMappedObject(
+                SlotServiceImpl.porHora("doc1", fecha, LocalTime.of(9, 30)).getQueryObject(),
+                contexto(Slot.class));
+        assertEquals(guardado.get("horaInicio"), consulta.get("horaInicio"));
+        assertEquals(guardado.get("fecha"), consulta.get("fecha"));
+        assertEquals(LocalTime.of(9, 30), converter.read(Slot.class, guardado).getHoraInicio());
+    }
+
+    @Test
+    public void testReservarNoTomaNadaSiUnSlotYaEstaReservado() {
+        Cita cita = cita(LocalTime.of(9, 0), LocalTime.of(10, 0));
+        when(mongoTemplate.find(any(Query.class), eq(Slot.class))).thenReturn(List.of(
+                slot(LocalTime.of(9, 0), EstadoSlot.LIBRE, null),
+                slot(LocalTime.of(9, 30), EstadoSlot.RESERVADO, "otra")));
+
+        assertFalse(slotService.reservar(cita));
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(Slot.class));
+    }
+
+    @Test
+    public void testReservarSinSlotGeneradoSeRechaza() {
+        when(mongoTemplate.find(any(Query.class), eq(Slot.class))).thenReturn(List.of(
+                slot(LocalTime.of(9, 30), EstadoSlot.LIBRE, null)));
+
+        // 9:00 no es inicio de ningun slot
+        assertFalse(slotService.reservar(cita(LocalTime.of(9, 0), LocalTime.of(9, 30))));
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(Slot.class));
+    }
+
+    @Test
+    public void testBuscarLibresExcluyeLosHorariosApartadosEnLaConsulta() {
+        LocalDate manana = LocalDate.now().plusDays(1);
+        RetencionHorario retencion = new RetencionHorario();
+        retencion.setDoctorId("doc1");
+        retencion.setFecha(manana);
+        retencion.setHoraInicio(LocalTime.of(9, 0));
+        retencion.setHoraFin(LocalTime.of(9, 30));
+
+        slotService.buscarLibres(List.of("doc1"), manana, manana, List.of(retencion), 5);
+
+        // El limite se aplica despues de quitar los apartados
+        ArgumentCaptor<Query> consulta = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(consulta.capture(), eq(Slot.class));
+        List<?> excluidos = consulta.getValue().getQueryObject().get("$nor", List.class);
+        assertEquals(1, excluidos.size());
+        Document cruce = (Document) excluidos.get(0);
+        assertEquals("doc1", cruce.get("doctorId"));
+        assertEquals(new Document("$lt", LocalTime.of(9, 30)), cruce.get("horaInicio"));
+        assertEquals(new Document("$gt", LocalTime.of(9, 0)), cruce.get("horaFin"));
+        assertEquals(5, consulta.getValue().getLimit());
+    }
+
+    @Test
+    public void testEstanLibresMiraElEstadoDeLosSlots() {
+        LocalDate manana = LocalDate.now().plusDays(1);
+        when(mongoTemplate.find(any(Query.class), eq(Slot.class)))
+                .thenReturn(List.of(slot(LocalTime.of(9, 0), EstadoSlot.LIBRE, null)))
+                .thenReturn(List.of(slot(LocalTime.of(9, 0), EstadoSlot.LIBRE, null),
+                        slot(LocalTime.of(9, 30), EstadoSlot.RESERVADO, "otra")));
+
+        assertTrue(slotService.estanLibres("doc1", manana, LocalTime.of(9, 0), LocalTime.of(9, 30)));
+        assertFalse(slotService.estanLibres("doc1", manana, LocalTime.of(9, 0), LocalTime.of(10, 0)));
+    }
+
+    @Test
+    public void testRegenerarNoPisaLaMarcaDeSlotsExistentes() {
+        LocalDate manana = LocalDate.now().plusDays(1);
+        HorarioDisponible plantilla = new HorarioDisponible();
+        plantilla.setDoctorId("doc1");
+        plantilla.setDiaSemana(manana.getDayOfWeek());
+        plantilla.setHoraInicio(LocalTime.of(9, 0));
+        plantilla.setHoraFin(LocalTime.of(10, 0));
+        when(horarioDisponibleRepository.findByDoctorIdAndActivoTrue("doc1")).thenReturn(List.of(plantilla));
+
+        Cita ocupante = cita(LocalTime.of(9, 30), LocalTime.of(10, 0));
+        when(citaRepository.findCitasActivasByDoctoresAndRangoFechas(eq(List.of("doc1")), any(LocalDate.class),
+                any(LocalDate.class))).thenReturn(List.of(ocupante));
+        BulkOperations bulk = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Slot.class)).thenReturn(bulk);
+
+        slotService.regenerarAgenda("doc1");
+
+        // La plantilla se repite cada semana de la ventana: se miran los dos slots de manana
+        ArgumentCaptor<Query> consultas = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+        verify(bulk, atLeast(2)).upsert(consultas.capture(), updates.capture());
+        assertEquals(manana, consultas.getAllValues().get(0).getQueryObject().get("fecha"));
+        assertEquals(manana, consultas.getAllValues().get(1).getQueryObject().get("fecha"));
+
+        // 9:00 sin cita: un slot que ya existe conserva estado y marca
+        Document libre = updates.getAllValues().get(0).getUpdateObject();
+        assertFalse(libre.get("$set", Document.class).containsKey("fechaActualizacion"));
+        assertTrue(libre.get("$setOnInsert", Document.class).containsKey("fechaActualizacion"));
+
+        // 9:30 con cita: la marca solo avanza
+        Document reservado = updates.getAllValues().get(1).getUpdateObject();
+        assertEquals("c1", reservado.get("$set", Document.class).get("citaId"));
+        assertTrue(reservado.get("$max", Document.class).containsKey("fechaActualizacion"));
+    }
+
+    @Test
+    public void testGenerarAlIniciarSinTurnoNoRegenera() {
+        when(turnosTareas.tomar(eq("slots-ventana"), any(Duration.class))).thenReturn(false);
+
+        slotService.generarAlIniciar();
+
+        verify(slotRepository, never()).deleteByFechaBefore(any(LocalDate.class));
+    }
+
+    @Test
+    public void testGenerarAlIniciarFallaYSueltaElTurno() {
+        when(turnosTareas.tomar(eq("slots-ventana"), any(Duration.class))).thenReturn(true);
+        when(horarioDisponibleRepository.findByActivoTrue()).thenThrow(new RuntimeException("Mongo no responde"));
+
+        // Sin ventana no se puede reservar: el arranque se detiene
+        assertThrows(RuntimeException.class, () -> slotService.generarAlIniciar());
+        verify(turnosTareas).soltar("slots-ventana");
+    }
+
+    private MongoPersistentEntity<?> contexto(Class<?> tipo) {
+        return converter.getMappingContext().getRequiredPersistentEntity(tipo);
+    }
+
+    private static Cita cita(LocalTime inicio, LocalTime fin) {
+        Cita cita = new Cita();
+        cita.setId("c1");
+        cita.setDoctorId("doc1");
+        cita.setHorario(new Horario(LocalDate.now().plusDays(1), inicio, fin));
+        return cita;
+    }
+
+    private static Slot slot(LocalTime inicio, EstadoSlot estado, String citaId) {
+        Slot slot = new Slot();
+        slot.setId("s" + inicio);
+        slot.setDoctorId("doc1");
+        slot.setFecha(LocalDate.now().plusDays(1));
+        slot.setHoraInicio(inicio);
+        slot.setHoraFin(inicio.plusMinutes(30));
+        slot.setEstado(estado);
+        slot.setCitaId(citaId);
+        return slot;
+    }
+}
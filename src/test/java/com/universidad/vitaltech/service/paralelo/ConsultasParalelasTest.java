@@ -0,0 +1,65 @@
+package com.universidad.vitaltech.service.paralelo;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+public class ConsultasParalelasTest {
+
+    @AfterEach
+    public void limpiar() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    public void testConsultasCorrenALaVezConLaPeticion() {
+        RequestAttributes peticion = new ServletRequestAttributes(new MockHttpServletRequest());
+        RequestContextHolder.setRequestAttributes(peticion);
+        CountDownLatch ambas = new CountDownLatch(2);
+
+        try (ConsultasParalelas consultas = new ConsultasParalelas()) {
+            // Cada una termina solo si la otra ya empezo
+            Supplier<Boolean> primera = consultas.iniciar(() -> {
+                ambas.countDown();
+                return ambas.await(5, TimeUnit.SECONDS);
+            });
+            Supplier<RequestAttributes> segunda = consultas.iniciar(() -> {
+                ambas.countDown();
+                ambas.await(5, TimeUnit.SECONDS);
+                return RequestContextHolder.getRequestAttributes();
+            });
+            consultas.esperar();
+
+            assertTrue(primera.get());
+            assertSame(peticion, segunda.get());
+        }
+    }
+
+    @Test
+    public void testErrorCancelaLasDemas() {
+        CountDownLatch nunca = new CountDownLatch(1);
+        RuntimeException error = new RuntimeException("falla");
+
+        try (ConsultasParalelas consultas = new ConsultasParalelas()) {
+            Supplier<Boolean> lenta = consultas.iniciar(() -> nunca.await(30, TimeUnit.SECONDS));
+            consultas.iniciar(() -> {
+                throw error;
+            });
+
+            assertSame(error, assertThrows(RuntimeException.class, consultas::esperar));
+            assertEquals("La consulta fue cancelada", assertThrows(RuntimeException.class, lenta::get).getMessage());
+        }
+    }
+}